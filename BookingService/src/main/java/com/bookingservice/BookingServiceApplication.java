@@ -3,9 +3,11 @@ package com.bookingservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients(basePackages = "com.bookingservice.client")
+@EnableScheduling
 public class BookingServiceApplication {
 
 	public static void main(String[] args) {
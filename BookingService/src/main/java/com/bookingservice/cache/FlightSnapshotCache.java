@@ -0,0 +1,199 @@
+package com.bookingservice.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookingservice.client.CoalescingFlightLookup;
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.FlightDto;
+
+/**
+ * Bounded local copy of the flights bookings refer to. Route, airline and price rarely change,
+ * so snapshots are served for {@code flight.snapshot-cache.ttl} (default 10 minutes); seat counts
+ * are patched from reservation responses and {@code flight-changed} events, and callers that act
+ * on them use {@link #refresh}. When flight-service cannot be reached, an expired snapshot is
+ * served rather than failing the read. Least recently used flights are evicted beyond
+ * {@code flight.snapshot-cache.max-entries}.
+ */
+@Component
+public class FlightSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightSnapshotCache.class);
+
+    private final CoalescingFlightLookup flightLookup;
+    private final FlightClient flightClient;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // access-ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public FlightSnapshotCache(CoalescingFlightLookup flightLookup, FlightClient flightClient,
+                               @Value("${flight.snapshot-cache.ttl:PT10M}") Duration ttl,
+                               @Value("${flight.snapshot-cache.max-entries:10000}") int maxEntries) {
+        this.flightLookup = flightLookup;
+        this.flightClient = flightClient;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * Returns the cached snapshot, fetching it on a miss or after it expired; falls back to an
+     * expired snapshot if the fetch fails.
+     */
+    public FlightDto get(String flightId) {
+        Entry entry = entry(flightId);
+        if (entry != null && entry.isFresh()) {
+            return copy(entry.flight);
+        }
+        try {
+            return refresh(flightId);
+        } catch (RuntimeException ex) {
+            if (entry == null) {
+                throw ex;
+            }
+            logger.warn("Serving expired snapshot of flight {}: {}", flightId, ex.toString());
+            return copy(entry.flight);
+        }
+    }
+
+    /**
+     * Returns the cached snapshot if it has not expired, otherwise null; never calls flight-service.
+     */
+    public FlightDto getIfFresh(String flightId) {
+        Entry entry = entry(flightId);
+        return entry != null && entry.isFresh() ? copy(entry.flight) : null;
+    }
+
+    /**
+     * Fetches the live flight, bypassing the cache, and stores it.
+     */
+    public FlightDto refresh(String flightId) {
+        FlightDto flight = flightLookup.getFlight(flightId);
+        put(flightId, flight);
+        return copy(flight);
+    }
+
+    /**
+     * Returns snapshots for several flights, fetching the missing or expired ones with one batch
+     * call. Never fails: if flight-service is unreachable, expired snapshots are used and flights
+     * never seen before are left out.
+     */
+    public Map<String, FlightDto> getAll(Collection<String> flightIds) {
+        Map<String, FlightDto> result = new HashMap<>();
+        Map<String, Entry> stale = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : flightIds) {
+            Entry entry = entry(id);
+            if (entry != null && entry.isFresh()) {
+                result.put(id, copy(entry.flight));
+            } else {
+                missing.add(id);
+                if (entry != null) {
+                    stale.put(id, entry);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        try {
+            flightClient.getFlights(missing).forEach((id, flight) -> {
+                put(id, flight);
+                result.put(id, copy(flight));
+            });
+        } catch (RuntimeException ex) {
+            logger.warn("Flight lookup failed, serving {} expired snapshots: {}", stale.size(), ex.toString());
+            stale.forEach((id, entry) -> result.put(id, copy(entry.flight)));
+        }
+        return result;
+    }
+
+    /**
+     * Patches the seat count of a cached flight, leaving its expiry alone; a no-op if not cached.
+     */
+    public void updateSeats(String flightId, int availableSeats) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(flightId);
+            if (entry != null) {
+                FlightDto patched = copy(entry.flight);
+                patched.setAvailableSeats(availableSeats);
+                entries.put(flightId, new Entry(patched, entry.expiresAt));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String flightId) {
+        lock.lock();
+        try {
+            entries.remove(flightId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry entry(String flightId) {
+        lock.lock();
+        try {
+            return entries.get(flightId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a flight fetched by the caller, e.g. over a non-blocking client.
+     */
+    public void put(String flightId, FlightDto flight) {
+        Entry entry = new Entry(copy(flight), System.nanoTime() + ttlNanos);
+        lock.lock();
+        try {
+            entries.put(flightId, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // snapshots are shared between requests, so callers only ever see copies
+    private static FlightDto copy(FlightDto source) {
+        FlightDto f = new FlightDto();
+        f.setFlightId(source.getFlightId());
+        f.setFlightNo(source.getFlightNo());
+        f.setAirlineName(source.getAirlineName());
+        f.setSource(source.getSource());
+        f.setDestination(source.getDestination());
+        f.setDepartureDateTime(source.getDepartureDateTime());
+        f.setArrivalDateTime(source.getArrivalDateTime());
+        f.setAvailableSeats(source.getAvailableSeats());
+        f.setPrice(source.getPrice());
+        return f;
+    }
+
+    private record Entry(FlightDto flight, long expiresAt) {
+
+        boolean isFresh() {
+            return expiresAt - System.nanoTime() > 0;
+        }
+    }
+}
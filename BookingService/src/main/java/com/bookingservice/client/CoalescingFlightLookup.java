@@ -0,0 +1,163 @@
+package com.bookingservice.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.exceptions.BusinessException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Single-flight lookups that are merged into {@link FlightClient#getFlights} calls: the first
+ * lookup opens a window of {@code flight.lookup.coalesce-window} (default 5ms), every lookup
+ * made before it closes joins the same batch, and concurrent lookups of one id share a result.
+ * A batch is sent early once it holds {@code flight.lookup.max-batch} ids. A window of zero
+ * turns coalescing off and calls {@link FlightClient#getFlight} directly.
+ */
+@Component
+public class CoalescingFlightLookup {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingFlightLookup.class);
+
+    private final FlightClient flightClient;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final ScheduledExecutorService scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, CompletableFuture<FlightDto>> pending = new HashMap<>();
+    // counts closed windows, so a timer that fires after its window was flushed early does nothing
+    private long window;
+    private ScheduledFuture<?> windowTimer;
+
+    public CoalescingFlightLookup(FlightClient flightClient,
+                                  @Value("${flight.lookup.coalesce-window:PT0.005S}") Duration window,
+                                  @Value("${flight.lookup.max-batch:100}") int maxBatch) {
+        this.flightClient = flightClient;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = Math.max(1, maxBatch);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "flight-lookup-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Same contract as {@link FlightClient#getFlight}: returns the flight or throws.
+     */
+    public FlightDto getFlight(String flightId) {
+        if (windowNanos <= 0) {
+            return flightClient.getFlight(flightId);
+        }
+
+        CompletableFuture<FlightDto> result;
+        Map<String, CompletableFuture<FlightDto>> full = null;
+        lock.lock();
+        try {
+            boolean opensWindow = pending.isEmpty();
+            result = pending.computeIfAbsent(flightId, id -> new CompletableFuture<>());
+            if (pending.size() >= maxBatch) {
+                full = takeBatch();
+            } else if (opensWindow) {
+                long current = window;
+                windowTimer = scheduler.schedule(() -> windowClosed(current), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            sendAsync(full);
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new BusinessException("Failed to fetch flight info: " + ex.getCause());
+        }
+    }
+
+    private void windowClosed(long closing) {
+        Map<String, CompletableFuture<FlightDto>> batch;
+        lock.lock();
+        try {
+            if (closing != window || pending.isEmpty()) {
+                return;
+            }
+            batch = takeBatch();
+        } finally {
+            lock.unlock();
+        }
+        sendAsync(batch);
+    }
+
+    // with the lock held: closes the current window and hands over its lookups
+    private Map<String, CompletableFuture<FlightDto>> takeBatch() {
+        Map<String, CompletableFuture<FlightDto>> batch = pending;
+        pending = new HashMap<>();
+        window++;
+        if (windowTimer != null) {
+            windowTimer.cancel(false);
+            windowTimer = null;
+        }
+        return batch;
+    }
+
+    // the batch call blocks on flight-service, so it runs on its own virtual thread and the
+    // scheduler thread only keeps time
+    private void sendAsync(Map<String, CompletableFuture<FlightDto>> batch) {
+        Thread.ofVirtual().name("flight-lookup-batch").start(() -> send(batch));
+    }
+
+    private void send(Map<String, CompletableFuture<FlightDto>> batch) {
+        List<String> ids = new ArrayList<>(batch.keySet());
+        try {
+            Map<String, FlightDto> flights = flightClient.getFlights(ids);
+            batch.forEach((id, future) -> {
+                FlightDto flight = flights.get(id);
+                if (flight != null) {
+                    future.complete(flight);
+                } else {
+                    future.completeExceptionally(new BusinessException("Flight not found with id: " + id));
+                }
+            });
+        } catch (RuntimeException ex) {
+            logger.warn("Batched flight lookup of {} ids failed: {}", ids.size(), ex.toString());
+            batch.values().forEach(future -> future.completeExceptionally(ex));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        Map<String, CompletableFuture<FlightDto>> batch;
+        lock.lock();
+        try {
+            batch = takeBatch();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.bookingservice.client;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import com.bookingservice.client.dto.ConfirmSeatsRequest;
 import com.bookingservice.client.dto.FlightDto;
 import com.bookingservice.client.dto.ReleaseSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsRequest;
@@ -17,11 +22,27 @@ public interface FlightClient {
     @GetMapping("/{id}")
     FlightDto getFlight(@PathVariable("id") String flightId);
 
+    // flights keyed by id; ids flight-service does not know are left out
+    @PostMapping("/batch")
+    Map<String, FlightDto> getFlights(@RequestBody Collection<String> flightIds);
+
     @PostMapping("/{id}/reserve")
     ReserveSeatsResponse reserveSeats(@PathVariable("id") String flightId,
                                       @RequestBody ReserveSeatsRequest request);
 
+    // makes the seats held under the request's booking reference permanent
+    @PostMapping("/{id}/confirm")
+    void confirmSeats(@PathVariable("id") String flightId,
+                      @RequestBody ConfirmSeatsRequest request);
+
     @PostMapping("/{id}/release")
     void releaseSeats(@PathVariable("id") String flightId,
                       @RequestBody ReleaseSeatsRequest request);
+
+    // flights whose seat map does not yet include the seats booked before it existed
+    @GetMapping("/seat-maps/pending")
+    List<String> getSeatMapPendingFlights();
+
+    @PostMapping("/{id}/seat-map")
+    void markBookedSeats(@PathVariable("id") String flightId, @RequestBody List<String> seatNumbers);
 }
@@ -0,0 +1,93 @@
+package com.bookingservice.client;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.client.dto.ReleaseSeatsRequest;
+import com.bookingservice.client.dto.ReserveSeatsRequest;
+import com.bookingservice.client.dto.ReserveSeatsResponse;
+import com.bookingservice.exceptions.BusinessException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link FlightClient} for the reactive booking service. Calls are
+ * made over a pooled WebClient connection, so waiting for flight-service holds no thread. A 4xx
+ * from flight-service becomes a {@link BusinessException} carrying its message.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveFlightClient {
+
+    private static final ParameterizedTypeReference<Map<String, FlightDto>> FLIGHTS_BY_ID =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<Map<String, String>> ERROR_BODY =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public ReactiveFlightClient(@Value("${flight.service.url}") String flightServiceUrl,
+                                @Value("${flight.client.timeout:PT5S}") Duration timeout) {
+        this.webClient = WebClient.builder().baseUrl(flightServiceUrl + "/flights").build();
+        this.timeout = timeout;
+    }
+
+    public Mono<FlightDto> getFlight(String flightId) {
+        return webClient.get().uri("/{id}", flightId)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, ReactiveFlightClient::rejected)
+                .bodyToMono(FlightDto.class)
+                .timeout(timeout);
+    }
+
+    // flights keyed by id; ids flight-service does not know are left out
+    public Mono<Map<String, FlightDto>> getFlights(Collection<String> flightIds) {
+        return webClient.post().uri("/batch")
+                .bodyValue(flightIds)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, ReactiveFlightClient::rejected)
+                .bodyToMono(FLIGHTS_BY_ID)
+                .defaultIfEmpty(Map.of())
+                .timeout(timeout);
+    }
+
+    public Mono<ReserveSeatsResponse> reserveSeats(String flightId, ReserveSeatsRequest request) {
+        return webClient.post().uri("/{id}/reserve", flightId)
+                .bodyValue(request)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, ReactiveFlightClient::rejected)
+                .bodyToMono(ReserveSeatsResponse.class)
+                .timeout(timeout);
+    }
+
+    public Mono<Void> releaseSeats(String flightId, ReleaseSeatsRequest request) {
+        return webClient.post().uri("/{id}/release", flightId)
+                .bodyValue(request)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, ReactiveFlightClient::rejected)
+                .toBodilessEntity()
+                .timeout(timeout)
+                .then();
+    }
+
+    // flight-service reports business errors as {"message": ...}
+    private static Mono<? extends Throwable> rejected(ClientResponse response) {
+        String fallback = "Flight service rejected the request: " + response.statusCode().value();
+        return response.bodyToMono(ERROR_BODY)
+                .map(body -> body.getOrDefault("message", fallback))
+                .onErrorReturn(fallback)
+                .defaultIfEmpty(fallback)
+                .map(BusinessException::new);
+    }
+}
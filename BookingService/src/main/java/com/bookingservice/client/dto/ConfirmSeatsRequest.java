@@ -0,0 +1,9 @@
+package com.bookingservice.client.dto;
+
+import lombok.Data;
+
+@Data
+public class ConfirmSeatsRequest {
+
+	private String bookingReference;
+}
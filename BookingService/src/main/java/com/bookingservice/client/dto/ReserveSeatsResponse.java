@@ -10,5 +10,6 @@ public class ReserveSeatsResponse {
 	private boolean success;
     private String message;
     private List<String> reservedSeats;
+    private Integer remainingSeats;
 
 }
@@ -0,0 +1,152 @@
+package com.bookingservice.config;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.FlightSummary;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.PassengerRepository;
+import com.mongodb.MongoException;
+
+/**
+ * Creates the indexes declared on {@link Booking} and brings bookings made before flight
+ * summaries and passengers were embedded up to date: passengers are copied from the passenger
+ * collection and the flight summary is fetched from flight-service, a batch at a time. Bookings
+ * whose flight cannot be fetched keep a null summary and are retried on the next start; until
+ * then they are read the old way. Disable with {@code booking.migration.denormalize.enabled=false}.
+ */
+@Component
+public class BookingDenormalizationMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingDenormalizationMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final PassengerRepository passengerRepository;
+    private final FlightClient flightClient;
+    private final boolean enabled;
+
+    public BookingDenormalizationMigration(MongoTemplate mongoTemplate, PassengerRepository passengerRepository,
+                                           FlightClient flightClient,
+                                           @Value("${booking.migration.denormalize.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.passengerRepository = passengerRepository;
+        this.flightClient = flightClient;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            createIndexes();
+            if (enabled) {
+                migrate();
+            }
+        } catch (DataAccessException | MongoException ex) {
+            log.warn("Booking migration skipped: {}", ex.getMessage());
+        }
+    }
+
+    private void createIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Booking.class);
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (IndexDefinition index : resolver.resolveIndexFor(Booking.class)) {
+            indexOps.createIndex(index);
+        }
+    }
+
+    private void migrate() {
+        Query pending = query(where("flight").exists(false));
+        pending.cursorBatchSize(BATCH_SIZE);
+
+        int migrated = 0;
+        try (Stream<Booking> bookings = mongoTemplate.stream(pending, Booking.class)) {
+            Iterator<Booking> it = bookings.iterator();
+            List<Booking> batch = new ArrayList<>(BATCH_SIZE);
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() == BATCH_SIZE || !it.hasNext()) {
+                    migrated += migrateBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (migrated > 0) {
+            log.info("Embedded flight summaries and passengers into {} existing bookings", migrated);
+        }
+    }
+
+    private int migrateBatch(List<Booking> batch) {
+        Set<String> pnrs = new HashSet<>();
+        Set<String> flightIds = new HashSet<>();
+        for (Booking b : batch) {
+            pnrs.add(b.getPnr());
+            if (b.getFlightId() != null) {
+                flightIds.add(b.getFlightId());
+            }
+        }
+
+        Map<String, List<Passenger>> passengersByPnr = passengerRepository.findByPnrIn(pnrs).stream()
+                .collect(Collectors.groupingBy(Passenger::getPnr));
+        Map<String, FlightDto> flights;
+        try {
+            flights = flightIds.isEmpty() ? Map.of() : flightClient.getFlights(flightIds);
+        } catch (RuntimeException ex) {
+            log.warn("Flight lookup failed, embedding passengers only for {} bookings: {}", batch.size(), ex.toString());
+            flights = Map.of();
+        }
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, Booking.class);
+        int updates = 0;
+        for (Booking b : batch) {
+            Update update = new Update();
+            List<Passenger> passengers = passengersByPnr.get(b.getPnr());
+            if ((b.getPassengers() == null || b.getPassengers().isEmpty()) && passengers != null) {
+                update.set("passengers", passengers);
+            }
+            FlightDto flight = flights.get(b.getFlightId());
+            if (flight != null) {
+                update.set("flight", FlightSummary.from(flight));
+                update.set("airlineName", flight.getAirlineName());
+            }
+            if (!update.getUpdateObject().isEmpty()) {
+                ops.updateOne(query(where("_id").is(b.getBookingid())), update);
+                updates++;
+            }
+        }
+        if (updates > 0) {
+            ops.execute();
+        }
+        return updates;
+    }
+}
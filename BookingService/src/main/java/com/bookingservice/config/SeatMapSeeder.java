@@ -0,0 +1,84 @@
+package com.bookingservice.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+
+/**
+ * Marks the seats of live bookings in the seat maps flight-service gave flights created before
+ * seat-level inventory; until then those flights refuse seat numbers.
+ */
+@Component
+public class SeatMapSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatMapSeeder.class);
+
+    private final FlightClient flightClient;
+    private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
+
+    public SeatMapSeeder(FlightClient flightClient, BookingRepository bookingRepository,
+                         PassengerRepository passengerRepository) {
+        this.flightClient = flightClient;
+        this.bookingRepository = bookingRepository;
+        this.passengerRepository = passengerRepository;
+    }
+
+    @Scheduled(initialDelayString = "${booking.seat-map-seeding.interval:PT1M}",
+            fixedDelayString = "${booking.seat-map-seeding.interval:PT1M}")
+    public void seed() {
+        List<String> pending;
+        try {
+            pending = flightClient.getSeatMapPendingFlights();
+        } catch (RuntimeException ex) {
+            log.warn("Listing flights awaiting their seat map failed, retrying on the next run: {}", ex.toString());
+            return;
+        }
+        for (String flightId : pending) {
+            try {
+                flightClient.markBookedSeats(flightId, bookedSeats(flightId));
+            } catch (DataAccessException ex) {
+                log.warn("Reading booked seats of flight {} failed: {}", flightId, ex.toString());
+            } catch (RuntimeException ex) {
+                log.warn("Seeding the seat map of flight {} failed: {}", flightId, ex.toString());
+            }
+        }
+    }
+
+    List<String> bookedSeats(String flightId) {
+        List<Booking> bookings = bookingRepository.findLiveSeatsByFlightId(flightId);
+        List<Passenger> passengers = new ArrayList<>();
+        // bookings not yet migrated keep their passengers in the passenger collection
+        Set<String> unmigrated = bookings.stream()
+                .filter(b -> b.getPassengers() == null || b.getPassengers().isEmpty())
+                .map(Booking::getPnr)
+                .collect(Collectors.toSet());
+        for (Booking b : bookings) {
+            if (b.getPassengers() != null) {
+                passengers.addAll(b.getPassengers());
+            }
+        }
+        if (!unmigrated.isEmpty()) {
+            passengers.addAll(passengerRepository.findByPnrIn(unmigrated));
+        }
+        return passengers.stream()
+                .map(Passenger::getSeatNo)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+}
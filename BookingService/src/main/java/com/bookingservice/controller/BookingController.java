@@ -3,6 +3,7 @@ package com.bookingservice.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.bookingservice.dto.request.BookingRequest;
@@ -21,6 +23,7 @@ import jakarta.validation.Valid;
 
 
 @RestController
+@Profile("!reactive")
 public class BookingController {
 
 	@Autowired
@@ -30,8 +33,9 @@ public class BookingController {
 
 	@PostMapping("/booking/{flightId}")
 	public ResponseEntity<String> createBooking(@PathVariable("flightId") String flightId,
-	                                            @Valid @RequestBody BookingRequest request) {
-	    BookingResponse saved = bookingService.createBooking(flightId, request);
+	                                            @Valid @RequestBody BookingRequest request,
+	                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+	    BookingResponse saved = bookingService.createBooking(flightId, request, idempotencyKey);
 	    
 	    return ResponseEntity.status(HttpStatus.CREATED).body(saved.getPnr());
 	}
@@ -0,0 +1,71 @@
+package com.bookingservice.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bookingservice.dto.request.BookingRequest;
+import com.bookingservice.dto.response.BookingResponse;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.service.ReactiveBookingService;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same endpoints as {@link BookingController}, served by {@link ReactiveBookingService} under the
+ * {@code reactive} profile. Handlers return as soon as the pipeline is assembled; the request
+ * completes asynchronously, so no request thread waits on Mongo or flight-service.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveBookingController {
+
+	@Autowired
+    private ReactiveBookingService bookingService;
+
+	@PostMapping("/booking/{flightId}")
+	public Mono<ResponseEntity<String>> createBooking(@PathVariable("flightId") String flightId,
+	                                                  @Valid @RequestBody BookingRequest request,
+	                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+	    return bookingService.createBooking(flightId, request, idempotencyKey)
+	            .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved.getPnr()));
+	}
+
+    @GetMapping("/booking/{pnr}")
+    public Mono<ResponseEntity<BookingResponse>> getBookingByPnr(@PathVariable("pnr") String pnr) {
+        return bookingService.getBookingByPnr(pnr)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // streamed as it is read when the client accepts NDJSON; a JSON array otherwise
+    @GetMapping(value = "/booking/history/{email}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BookingResponse> getBookingHistory(@PathVariable("email") String email) {
+        return bookingService.getBookingHistory(email);
+    }
+
+    @DeleteMapping("/booking/cancel/{pnr}")
+    public Mono<ResponseEntity<String>> cancelBooking(@PathVariable("pnr") String pnr) {
+        return bookingService.cancelBooking(pnr)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/booking/seats/{flightId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Passenger> getBookedSeats(@PathVariable String flightId){
+    	return bookingService.getBookedSeats(flightId);
+    }
+}
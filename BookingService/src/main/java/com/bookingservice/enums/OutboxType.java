@@ -0,0 +1,11 @@
+package com.bookingservice.enums;
+
+public enum OutboxType {
+
+	// make flight-service's hold on the booking's seats permanent
+	CONFIRM_SEATS,
+	// give the booking's seats back to flight-service
+	RELEASE_SEATS,
+	BOOKING_CREATED,
+	BOOKING_CANCELLED
+}
@@ -9,16 +9,15 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class BookingCreatedEvent {
+public class FlightChangedEvent {
 
-    private String pnr;
-    private String bookerEmailId;
+    public enum ChangeType { ADDED, SEATS_CHANGED }
 
     private String flightId;
-    private String airlineName;
+    private ChangeType type;
 
-    private int seatsBooked;
-    private Double totalAmount;
+    // seats left after the change
+    private int availableSeats;
 
-    private LocalDateTime bookingDateTime;
+    private LocalDateTime changedAt;
 }
@@ -1,10 +1,13 @@
 package com.bookingservice.kafka;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import com.bookingservice.events.BookingCancelledEvent;
-import com.bookingservice.events.BookingCreatedEvent;
+import com.bookingevents.BookingCancelledEvent;
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.BookingEvent;
 
 import org.slf4j.LoggerFactory;
 
@@ -18,20 +21,21 @@ public class BookingEventProducer {
     private static final String TOPIC_BOOKING_CREATED = "booking-created";
     private static final String TOPIC_BOOKING_CANCELLED = "booking-cancelled";
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaTemplate<String, BookingEvent> kafkaTemplate;
     
-    public BookingEventProducer(KafkaTemplate<String, Object> kafkaTemplate) {
+    public BookingEventProducer(KafkaTemplate<String, BookingEvent> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
     
-    public void sendBookingCreatedEvent(BookingCreatedEvent event) {
+    // completes once the broker has acknowledged the event
+    public CompletableFuture<?> sendBookingCreatedEvent(BookingCreatedEvent event) {
         log.info("Sending BookingCreatedEvent to Kafka: {}", event);
-        kafkaTemplate.send(TOPIC_BOOKING_CREATED, event.getPnr(), event);
+        return kafkaTemplate.send(TOPIC_BOOKING_CREATED, event.getPnr(), event);
     }
 
-    public void sendBookingCancelledEvent(BookingCancelledEvent event) {
+    public CompletableFuture<?> sendBookingCancelledEvent(BookingCancelledEvent event) {
         log.info("Sending BookingCancelledEvent to Kafka: {}", event);
-        kafkaTemplate.send(TOPIC_BOOKING_CANCELLED, event.getPnr(), event);
+        return kafkaTemplate.send(TOPIC_BOOKING_CANCELLED, event.getPnr(), event);
     }
     
 
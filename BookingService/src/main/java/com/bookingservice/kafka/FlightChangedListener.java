@@ -0,0 +1,43 @@
+package com.bookingservice.kafka;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import com.bookingservice.cache.FlightSnapshotCache;
+import com.bookingservice.events.FlightChangedEvent;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+@Service
+public class FlightChangedListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightChangedListener.class);
+
+    private final FlightSnapshotCache flightSnapshots;
+    private final JsonMapper jsonMapper;
+
+    public FlightChangedListener(FlightSnapshotCache flightSnapshots, JsonMapper jsonMapper) {
+        this.flightSnapshots = flightSnapshots;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @KafkaListener(topics = "flight-changed")
+    public void handleFlightChanged(String message) {
+        FlightChangedEvent event;
+        try {
+            event = jsonMapper.readValue(message, FlightChangedEvent.class);
+        } catch (JacksonException ex) {
+            log.warn("Ignoring unreadable flight-changed event: {}", ex.getOriginalMessage());
+            return;
+        }
+
+        if (event.getType() == FlightChangedEvent.ChangeType.SEATS_CHANGED) {
+            flightSnapshots.updateSeats(event.getFlightId(), event.getAvailableSeats());
+        } else {
+            flightSnapshots.invalidate(event.getFlightId());
+        }
+    }
+}
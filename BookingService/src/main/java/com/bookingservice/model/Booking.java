@@ -5,6 +5,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.bookingservice.enums.BookingStatus;
@@ -15,6 +18,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document
+@CompoundIndexes({
+	@CompoundIndex(name = "booker_history", def = "{'bookerEmailId': 1, 'bookingDateTime': -1}"),
+	@CompoundIndex(name = "flight_seats", def = "{'flightId': 1, 'passengers.seatNo': 1}"),
+	// lets the outbox relay find due entries without scanning every booking
+	@CompoundIndex(name = "outbox_due", def = "{'outbox.nextAttemptAt': 1}", sparse = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,8 +36,19 @@ public class Booking {
 	
 	String airlineName;
 	
+	// copied from flight-service when the booking is made; null on bookings not yet migrated
+	FlightSummary flight;
+	
+	@Indexed(unique = true)
 	String pnr;
 	
+	// client-supplied Idempotency-Key of the request that made the booking, if any
+	@Indexed(unique = true, sparse = true)
+	String idempotencyKey;
+	
+	// what flight-service holds this booking's seats under; null on bookings made before holds
+	String bookingReference;
+	
 	LocalDateTime bookingDateTime;
 	
 	String bookerEmailId;
@@ -43,4 +63,7 @@ public class Booking {
 	
 
 	List<Passenger> passengers=new ArrayList<>();
+	
+	// side effects still to be carried out by the outbox relay; see OutboxEntry
+	List<OutboxEntry> outbox=new ArrayList<>();
 }
@@ -0,0 +1,44 @@
+package com.bookingservice.model;
+
+import java.time.LocalDateTime;
+
+import com.bookingservice.client.dto.FlightDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The flight details a booking is shown with, copied onto the booking when it is made so that
+ * reading a booking never needs flight-service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSummary {
+
+	String flightNo;
+	
+	String airlineName;
+	
+	String source;
+	
+	String destination;
+	
+	LocalDateTime departureDateTime;
+	
+	LocalDateTime arrivalDateTime;
+	
+	double price;
+
+	public static FlightSummary from(FlightDto flight) {
+		return new FlightSummary(
+				flight.getFlightNo(),
+				flight.getAirlineName(),
+				flight.getSource(),
+				flight.getDestination(),
+				flight.getDepartureDateTime(),
+				flight.getArrivalDateTime(),
+				flight.getPrice());
+	}
+}
@@ -0,0 +1,74 @@
+package com.bookingservice.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.bookingservice.enums.OutboxType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A side effect of a booking state change that still has to happen, stored on the booking in
+ * the same write as the change itself and carried out by the outbox relay. Events are rebuilt
+ * from the booking, so only seat confirmations and releases need their own arguments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEntry {
+
+	String entryId;
+	
+	OutboxType type;
+	
+	LocalDateTime createdAt;
+	
+	// due time, pushed forward by leases and retries; null until the seats are confirmed
+	LocalDateTime nextAttemptAt;
+	
+	int attempts;
+	
+	String lastError;
+	
+	// CONFIRM_SEATS and RELEASE_SEATS
+	String bookingReference;
+	
+	// RELEASE_SEATS only
+	
+	int seatCount;
+	
+	List<String> seatNumbers;
+
+	public static OutboxEntry of(String id, OutboxType type, LocalDateTime now) {
+		OutboxEntry entry = new OutboxEntry();
+		entry.setEntryId(id);
+		entry.setType(type);
+		entry.setCreatedAt(now);
+		entry.setNextAttemptAt(now);
+		return entry;
+	}
+
+	// not due until the booking's seats are confirmed
+	public static OutboxEntry afterConfirmation(String id, OutboxType type, LocalDateTime now) {
+		OutboxEntry entry = of(id, type, now);
+		entry.setNextAttemptAt(null);
+		return entry;
+	}
+
+	public static OutboxEntry confirmSeats(String id, LocalDateTime now, String bookingReference) {
+		OutboxEntry entry = of(id, OutboxType.CONFIRM_SEATS, now);
+		entry.setBookingReference(bookingReference);
+		return entry;
+	}
+
+	public static OutboxEntry releaseSeats(String id, LocalDateTime now, String bookingReference, int seatCount,
+			List<String> seatNumbers) {
+		OutboxEntry entry = of(id, OutboxType.RELEASE_SEATS, now);
+		entry.setBookingReference(bookingReference);
+		entry.setSeatCount(seatCount);
+		entry.setSeatNumbers(seatNumbers);
+		return entry;
+	}
+}
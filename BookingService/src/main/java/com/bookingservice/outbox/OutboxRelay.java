@@ -0,0 +1,193 @@
+package com.bookingservice.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bookingevents.BookingCancelledEvent;
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.id.IdGenerator;
+import com.bookingservice.cache.FlightSnapshotCache;
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.ConfirmSeatsRequest;
+import com.bookingservice.client.dto.ReleaseSeatsRequest;
+import com.bookingservice.enums.BookingStatus;
+import com.bookingservice.enums.OutboxType;
+import com.bookingservice.kafka.BookingEventProducer;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.OutboxEntry;
+import com.bookingservice.repository.BookingRepository;
+
+import feign.FeignException;
+
+/**
+ * Carries out the side effects queued on bookings (see {@link OutboxEntry}) at least once: each
+ * entry is leased while worked on, removed once done and retried with exponential backoff.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // bookings read per run; the rest are picked up on the next run
+    private static final int BATCH_SIZE = 100;
+    private static final Duration FIRST_BACKOFF = Duration.ofSeconds(1);
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final BookingRepository bookingRepository;
+    private final FlightClient flightClient;
+    private final BookingEventProducer bookingEventProducer;
+    private final FlightSnapshotCache flightSnapshots;
+    private final IdGenerator idGenerator;
+    private final Duration lease;
+    private final Duration maxBackoff;
+
+    public OutboxRelay(BookingRepository bookingRepository, FlightClient flightClient,
+                       BookingEventProducer bookingEventProducer, FlightSnapshotCache flightSnapshots,
+                       IdGenerator idGenerator,
+                       @Value("${booking.outbox.lease:PT30S}") Duration lease,
+                       @Value("${booking.outbox.max-backoff:PT5M}") Duration maxBackoff) {
+        this.bookingRepository = bookingRepository;
+        this.flightClient = flightClient;
+        this.bookingEventProducer = bookingEventProducer;
+        this.flightSnapshots = flightSnapshots;
+        this.idGenerator = idGenerator;
+        this.lease = lease;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.relay-interval:PT1S}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings;
+        try {
+            bookings = bookingRepository.findWithDueOutbox(now, BATCH_SIZE);
+        } catch (DataAccessException ex) {
+            log.warn("Reading due outbox entries failed, retrying on the next run: {}", ex.toString());
+            return;
+        }
+
+        for (Booking booking : bookings) {
+            for (OutboxEntry entry : List.copyOf(booking.getOutbox())) {
+                if (entry.getNextAttemptAt() != null && !entry.getNextAttemptAt().isAfter(now)) {
+                    relay(booking, entry, now);
+                }
+            }
+        }
+    }
+
+    private void relay(Booking booking, OutboxEntry entry, LocalDateTime now) {
+        String bookingId = booking.getBookingid();
+        try {
+            if (!bookingRepository.claimOutboxEntry(bookingId, entry.getEntryId(), now, now.plus(lease))) {
+                return; // taken by another relay, or already done
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Claiming outbox entry {} of {} failed: {}", entry.getEntryId(), booking.getPnr(), ex.toString());
+            return;
+        }
+
+        try {
+            process(booking, entry);
+        } catch (RuntimeException ex) {
+            Duration backoff = backoff(entry.getAttempts());
+            log.warn("Outbox entry {} ({}) of {} failed, attempt {}, retrying in {}: {}", entry.getEntryId(),
+                    entry.getType(), booking.getPnr(), entry.getAttempts() + 1, backoff, ex.toString());
+            try {
+                bookingRepository.rescheduleOutboxEntry(bookingId, entry.getEntryId(), LocalDateTime.now().plus(backoff), ex.toString());
+            } catch (DataAccessException storeEx) {
+                // the lease still runs out, so the entry is retried anyway
+                log.warn("Rescheduling outbox entry {} failed: {}", entry.getEntryId(), storeEx.toString());
+            }
+            return;
+        }
+
+        try {
+            bookingRepository.removeOutboxEntry(bookingId, entry.getEntryId());
+        } catch (DataAccessException ex) {
+            // carried out again once the lease runs out; releases and events are keyed by booking
+            log.warn("Removing done outbox entry {} of {} failed: {}", entry.getEntryId(), booking.getPnr(), ex.toString());
+        }
+    }
+
+    void process(Booking booking, OutboxEntry entry) {
+        switch (entry.getType()) {
+            case CONFIRM_SEATS -> {
+                // a cancelled booking's release hands the hold back instead
+                if (booking.getStatus() != BookingStatus.CANCELLED) {
+                    ConfirmSeatsRequest request = new ConfirmSeatsRequest();
+                    request.setBookingReference(entry.getBookingReference());
+                    try {
+                        flightClient.confirmSeats(booking.getFlightId(), request);
+                    } catch (FeignException.Conflict ex) {
+                        // the hold is gone, so retrying cannot help
+                        log.warn("Seat hold {} of {} can no longer be confirmed, failing the booking: {}",
+                                entry.getBookingReference(), booking.getPnr(), ex.getMessage());
+                        bookingRepository.failUnconfirmed(booking.getBookingid(), entry.getEntryId(),
+                                OutboxEntry.of(idGenerator.nextId(), OutboxType.BOOKING_CANCELLED, LocalDateTime.now()));
+                        return;
+                    }
+                }
+                bookingRepository.startWaitingOutboxEntries(booking.getBookingid(), LocalDateTime.now());
+            }
+            case RELEASE_SEATS -> {
+                ReleaseSeatsRequest request = new ReleaseSeatsRequest();
+                request.setBookingReference(entry.getBookingReference());
+                request.setCount(entry.getSeatCount());
+                request.setSeatNumbers(entry.getSeatNumbers());
+                flightClient.releaseSeats(booking.getFlightId(), request);
+            }
+            case BOOKING_CREATED -> acknowledged(bookingEventProducer.sendBookingCreatedEvent(new BookingCreatedEvent(
+                    booking.getPnr(),
+                    booking.getBookerEmailId(),
+                    booking.getFlightId(),
+                    booking.getAirlineName(),
+                    booking.getSeatsBooked(),
+                    booking.getTotalAmount(),
+                    booking.getBookingDateTime(),
+                    null)));
+            case BOOKING_CANCELLED -> acknowledged(bookingEventProducer.sendBookingCancelledEvent(new BookingCancelledEvent(
+                    booking.getPnr(),
+                    booking.getBookerEmailId(),
+                    booking.getFlightId(),
+                    booking.getAirlineName() != null ? booking.getAirlineName()
+                            : flightSnapshots.get(booking.getFlightId()).getAirlineName(),
+                    entry.getCreatedAt(),
+                    null)));
+        }
+    }
+
+    // an entry only counts as done once the broker has the event
+    private static void acknowledged(Future<?> send) {
+        try {
+            send.get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Publishing failed: " + ex.getCause(), ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Publishing not acknowledged within " + SEND_TIMEOUT_SECONDS + "s", ex);
+        }
+    }
+
+    // 1s, 2s, 4s, ... up to the configured maximum
+    Duration backoff(int attempts) {
+        if (attempts >= 30) {
+            return maxBackoff;
+        }
+        Duration next = FIRST_BACKOFF.multipliedBy(1L << attempts);
+        return next.compareTo(maxBackoff) > 0 ? maxBackoff : next;
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.bookingservice.model.Booking;
@@ -11,12 +12,21 @@ import com.bookingservice.model.Booking;
 
 
 @Repository
-public interface BookingRepository extends MongoRepository<Booking,String> {
+public interface BookingRepository extends MongoRepository<Booking,String>, BookingRepositoryCustom {
 	 
 	Optional<Booking> findByPnr(String pnr);
 	
 	List<Booking> findByBookerEmailIdOrderByBookingDateTimeDesc(String bookerEmailId);
 	
+	Optional<Booking> findByIdempotencyKey(String idempotencyKey);
+	
+	// only the embedded passengers are loaded
+	@Query(value = "{ 'flightId': ?0, 'status': { $ne: 'FAILED' } }", fields = "{ 'passengers': 1 }")
+	List<Booking> findPassengersByFlightId(String flightId);
+	
+	@Query(value = "{ 'flightId': ?0, 'status': { $nin: ['FAILED', 'CANCELLED'] } }", fields = "{ 'pnr': 1, 'passengers': 1 }")
+	List<Booking> findLiveSeatsByFlightId(String flightId);
+	
 	
 
 }
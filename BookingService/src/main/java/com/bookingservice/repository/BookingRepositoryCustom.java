@@ -0,0 +1,52 @@
+package com.bookingservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.OutboxEntry;
+
+/**
+ * Booking state changes that must be a single conditional update, and the outbox operations
+ * of the relay that carries out their side effects.
+ */
+public interface BookingRepositoryCustom {
+
+    /**
+     * Marks the booking cancelled and appends {@code outbox} in one update, only if it is still booked.
+     *
+     * @return the cancelled booking, or empty if there is no booked booking with that PNR
+     */
+    Optional<Booking> cancel(String pnr, List<OutboxEntry> outbox);
+
+    /**
+     * Returns up to {@code limit} bookings with at least one outbox entry due at {@code now}.
+     */
+    List<Booking> findWithDueOutbox(LocalDateTime now, int limit);
+
+    /**
+     * Takes an outbox entry for processing by moving its due time to {@code leaseUntil}, only if
+     * it is still due; an entry whose relay dies becomes due again once the lease runs out.
+     *
+     * @return whether this caller now owns the entry
+     */
+    boolean claimOutboxEntry(String bookingId, String entryId, LocalDateTime now, LocalDateTime leaseUntil);
+
+    void removeOutboxEntry(String bookingId, String entryId);
+
+    void rescheduleOutboxEntry(String bookingId, String entryId, LocalDateTime nextAttemptAt, String error);
+
+    /**
+     * Makes the entries waiting for the booking's seat confirmation due at {@code now}.
+     */
+    void startWaitingOutboxEntries(String bookingId, LocalDateTime now);
+
+    /**
+     * Marks a booking whose seat hold can no longer be confirmed failed and replaces its outbox
+     * with {@code notice}, only if it is still booked and still has the confirmation {@code entryId}.
+     *
+     * @return whether the booking was marked failed
+     */
+    boolean failUnconfirmed(String bookingId, String entryId, OutboxEntry notice);
+}
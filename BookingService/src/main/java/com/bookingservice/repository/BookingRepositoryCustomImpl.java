@@ -0,0 +1,98 @@
+package com.bookingservice.repository;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.bookingservice.enums.BookingStatus;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.OutboxEntry;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public BookingRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<Booking> cancel(String pnr, List<OutboxEntry> outbox) {
+        Booking cancelled = mongoTemplate.findAndModify(
+                cancellable(pnr),
+                cancellation(outbox),
+                options().returnNew(true),
+                Booking.class);
+        return Optional.ofNullable(cancelled);
+    }
+
+    // shared with the reactive repository so both cancel the same way
+    static Query cancellable(String pnr) {
+        return query(where("pnr").is(pnr).and("status").is(BookingStatus.BOOKED));
+    }
+
+    static Update cancellation(List<OutboxEntry> outbox) {
+        return new Update()
+                .set("status", BookingStatus.CANCELLED)
+                .push("outbox").each(outbox.toArray());
+    }
+
+    @Override
+    public List<Booking> findWithDueOutbox(LocalDateTime now, int limit) {
+        Query due = query(where("outbox").elemMatch(where("nextAttemptAt").lte(now))).limit(limit);
+        return mongoTemplate.find(due, Booking.class);
+    }
+
+    @Override
+    public boolean claimOutboxEntry(String bookingId, String entryId, LocalDateTime now, LocalDateTime leaseUntil) {
+        Criteria stillDue = where("_id").is(bookingId)
+                .and("outbox").elemMatch(where("entryId").is(entryId).and("nextAttemptAt").lte(now));
+        // the positional operator addresses the entry matched by elemMatch
+        Update lease = new Update().set("outbox.$.nextAttemptAt", leaseUntil);
+        return mongoTemplate.updateFirst(query(stillDue), lease, Booking.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public void removeOutboxEntry(String bookingId, String entryId) {
+        Update pull = new Update().pull("outbox", query(where("entryId").is(entryId)).getQueryObject());
+        mongoTemplate.updateFirst(query(where("_id").is(bookingId)), pull, Booking.class);
+    }
+
+    @Override
+    public void rescheduleOutboxEntry(String bookingId, String entryId, LocalDateTime nextAttemptAt, String error) {
+        Update retry = new Update()
+                .inc("outbox.$.attempts", 1)
+                .set("outbox.$.nextAttemptAt", nextAttemptAt)
+                .set("outbox.$.lastError", error);
+        mongoTemplate.updateFirst(query(where("_id").is(bookingId).and("outbox.entryId").is(entryId)), retry, Booking.class);
+    }
+
+    @Override
+    public void startWaitingOutboxEntries(String bookingId, LocalDateTime now) {
+        Update due = new Update()
+                .set("outbox.$[waiting].nextAttemptAt", now)
+                .filterArray(where("waiting.nextAttemptAt").is(null));
+        mongoTemplate.updateFirst(query(where("_id").is(bookingId)), due, Booking.class);
+    }
+
+    @Override
+    public boolean failUnconfirmed(String bookingId, String entryId, OutboxEntry notice) {
+        Query unconfirmed = query(where("_id").is(bookingId)
+                .and("status").is(BookingStatus.BOOKED)
+                .and("outbox.entryId").is(entryId));
+        // a booked booking's other entries only wait for this confirmation, so they go too
+        Update failed = new Update()
+                .set("status", BookingStatus.FAILED)
+                .set("outbox", List.of(notice));
+        return mongoTemplate.updateFirst(unconfirmed, failed, Booking.class).getModifiedCount() == 1;
+    }
+}
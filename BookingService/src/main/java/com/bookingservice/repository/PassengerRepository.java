@@ -1,5 +1,6 @@
 package com.bookingservice.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -15,6 +16,8 @@ public interface PassengerRepository extends MongoRepository<Passenger,String>{
 
 	public List<Passenger> findByPnr(String pnr);
 
+	public List<Passenger> findByPnrIn(Collection<String> pnrs);
+
 	public long countByPnr(String pnr);
 	
 	List<Passenger> findSeatNosByFlightId(String flightId);
@@ -0,0 +1,26 @@
+package com.bookingservice.repository;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.bookingservice.model.Booking;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// non-blocking counterpart of BookingRepository, used by the reactive booking service
+@Repository
+public interface ReactiveBookingRepository extends ReactiveMongoRepository<Booking,String>, ReactiveBookingRepositoryCustom {
+
+	Mono<Booking> findByPnr(String pnr);
+	
+	Flux<Booking> findByBookerEmailIdOrderByBookingDateTimeDesc(String bookerEmailId);
+	
+	Mono<Booking> findByIdempotencyKey(String idempotencyKey);
+	
+	// only the embedded passengers are loaded
+	@Query(value = "{ 'flightId': ?0, 'status': { $ne: 'FAILED' } }", fields = "{ 'passengers': 1 }")
+	Flux<Booking> findPassengersByFlightId(String flightId);
+
+}
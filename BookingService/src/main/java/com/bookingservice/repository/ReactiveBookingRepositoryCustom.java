@@ -0,0 +1,21 @@
+package com.bookingservice.repository;
+
+import java.util.List;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.OutboxEntry;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link BookingRepositoryCustom#cancel}.
+ */
+public interface ReactiveBookingRepositoryCustom {
+
+    /**
+     * Marks the booking cancelled and appends {@code outbox} in one update, only if it is still booked.
+     *
+     * @return the cancelled booking, or empty if there is no booked booking with that PNR
+     */
+    Mono<Booking> cancel(String pnr, List<OutboxEntry> outbox);
+}
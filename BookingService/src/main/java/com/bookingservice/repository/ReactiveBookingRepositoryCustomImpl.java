@@ -0,0 +1,30 @@
+package com.bookingservice.repository;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.OutboxEntry;
+
+import reactor.core.publisher.Mono;
+
+public class ReactiveBookingRepositoryCustomImpl implements ReactiveBookingRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveBookingRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Booking> cancel(String pnr, List<OutboxEntry> outbox) {
+        return mongoTemplate.findAndModify(
+                BookingRepositoryCustomImpl.cancellable(pnr),
+                BookingRepositoryCustomImpl.cancellation(outbox),
+                options().returnNew(true),
+                Booking.class);
+    }
+}
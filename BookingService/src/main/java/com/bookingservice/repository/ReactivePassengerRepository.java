@@ -0,0 +1,20 @@
+package com.bookingservice.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.bookingservice.model.Passenger;
+
+import reactor.core.publisher.Flux;
+
+// passengers of bookings made before they were embedded in the booking document
+@Repository
+public interface ReactivePassengerRepository extends ReactiveMongoRepository<Passenger,String>{
+
+	Flux<Passenger> findByPnr(String pnr);
+
+	Flux<Passenger> findByPnrIn(Collection<String> pnrs);
+
+}
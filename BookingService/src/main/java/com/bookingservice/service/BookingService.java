@@ -9,7 +9,8 @@ import com.bookingservice.model.Passenger;
 public interface BookingService {
 
 	
-	 BookingResponse createBooking(String flightId, BookingRequest request);
+	 // idempotencyKey may be null; a repeated key returns the booking it already made
+	 BookingResponse createBooking(String flightId, BookingRequest request, String idempotencyKey);
 
 	    BookingResponse getBookingByPnr(String pnr);
 
@@ -0,0 +1,25 @@
+package com.bookingservice.service;
+
+import com.bookingservice.dto.request.BookingRequest;
+import com.bookingservice.dto.response.BookingResponse;
+import com.bookingservice.model.Passenger;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link BookingService}, active under the {@code reactive} profile.
+ * Same operations and error semantics, with results delivered as {@link Mono}/{@link Flux}.
+ */
+public interface ReactiveBookingService {
+
+	Mono<BookingResponse> createBooking(String flightId, BookingRequest request, String idempotencyKey);
+
+	Mono<BookingResponse> getBookingByPnr(String pnr);
+
+	Flux<BookingResponse> getBookingHistory(String email);
+
+	Mono<String> cancelBooking(String pnr);
+
+	Flux<Passenger> getBookedSeats(String flightId);
+}
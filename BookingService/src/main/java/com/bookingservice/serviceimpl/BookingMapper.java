@@ -0,0 +1,180 @@
+package com.bookingservice.serviceimpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.bookingevents.id.IdGenerator;
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.client.dto.ReleaseSeatsRequest;
+import com.bookingservice.client.dto.ReserveSeatsRequest;
+import com.bookingservice.dto.request.BookingRequest;
+import com.bookingservice.dto.request.PassengerRequest;
+import com.bookingservice.dto.response.BookingResponse;
+import com.bookingservice.dto.response.PassengerResponse;
+import com.bookingservice.enums.BookingStatus;
+import com.bookingservice.enums.OutboxType;
+import com.bookingservice.enums.TripType;
+import com.bookingservice.exceptions.BadRequestException;
+import com.bookingservice.exceptions.ConflictException;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.FlightSummary;
+import com.bookingservice.model.OutboxEntry;
+import com.bookingservice.model.Passenger;
+
+/**
+ * Builds bookings, flight-service requests and responses; shared by the blocking and the
+ * reactive booking service so both store and return exactly the same documents.
+ */
+final class BookingMapper {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
+    private BookingMapper() {
+    }
+
+    static List<String> seatNumbers(BookingRequest request) {
+        return request.getPassengers().stream()
+                .map(PassengerRequest::getSeatNo)
+                .filter(Objects::nonNull)
+                .map(s -> s.trim().toUpperCase())
+                .collect(Collectors.toList());
+    }
+
+    // a retried request reuses its key's reference, so flight-service reserves its seats only once
+    static String bookingReference(String idempotencyKey, IdGenerator ids) {
+        if (idempotencyKey == null) {
+            return "BR-" + ids.nextId();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        return "BR-" + idempotencyKey;
+    }
+
+    // the answer to a request whose Idempotency-Key already made a booking
+    static BookingResponse replayed(Booking existing, String flightId) {
+        if (!existing.getFlightId().equals(flightId)) {
+            throw new ConflictException("Idempotency-Key already used for a booking on another flight");
+        }
+        if (existing.getStatus() == BookingStatus.FAILED) {
+            throw new ConflictException("Booking with this Idempotency-Key failed; retry with a new key");
+        }
+        return toBookingResponse(existing);
+    }
+
+    static ReserveSeatsRequest reserveRequest(String bookingReference, int count, List<String> seatNos) {
+        ReserveSeatsRequest reserveReq = new ReserveSeatsRequest();
+        reserveReq.setBookingReference(bookingReference);
+        reserveReq.setCount(count);
+        reserveReq.setSeatNumbers(seatNos);
+        return reserveReq;
+    }
+
+    static ReleaseSeatsRequest releaseRequest(String bookingReference, int count, List<String> seatNos) {
+        ReleaseSeatsRequest releaseReq = new ReleaseSeatsRequest();
+        releaseReq.setBookingReference(bookingReference);
+        releaseReq.setCount(count);
+        releaseReq.setSeatNumbers(seatNos);
+        return releaseReq;
+    }
+
+    // the booking with everything it embeds, ready for a single insert
+    static Booking newBooking(String pnr, String flightId, BookingRequest request, FlightDto flightDto,
+                              String idempotencyKey, String bookingReference, IdGenerator ids) {
+        List<Passenger> passengers = request.getPassengers().stream().map(pReq -> {
+            Passenger p = new Passenger();
+            p.setName(pReq.getName());
+            p.setAge(pReq.getAge());
+            p.setGender(pReq.getGender());
+            p.setSeatNo(pReq.getSeatNo());
+            p.setMealType(pReq.getMealType());
+            p.setFlightId(flightId);
+            p.setPnr(pnr);
+            return p;
+        }).collect(Collectors.toList());
+
+        int passengerCount = passengers.size();
+        Booking booking = new Booking();
+        booking.setPnr(pnr);
+        booking.setIdempotencyKey(idempotencyKey);
+        booking.setBookingReference(bookingReference);
+        booking.setFlightId(flightId);
+        booking.setAirlineName(flightDto.getAirlineName());
+        booking.setFlight(FlightSummary.from(flightDto));
+        booking.setBookerEmailId(request.getBookerEmailId());
+        booking.setStatus(BookingStatus.BOOKED);
+        booking.setTripType(request.getTripType() != null ? request.getTripType() : TripType.ONE_WAY);
+        booking.setBookingDateTime(LocalDateTime.now());
+        booking.setSeatsBooked(passengerCount);
+        booking.setTotalAmount(flightDto.getPrice() * passengerCount);
+        booking.setPassengers(passengers);
+        booking.setOutbox(new ArrayList<>(List.of(
+                OutboxEntry.confirmSeats(ids.nextId(), booking.getBookingDateTime(), bookingReference),
+                OutboxEntry.afterConfirmation(ids.nextId(), OutboxType.BOOKING_CREATED, booking.getBookingDateTime()))));
+        return booking;
+    }
+
+    // turns a booking that could not be stored into a FAILED record whose outbox hands the
+    // reserved seats back, so the release is retried by the relay until it succeeds
+    static Booking failedBooking(Booking booking, String outboxEntryId, String bookingReference, List<String> seatNos) {
+        booking.setStatus(BookingStatus.FAILED);
+        booking.setOutbox(new ArrayList<>(List.of(OutboxEntry.releaseSeats(
+                outboxEntryId, LocalDateTime.now(), bookingReference, booking.getSeatsBooked(), seatNos))));
+        return booking;
+    }
+
+    // bookings made before seat holds are released under their PNR
+    static List<OutboxEntry> cancellationOutbox(Booking booking, List<Passenger> passengers, IdGenerator ids) {
+        List<String> seatNumbers = passengers.stream()
+                .map(Passenger::getSeatNo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        String bookingReference = booking.getBookingReference() != null ? booking.getBookingReference() : booking.getPnr();
+        LocalDateTime now = LocalDateTime.now();
+        return List.of(
+                OutboxEntry.releaseSeats(ids.nextId(), now, bookingReference, passengers.size(), seatNumbers),
+                OutboxEntry.of(ids.nextId(), OutboxType.BOOKING_CANCELLED, now));
+    }
+
+    // a booking that carries its flight summary and passengers
+    static BookingResponse toBookingResponse(Booking booking) {
+        FlightSummary flight = booking.getFlight();
+        BookingResponse res = toBookingResponse(booking, (FlightDto) null);
+        res.setSource(flight.getSource());
+        res.setDestination(flight.getDestination());
+        res.setAirlineName(flight.getAirlineName());
+        res.setPassengers(toPassengerResponses(booking.getPassengers() != null ? booking.getPassengers() : List.of()));
+        return res;
+    }
+
+    static BookingResponse toBookingResponse(Booking booking, FlightDto flightDto) {
+        BookingResponse res = new BookingResponse();
+        res.setPnr(booking.getPnr());
+        res.setStatus(booking.getStatus());
+        res.setTripType(booking.getTripType());
+        res.setTotalAmount(booking.getTotalAmount());
+        res.setBookingDateTime(booking.getBookingDateTime());
+        res.setBookerEmailId(booking.getBookerEmailId());
+        if (flightDto != null) {
+            res.setSource(flightDto.getSource());
+            res.setDestination(flightDto.getDestination());
+            res.setAirlineName(flightDto.getAirlineName());
+        }
+        return res;
+    }
+
+    static List<PassengerResponse> toPassengerResponses(List<Passenger> passengers) {
+        return passengers.stream().map(p -> {
+            PassengerResponse pr = new PassengerResponse();
+            pr.setName(p.getName());
+            pr.setAge(p.getAge());
+            pr.setGender(p.getGender());
+            pr.setSeatNo(p.getSeatNo());
+            pr.setMealType(p.getMealType());
+            return pr;
+        }).collect(Collectors.toList());
+    }
+}
@@ -1,44 +1,53 @@
 package com.bookingservice.serviceimpl;
 
+import static com.bookingservice.serviceimpl.BookingMapper.*;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 
 
+import com.bookingevents.id.IdGenerator;
+import com.bookingservice.cache.FlightSnapshotCache;
 import com.bookingservice.client.FlightClient;
 import com.bookingservice.client.dto.FlightDto;
-import com.bookingservice.client.dto.ReleaseSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsResponse;
 import com.bookingservice.dto.request.BookingRequest;
-import com.bookingservice.dto.request.PassengerRequest;
 import com.bookingservice.dto.response.BookingResponse;
-import com.bookingservice.dto.response.PassengerResponse;
 import com.bookingservice.enums.BookingStatus;
-import com.bookingservice.enums.TripType;
-import com.bookingservice.events.BookingCancelledEvent;
-import com.bookingservice.events.BookingCreatedEvent;
 import com.bookingservice.exceptions.BadRequestException;
 import com.bookingservice.exceptions.BusinessException;
 import com.bookingservice.exceptions.ConflictException;
-import com.bookingservice.kafka.BookingEventProducer;
 import com.bookingservice.model.Booking;
+import com.bookingservice.model.OutboxEntry;
 import com.bookingservice.model.Passenger;
 import com.bookingservice.repository.BookingRepository;
 import com.bookingservice.repository.PassengerRepository;
 import com.bookingservice.service.BookingService;
 
 @Service
+@Profile("!reactive")
 public class BookingServiceImpl implements BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingServiceImpl.class);
@@ -48,6 +57,10 @@ public class BookingServiceImpl implements BookingService {
     @Autowired
     private FlightClient flightClient;
 
+    // local flight snapshots; misses are fetched through the coalescing lookup
+    @Autowired
+    private FlightSnapshotCache flightSnapshots;
+
     @Autowired
     private BookingRepository bookingRepository;
 
@@ -55,152 +68,153 @@ public class BookingServiceImpl implements BookingService {
     private PassengerRepository passengerRepository;
     
     @Autowired
-    private BookingEventProducer bookingEventProducer;
+    private IdGenerator idGenerator;
 
 
     @Override
     @Transactional
     @CircuitBreaker(name=FLIGHT_SERVICE_CB,fallbackMethod= "createBookingFallback")
-    public BookingResponse createBooking(String flightId, BookingRequest request) {
-
-
-    	FlightDto flightDto = flightClient.getFlight(flightId);
+    public BookingResponse createBooking(String flightId, BookingRequest request, String idempotencyKey) {
+
+        //  A retry of a request that already made its booking is answered from that booking
+        String bookingReference = bookingReference(idempotencyKey, idGenerator);
+        if (idempotencyKey != null) {
+            Optional<Booking> existing = bookingRepository.findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return replayed(existing.get(), flightId);
+            }
+        }
 
+        int passengerCount = request.getPassengers().size();
+        List<String> seatNos = seatNumbers(request);
 
+        //  Reserve seats on flight-service; it claims the seat numbers atomically
+        //  against its seat map and reports any that are already taken. The reference
+        //  makes the reservation idempotent there.
+        ReserveSeatsRequest reserveReq = reserveRequest(bookingReference, passengerCount, seatNos);
 
-        int passengerCount = request.getPassengers().size();
-        if (flightDto.getAvailableSeats() < passengerCount) {
-            throw new BusinessException("Not enough seats available");
-        }
+        // closing the scope waits for both forks; the reservation is never interrupted, since its
+        // outcome would be unknown, and is released again if the lookup failed
+        FlightDto flightDto;
+        ReserveSeatsResponse reserveResp = null;
+        RuntimeException reserveError = null;
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<FlightDto> flightTask = scope.submit(() -> flightSnapshots.get(flightId));
+            Future<ReserveSeatsResponse> reserveTask = scope.submit(() -> flightClient.reserveSeats(flightId, reserveReq));
 
-        List<String> seatNos = request.getPassengers().stream()
-                .map(PassengerRequest::getSeatNo)
-                .filter(Objects::nonNull)
-                .map(s -> s.trim().toUpperCase())
-                .collect(Collectors.toList());
-
-        if (!seatNos.isEmpty()) {
-            List<Passenger> conflicts = passengerRepository.findByFlightIdAndSeatNoIn(flightId, seatNos);
-            if (!conflicts.isEmpty()) {
-                String taken = conflicts.stream()
-                        .map(Passenger::getSeatNo)
-                        .distinct()
-                        .collect(Collectors.joining(", "));
-                throw new BusinessException("Seat(s) already taken: " + taken);
+            try {
+                reserveResp = await(reserveTask);
+            } catch (RuntimeException ex) {
+                reserveError = ex;
+            }
+            try {
+                flightDto = await(flightTask);
+            } catch (RuntimeException ex) {
+                if (reserveResp != null && reserveResp.isSuccess()) {
+                    try {
+                        releaseSeats(flightId, bookingReference, passengerCount, seatNos);
+                    } catch (Exception compEx) {
+                        logger.error("Releasing seats of {} after failed flight lookup failed: {}", bookingReference, compEx.toString());
+                    }
+                }
+                throw ex;
             }
         }
-        
-        
-        //  Reserve seats on flight-service
-        String bookingReference = "BR-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        ReserveSeatsRequest reserveReq = new ReserveSeatsRequest();
-        reserveReq.setBookingReference(bookingReference);
-        reserveReq.setCount(passengerCount);
-        reserveReq.setSeatNumbers(seatNos);
-
-        ReserveSeatsResponse reserveResp = flightClient.reserveSeats(flightId, reserveReq);
-
 
         if (reserveResp == null || !reserveResp.isSuccess()) {
-            String msg = reserveResp != null ? reserveResp.getMessage() : "Unknown reservation failure";
-            throw new BusinessException("Seat reservation failed: " + msg);
+            String msg = reserveResp != null ? reserveResp.getMessage() : null;
+            if (msg != null && msg.startsWith("Seat(s) already taken")) {
+                throw new BusinessException(msg);
+            }
+            // the cached count may lag behind releases; only the live count can turn a booking away
+            if (flightDto.getAvailableSeats() < passengerCount
+                    && flightSnapshots.refresh(flightId).getAvailableSeats() < passengerCount) {
+                throw new BusinessException("Not enough seats available");
+            }
+            if (reserveError != null) {
+                throw reserveError;
+            }
+            throw new BusinessException("Seat reservation failed: " + (msg != null ? msg : "Unknown reservation failure"));
+        }
+        if (reserveResp.getRemainingSeats() != null) {
+            flightSnapshots.updateSeats(flightId, reserveResp.getRemainingSeats());
         }
 
-        //  Create booking locally
-        String pnr = "PNR-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        Booking booking = new Booking();
-        booking.setPnr(pnr);
-        booking.setFlightId(flightId);
-        booking.setBookerEmailId(request.getBookerEmailId());
-        booking.setStatus(BookingStatus.BOOKED);
-        booking.setTripType(request.getTripType() != null ? request.getTripType() : TripType.ONE_WAY);
-        booking.setBookingDateTime(LocalDateTime.now());
-        booking.setSeatsBooked(passengerCount);
-        booking.setTotalAmount(flightDto.getPrice() * passengerCount);
-
-        Booking savedBooking = bookingRepository.save(booking);
-
-        //  Save passengers
-        List<Passenger> passengersToSave = request.getPassengers().stream().map(pReq -> {
-            Passenger p = new Passenger();
-            p.setName(pReq.getName());
-            p.setAge(pReq.getAge());
-            p.setGender(pReq.getGender());
-            p.setSeatNo(pReq.getSeatNo());
-            p.setMealType(pReq.getMealType());
-            p.setFlightId(flightId);
-            p.setPnr(savedBooking.getPnr());
-            return p;
-        }).collect(Collectors.toList());
+        //  Create the booking with its passengers and flight summary embedded, in one insert
+        String pnr = "PNR-" + idGenerator.nextId();
+        // confirming the seat hold and the booking-created event go out through the booking's
+        // outbox, written in the same insert
+        Booking booking = newBooking(pnr, flightId, request, flightDto, idempotencyKey, bookingReference, idGenerator);
 
+        Booking savedBooking;
         try {
-            passengerRepository.saveAll(passengersToSave);
+            savedBooking = bookingRepository.save(booking);
         } catch (Exception ex) {
-            // Compensation: release seats
-            ReleaseSeatsRequest releaseReq = new ReleaseSeatsRequest();
-            releaseReq.setBookingReference(bookingReference);
-            releaseReq.setCount(passengerCount);
-            releaseReq.setSeatNumbers(seatNos);
-
+            // a concurrent retry with the same key got there first; its booking holds the very
+            // seats reserved under the shared reference, so nothing is released
+            if (ex instanceof DuplicateKeyException && idempotencyKey != null) {
+                Optional<Booking> winner = bookingRepository.findByIdempotencyKey(idempotencyKey);
+                if (winner.isPresent()) {
+                    return replayed(winner.get(), flightId);
+                }
+            }
+            // Compensation: a FAILED record hands the seats back through the outbox relay;
+            // release inline only if even that record cannot be stored
             try {
-                flightClient.releaseSeats(flightId, releaseReq);
-            } catch (Exception compEx) {
-                throw new BusinessException("Failed to save passengers & release-seat compensation failed: " + compEx.getMessage());
+                bookingRepository.save(failedBooking(booking, idGenerator.nextId(), bookingReference, seatNos));
+            } catch (Exception storeEx) {
+                try {
+                    releaseSeats(flightId, bookingReference, passengerCount, seatNos);
+                } catch (Exception compEx) {
+                    throw new BusinessException("Failed to save booking & release-seat compensation failed: " + compEx.getMessage());
+                }
             }
 
-            throw new BusinessException("Failed to save passengers: " + ex.getMessage());
+            throw new BusinessException("Failed to save booking: " + ex.getMessage());
         }
 
-        //  Build response
-        BookingResponse response = new BookingResponse();
-        response.setPnr(savedBooking.getPnr());
-        response.setStatus(savedBooking.getStatus());
-        response.setTripType(savedBooking.getTripType());
-        response.setTotalAmount(savedBooking.getTotalAmount());
-        response.setBookingDateTime(savedBooking.getBookingDateTime());
-        response.setBookerEmailId(savedBooking.getBookerEmailId());
-        response.setSource(flightDto.getSource());
-        response.setDestination(flightDto.getDestination());
-        response.setAirlineName(flightDto.getAirlineName());
-
-        List<PassengerResponse> passengerResponses = passengersToSave.stream().map(p -> {
-            PassengerResponse pr = new PassengerResponse();
-            pr.setName(p.getName());
-            pr.setAge(p.getAge());
-            pr.setGender(p.getGender());
-            pr.setSeatNo(p.getSeatNo());
-            pr.setMealType(p.getMealType());
-            return pr;
-        }).collect(Collectors.toList());
-        response.setPassengers(passengerResponses);
-        
-        //publish bookingCreatedEvent to Kafka
-        BookingCreatedEvent event = new BookingCreatedEvent(
-                savedBooking.getPnr(),
-                savedBooking.getBookerEmailId(),
-                savedBooking.getFlightId(),
-                flightDto.getAirlineName(),
-                savedBooking.getSeatsBooked(),
-                savedBooking.getTotalAmount(),
-                savedBooking.getBookingDateTime()
-        );
-        bookingEventProducer.sendBookingCreatedEvent(event);
-        		
-
-        return response;
+        return toBookingResponse(savedBooking);
     }
     
+
+    private void releaseSeats(String flightId, String bookingReference, int count, List<String> seatNos) {
+        flightClient.releaseSeats(flightId, releaseRequest(bookingReference, count, seatNos));
+    }
+
+    // result of a forked step, with its exception rethrown as-is
+    private static <T> T await(Future<T> task) {
+        try {
+            return task.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new BusinessException("Booking step failed: " + ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Booking interrupted");
+        }
+    }
    
-	public BookingResponse createBookingFallback(String flightId, BookingRequest request, Throwable ex) {
-		logger.error("Fallback triggered for createBooking. Reason: {}", ex.toString());
+	public BookingResponse createBookingFallback(String flightId, BookingRequest request, String idempotencyKey, Throwable ex) {
+		Throwable cause = unwrap(ex);
+		logger.error("Fallback triggered for createBooking. Reason: {}", cause.toString());
+
+		// rejected or replayed Idempotency-Keys are not flight-service failures
+		if (cause instanceof ConflictException || cause instanceof BadRequestException) {
+			throw (RuntimeException) cause;
+		}
 
-		if (ex instanceof BusinessException be) {
+		if (cause instanceof BusinessException be) {
 			String msg = be.getMessage();
 			if (msg != null && msg.startsWith("Seat(s) already taken")) {
 				throw be; // goes to GlobalExceptionHandler -> 400 with that message
 			}
 			 // Flight not found - pass through
-		    if (msg.startsWith("Flight not found")) {
+		    if (msg != null && msg.startsWith("Flight not found")) {
 		        throw be;
 		    }
 		}
@@ -208,6 +222,15 @@ public class BookingServiceImpl implements BookingService {
 		throw new BusinessException("Flight service is temporarily unavailable. Please try again later.");
 	}
 
+	// failures of the flight calls run on the executor arrive wrapped
+	private static Throwable unwrap(Throwable ex) {
+		Throwable cause = ex;
+		while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+
 
 
     
@@ -217,36 +240,21 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingRepository.findByPnr(pnr)
                 .orElseThrow(() -> new BusinessException("invalid PNR"));
 
+        if (booking.getFlight() != null) {
+            // everything the response needs is on the booking document
+            return toBookingResponse(booking);
+        }
+
+        // booking made before flight summaries were embedded and not migrated yet
         FlightDto flightDto;
         try {
-            flightDto = flightClient.getFlight(booking.getFlightId());
+            flightDto = flightSnapshots.get(booking.getFlightId());
         } catch (Exception ex) {
             throw new BusinessException("Failed to fetch flight info: " + ex.getMessage());
         }
 
-        BookingResponse res = new BookingResponse();
-        res.setPnr(booking.getPnr());
-        res.setStatus(booking.getStatus());
-        res.setTripType(booking.getTripType());
-        res.setTotalAmount(booking.getTotalAmount());
-        res.setBookingDateTime(booking.getBookingDateTime());
-        res.setBookerEmailId(booking.getBookerEmailId());
-        res.setSource(flightDto.getSource());
-        res.setDestination(flightDto.getDestination());
-        res.setAirlineName(flightDto.getAirlineName());
-
-        List<Passenger> passengers = passengerRepository.findByPnr(booking.getPnr());
-        List<PassengerResponse> passengerResponses = passengers.stream().map(p -> {
-            PassengerResponse pr = new PassengerResponse();
-            pr.setName(p.getName());
-            pr.setAge(p.getAge());
-            pr.setGender(p.getGender());
-            pr.setSeatNo(p.getSeatNo());
-            pr.setMealType(p.getMealType());
-            return pr;
-        }).collect(Collectors.toList());
-        res.setPassengers(passengerResponses);
-
+        BookingResponse res = toBookingResponse(booking, flightDto);
+        res.setPassengers(toPassengerResponses(passengersOf(booking)));
         return res;
     }
 
@@ -257,45 +265,54 @@ public class BookingServiceImpl implements BookingService {
             throw new BusinessException("No bookings found for email: " + bookerEmailId);
         }
 
-        return bookings.stream().map(b -> {
-            FlightDto flightDto;
-            try {
-                flightDto = flightClient.getFlight(b.getFlightId());
-            } catch (Exception ex) {
-                throw new BusinessException("Failed to fetch flight info for booking: " + b.getPnr());
+        // bookings not migrated yet need their flight and passengers looked up:
+        // one passenger query and one flight lookup for all of them
+        Set<String> legacyPnrs = new LinkedHashSet<>();
+        Set<String> flightIds = new LinkedHashSet<>();
+        for (Booking b : bookings) {
+            if (b.getFlight() != null) {
+                continue;
             }
+            if (b.getPassengers() == null || b.getPassengers().isEmpty()) {
+                legacyPnrs.add(b.getPnr());
+            }
+            if (b.getFlightId() != null) {
+                flightIds.add(b.getFlightId());
+            }
+        }
+
+        Map<String, List<Passenger>> passengersByPnr = legacyPnrs.isEmpty() ? Map.of()
+                : passengerRepository.findByPnrIn(legacyPnrs).stream()
+                        .collect(Collectors.groupingBy(Passenger::getPnr));
 
-            BookingResponse res = new BookingResponse();
-            res.setPnr(b.getPnr());
-            res.setStatus(b.getStatus());
-            res.setTripType(b.getTripType());
-            res.setTotalAmount(b.getTotalAmount());
-            res.setBookingDateTime(b.getBookingDateTime());
-            res.setBookerEmailId(b.getBookerEmailId());
-            res.setSource(flightDto.getSource());
-            res.setDestination(flightDto.getDestination());
-            res.setAirlineName(flightDto.getAirlineName());
-
-            List<Passenger> passengers = passengerRepository.findByPnr(b.getPnr());
-            List<PassengerResponse> passengerResponses = passengers.stream().map(p -> {
-                PassengerResponse pr = new PassengerResponse();
-                pr.setName(p.getName());
-                pr.setAge(p.getAge());
-                pr.setGender(p.getGender());
-                pr.setSeatNo(p.getSeatNo());
-                pr.setMealType(p.getMealType());
-                return pr;
-            }).collect(Collectors.toList());
-            res.setPassengers(passengerResponses);
-
-            return res;
-        }).collect(Collectors.toList());
+        // served from the snapshot cache; never fails, flights it cannot resolve are left out
+        Map<String, FlightDto> flights = flightIds.isEmpty() ? Map.of() : flightSnapshots.getAll(flightIds);
+
+        List<BookingResponse> responses = new ArrayList<>(bookings.size());
+        for (Booking b : bookings) {
+            if (b.getFlight() != null) {
+                responses.add(toBookingResponse(b));
+                continue;
+            }
+            BookingResponse res = toBookingResponse(b, flights.get(b.getFlightId()));
+            List<Passenger> passengers = b.getPassengers() != null && !b.getPassengers().isEmpty()
+                    ? b.getPassengers()
+                    : passengersByPnr.getOrDefault(b.getPnr(), List.of());
+            res.setPassengers(toPassengerResponses(passengers));
+            responses.add(res);
+        }
+        return responses;
     }
 
-    @Override
-    @Transactional
-    @CircuitBreaker(name = FLIGHT_SERVICE_CB, fallbackMethod = "cancelBookingFallback")
+    // embedded passengers, or the passenger collection for bookings not migrated yet
+    private List<Passenger> passengersOf(Booking booking) {
+        if (booking.getPassengers() != null && !booking.getPassengers().isEmpty()) {
+            return booking.getPassengers();
+        }
+        return passengerRepository.findByPnr(booking.getPnr());
+    }
 
+    @Override
     public String cancelBooking(String pnr) {
         Booking booking = bookingRepository.findByPnr(pnr)
                 .orElseThrow(() -> new BusinessException("Invalid PNR"));
@@ -310,58 +327,25 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException("Cancellation allowed only within 24 hours of booking");
         }
 
-        long passengerCount = passengerRepository.countByPnr(pnr);
-        int seatsToFree = (int) passengerCount;
-
-        booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
-
-        ReleaseSeatsRequest releaseReq = new ReleaseSeatsRequest();
-        releaseReq.setBookingReference(pnr);
-        releaseReq.setCount(seatsToFree);
-
-        List<String> seatNumbers = passengerRepository.findByPnr(pnr).stream()
-                .map(Passenger::getSeatNo)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        releaseReq.setSeatNumbers(seatNumbers);
-
-        try {
-            flightClient.releaseSeats(booking.getFlightId(), releaseReq);
-        } catch (Exception ex) {
-            throw new BusinessException("Booking cancelled locally but releasing seats failed: " + ex.getMessage());
-        }
-        
-        FlightDto flightDto = flightClient.getFlight(booking.getFlightId());
-
-        BookingCancelledEvent event = new BookingCancelledEvent(
-                booking.getPnr(),
-                booking.getBookerEmailId(),
-                booking.getFlightId(),
-                flightDto.getAirlineName(),
-                LocalDateTime.now()
-        );
-        bookingEventProducer.sendBookingCancelledEvent(event);
+        // one conditional write: the status change, the seat release and the cancelled event are
+        // committed together, and a concurrent cancel of the same booking finds nothing to update
+        List<OutboxEntry> outbox = cancellationOutbox(booking, passengersOf(booking), idGenerator);
+        bookingRepository.cancel(pnr, outbox)
+                .orElseThrow(() -> new ConflictException("Booking already cancelled"));
 
         return "Booking cancelled successfully";
     }
     
-    public String cancelBookingFallback(String pnr, Throwable ex) {
-        logger.error("Circuit breaker OPEN for cancelBooking. Reason: {}", ex.getMessage());
-
-        
-        throw new BusinessException("Cannot cancel booking right now. Flight service is unavailable. Please try again later.");
-
-        
-    }
-    
     @Override
     public List<Passenger> getBookedSeats(String flightId){
     	if(flightId==null) {
     		throw new BusinessException("FLight Id cannot be empty");
     	}
     	
-    	return passengerRepository.findSeatNosByFlightId(flightId);
+    	return bookingRepository.findPassengersByFlightId(flightId).stream()
+    			.filter(b -> b.getPassengers() != null)
+    			.flatMap(b -> b.getPassengers().stream())
+    			.collect(Collectors.toList());
 
     }
 
@@ -0,0 +1,338 @@
+package com.bookingservice.serviceimpl;
+
+import static com.bookingservice.serviceimpl.BookingMapper.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import com.bookingevents.id.IdGenerator;
+import com.bookingservice.cache.FlightSnapshotCache;
+import com.bookingservice.client.ReactiveFlightClient;
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.client.dto.ReserveSeatsResponse;
+import com.bookingservice.dto.request.BookingRequest;
+import com.bookingservice.dto.response.BookingResponse;
+import com.bookingservice.enums.BookingStatus;
+import com.bookingservice.exceptions.BadRequestException;
+import com.bookingservice.exceptions.BusinessException;
+import com.bookingservice.exceptions.ConflictException;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.ReactiveBookingRepository;
+import com.bookingservice.repository.ReactivePassengerRepository;
+import com.bookingservice.service.ReactiveBookingService;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+/**
+ * Booking flow of {@link BookingServiceImpl} on the reactive Mongo driver and WebClient: no
+ * thread waits on Mongo or flight-service, so a few event-loop threads carry every booking in
+ * flight. Demand is propagated end to end; histories are read as a stream and resolved against
+ * flight-service a batch at a time.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBookingServiceImpl implements ReactiveBookingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveBookingServiceImpl.class);
+    private static final String FLIGHT_SERVICE_CB = "flightService"; // circuit breaker name
+    // bookings resolved per /flights/batch call while streaming a history
+    private static final int HISTORY_BATCH = 100;
+
+    @Autowired
+    private ReactiveFlightClient flightClient;
+
+    // shared with the blocking service; only consulted and filled here, never fetched through
+    @Autowired
+    private FlightSnapshotCache flightSnapshots;
+
+    @Autowired
+    private ReactiveBookingRepository bookingRepository;
+
+    @Autowired
+    private ReactivePassengerRepository passengerRepository;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+
+    @Override
+    @CircuitBreaker(name = FLIGHT_SERVICE_CB, fallbackMethod = "createBookingFallback")
+    public Mono<BookingResponse> createBooking(String flightId, BookingRequest request, String idempotencyKey) {
+        String bookingReference;
+        try {
+            bookingReference = bookingReference(idempotencyKey, idGenerator);
+        } catch (BadRequestException ex) {
+            return Mono.error(ex);
+        }
+        if (idempotencyKey == null) {
+            return book(flightId, request, null, bookingReference);
+        }
+        // a retry of a request that already made its booking is answered from that booking
+        return bookingRepository.findByIdempotencyKey(idempotencyKey)
+                .map(existing -> replayed(existing, flightId))
+                .switchIfEmpty(Mono.defer(() -> book(flightId, request, idempotencyKey, bookingReference)));
+    }
+
+    private Mono<BookingResponse> book(String flightId, BookingRequest request, String idempotencyKey,
+                                       String bookingReference) {
+        int passengerCount = request.getPassengers().size();
+        List<String> seatNos = seatNumbers(request);
+
+        //  The flight lookup and the reservation run side by side. Both are materialized so that
+        //  a failed lookup never cancels a reservation whose outcome would then be unknown.
+        return Mono.zip(
+                        flight(flightId).materialize(),
+                        flightClient.reserveSeats(flightId, reserveRequest(bookingReference, passengerCount, seatNos)).materialize())
+                .flatMap(results -> {
+                    Signal<FlightDto> lookup = results.getT1();
+                    Signal<ReserveSeatsResponse> reservation = results.getT2();
+                    ReserveSeatsResponse reserveResp = reservation.get();
+                    boolean reserved = reserveResp != null && reserveResp.isSuccess();
+
+                    if (lookup.isOnError() || lookup.get() == null) {
+                        Throwable error = lookup.isOnError() ? lookup.getThrowable()
+                                : new BusinessException("Flight not found with id: " + flightId);
+                        Mono<Void> undo = !reserved ? Mono.empty()
+                                : releaseSeats(flightId, bookingReference, passengerCount, seatNos)
+                                        .onErrorResume(compEx -> {
+                                            logger.error("Releasing seats of {} after failed flight lookup failed: {}", bookingReference, compEx.toString());
+                                            return Mono.empty();
+                                        });
+                        return undo.then(Mono.<BookingResponse>error(error));
+                    }
+                    FlightDto flightDto = lookup.get();
+                    if (!reserved) {
+                        return rejected(flightId, flightDto, passengerCount, reserveResp, reservation.getThrowable());
+                    }
+                    if (reserveResp.getRemainingSeats() != null) {
+                        flightSnapshots.updateSeats(flightId, reserveResp.getRemainingSeats());
+                    }
+
+                    // confirming the seat hold and the booking-created event go out through the booking's outbox
+                    Booking booking = newBooking("PNR-" + idGenerator.nextId(), flightId, request, flightDto,
+                            idempotencyKey, bookingReference, idGenerator);
+                    return bookingRepository.save(booking)
+                            .map(saved -> toBookingResponse(saved))
+                            .onErrorResume(ex -> {
+                                // a concurrent retry with the same key got there first and holds these seats
+                                Mono<BookingResponse> winner = ex instanceof DuplicateKeyException && idempotencyKey != null
+                                        ? bookingRepository.findByIdempotencyKey(idempotencyKey).map(b -> replayed(b, flightId))
+                                        : Mono.empty();
+                                return winner.switchIfEmpty(Mono.defer(() -> compensate(booking, flightId, bookingReference, passengerCount, seatNos)
+                                        .then(Mono.<BookingResponse>error(new BusinessException("Failed to save booking: " + ex.getMessage())))));
+                            });
+                });
+    }
+
+    // a FAILED record hands the seats back through the outbox relay; released inline only if
+    // even that record cannot be stored
+    private Mono<Void> compensate(Booking booking, String flightId, String bookingReference, int passengerCount,
+                                  List<String> seatNos) {
+        return bookingRepository.save(failedBooking(booking, idGenerator.nextId(), bookingReference, seatNos))
+                .then()
+                .onErrorResume(storeEx -> releaseSeats(flightId, bookingReference, passengerCount, seatNos)
+                        .onErrorMap(compEx -> new BusinessException("Failed to save booking & release-seat compensation failed: " + compEx.getMessage())));
+    }
+
+    // a reservation that did not go through, explained the same way as in the blocking flow
+    private Mono<BookingResponse> rejected(String flightId, FlightDto flightDto, int passengerCount,
+                                           ReserveSeatsResponse reserveResp, Throwable reserveError) {
+        String msg = reserveResp != null ? reserveResp.getMessage() : null;
+        if (msg != null && msg.startsWith("Seat(s) already taken")) {
+            return Mono.error(new BusinessException(msg));
+        }
+        // the cached count may lag behind releases; only the live count can turn a booking away
+        Mono<Boolean> tooFewSeats = flightDto.getAvailableSeats() >= passengerCount ? Mono.just(false)
+                : refresh(flightId).map(live -> live.getAvailableSeats() < passengerCount);
+        return tooFewSeats.flatMap(tooFew -> {
+            if (tooFew) {
+                return Mono.error(new BusinessException("Not enough seats available"));
+            }
+            if (reserveError != null) {
+                return Mono.error(reserveError);
+            }
+            return Mono.error(new BusinessException("Seat reservation failed: " + (msg != null ? msg : "Unknown reservation failure")));
+        });
+    }
+
+    public Mono<BookingResponse> createBookingFallback(String flightId, BookingRequest request, String idempotencyKey,
+                                                      Throwable ex) {
+        logger.error("Fallback triggered for reactive createBooking. Reason: {}", ex.toString());
+
+        // rejected or replayed Idempotency-Keys are not flight-service failures
+        if (ex instanceof ConflictException || ex instanceof BadRequestException) {
+            return Mono.error(ex);
+        }
+
+        if (ex instanceof BusinessException be) {
+            String msg = be.getMessage();
+            if (msg != null && (msg.startsWith("Seat(s) already taken") || msg.startsWith("Flight not found"))) {
+                return Mono.error(be);
+            }
+        }
+        return Mono.error(new BusinessException("Flight service is temporarily unavailable. Please try again later."));
+    }
+
+    @Override
+    public Mono<BookingResponse> getBookingByPnr(String pnr) {
+        return bookingRepository.findByPnr(pnr)
+                .switchIfEmpty(Mono.error(() -> new BusinessException("invalid PNR")))
+                .flatMap(booking -> {
+                    if (booking.getFlight() != null) {
+                        // everything the response needs is on the booking document
+                        return Mono.just(toBookingResponse(booking));
+                    }
+                    // booking made before flight summaries were embedded and not migrated yet
+                    Mono<FlightDto> flight = flight(booking.getFlightId())
+                            .onErrorMap(ex -> new BusinessException("Failed to fetch flight info: " + ex.getMessage()));
+                    return Mono.zip(flight, passengersOf(booking).collectList(), (flightDto, passengers) -> {
+                        BookingResponse res = toBookingResponse(booking, flightDto);
+                        res.setPassengers(toPassengerResponses(passengers));
+                        return res;
+                    });
+                });
+    }
+
+    @Override
+    public Flux<BookingResponse> getBookingHistory(String bookerEmailId) {
+        return bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc(bookerEmailId)
+                .switchIfEmpty(Flux.error(() -> new BusinessException("No bookings found for email: " + bookerEmailId)))
+                .buffer(HISTORY_BATCH)
+                // one batch is resolved at a time, in order, and only as fast as it is consumed
+                .concatMap(this::toHistoryResponses);
+    }
+
+    private Flux<BookingResponse> toHistoryResponses(List<Booking> bookings) {
+        // bookings not migrated yet need their flight and passengers looked up:
+        // one passenger query and one flight lookup for the whole batch
+        Set<String> legacyPnrs = new LinkedHashSet<>();
+        Set<String> flightIds = new LinkedHashSet<>();
+        for (Booking b : bookings) {
+            if (b.getFlight() != null) {
+                continue;
+            }
+            if (b.getPassengers() == null || b.getPassengers().isEmpty()) {
+                legacyPnrs.add(b.getPnr());
+            }
+            if (b.getFlightId() != null) {
+                flightIds.add(b.getFlightId());
+            }
+        }
+
+        Mono<Map<String, Collection<Passenger>>> passengers = legacyPnrs.isEmpty() ? Mono.just(Map.of())
+                : passengerRepository.findByPnrIn(legacyPnrs).collectMultimap(Passenger::getPnr);
+
+        return Mono.zip(passengers, flights(flightIds))
+                .flatMapIterable(lookups -> bookings.stream().map(b -> {
+                    if (b.getFlight() != null) {
+                        return toBookingResponse(b);
+                    }
+                    BookingResponse res = toBookingResponse(b, lookups.getT2().get(b.getFlightId()));
+                    List<Passenger> legacy = b.getPassengers() != null && !b.getPassengers().isEmpty()
+                            ? b.getPassengers()
+                            : List.copyOf(lookups.getT1().getOrDefault(b.getPnr(), List.of()));
+                    res.setPassengers(toPassengerResponses(legacy));
+                    return res;
+                }).collect(Collectors.toList()));
+    }
+
+    @Override
+    public Mono<String> cancelBooking(String pnr) {
+        return bookingRepository.findByPnr(pnr)
+                .switchIfEmpty(Mono.error(() -> new BusinessException("Invalid PNR")))
+                .flatMap(booking -> {
+                    if (booking.getStatus() == BookingStatus.CANCELLED) {
+                        return Mono.error(new ConflictException("Booking already cancelled"));
+                    }
+                    if (Duration.between(booking.getBookingDateTime(), LocalDateTime.now()).toHours() >= 24) {
+                        return Mono.error(new BadRequestException("Cancellation allowed only within 24 hours of booking"));
+                    }
+
+                    // the seat release and the cancelled event are committed with the status change
+                    return passengersOf(booking).collectList()
+                            .flatMap(passengers -> bookingRepository.cancel(pnr, cancellationOutbox(booking, passengers, idGenerator)))
+                            .switchIfEmpty(Mono.error(() -> new ConflictException("Booking already cancelled")))
+                            .thenReturn("Booking cancelled successfully");
+                });
+    }
+
+    @Override
+    public Flux<Passenger> getBookedSeats(String flightId) {
+        if (flightId == null) {
+            return Flux.error(new BusinessException("FLight Id cannot be empty"));
+        }
+        return bookingRepository.findPassengersByFlightId(flightId)
+                .filter(b -> b.getPassengers() != null)
+                .flatMapIterable(Booking::getPassengers);
+    }
+
+    // served from the snapshot cache when fresh; a miss is fetched without blocking and cached
+    private Mono<FlightDto> flight(String flightId) {
+        return Mono.defer(() -> Mono.justOrEmpty(flightSnapshots.getIfFresh(flightId)))
+                .switchIfEmpty(Mono.defer(() -> refresh(flightId)));
+    }
+
+    private Mono<FlightDto> refresh(String flightId) {
+        return flightClient.getFlight(flightId)
+                .doOnNext(flightDto -> flightSnapshots.put(flightId, flightDto));
+    }
+
+    // never fails: flights that cannot be resolved are left out, as in the blocking history
+    private Mono<Map<String, FlightDto>> flights(Set<String> flightIds) {
+        Map<String, FlightDto> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : flightIds) {
+            FlightDto cached = flightSnapshots.getIfFresh(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(found);
+        }
+        return flightClient.getFlights(missing)
+                .map(fetched -> {
+                    fetched.forEach((id, flightDto) -> {
+                        flightSnapshots.put(id, flightDto);
+                        found.put(id, flightDto);
+                    });
+                    return found;
+                })
+                .onErrorResume(ex -> {
+                    logger.warn("Flight lookup for history failed, leaving {} flights out: {}", missing.size(), ex.toString());
+                    return Mono.just(found);
+                });
+    }
+
+    // embedded passengers, or the passenger collection for bookings not migrated yet
+    private Flux<Passenger> passengersOf(Booking booking) {
+        if (booking.getPassengers() != null && !booking.getPassengers().isEmpty()) {
+            return Flux.fromIterable(booking.getPassengers());
+        }
+        return passengerRepository.findByPnr(booking.getPnr());
+    }
+
+    private Mono<Void> releaseSeats(String flightId, String bookingReference, int count, List<String> seatNos) {
+        return flightClient.releaseSeats(flightId, releaseRequest(bookingReference, count, seatNos));
+    }
+}
@@ -30,9 +30,6 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
-    @Mock
-    ////private BookingProducer bookingProducer;
-
     @InjectMocks
     private BookingController bookingController;
 
@@ -72,11 +69,11 @@ class BookingControllerTest {
 
         BookingResponse resp = sampleResponse();
 
-        when(bookingService.createBooking(eq("FL1"), any(BookingRequest.class)))
+        when(bookingService.createBooking(eq("FL1"), any(BookingRequest.class), isNull()))
                 .thenReturn(resp);
 
         ResponseEntity<String> result =
-                bookingController.createBooking("FL1", req);
+                bookingController.createBooking("FL1", req, null);
 
       
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
@@ -0,0 +1,110 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * p50/p99 latency of {@code POST /booking/{flightId}} against a flight-service stand-in that
+ * answers every call after {@link #FLIGHT_SERVICE_LATENCY}. Each booking is for a flight not yet
+ * cached, so it needs both the flight lookup and the seat reservation; run one after the other
+ * they would take at least twice the stand-in latency. Needs a local MongoDB.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "id-generator.node-id=0",
+        "flight.lookup.coalesce-window=PT0S"
+})
+class BookingLatencyTest {
+
+    private static final Duration FLIGHT_SERVICE_LATENCY = Duration.ofMillis(50);
+    private static final int WARMUP_BOOKINGS = 50;
+    private static final int BOOKINGS = 500;
+    private static final int CONCURRENCY = 16;
+
+    private static final FlightServiceStandIn flightService = FlightServiceStandIn.start(FLIGHT_SERVICE_LATENCY);
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @DynamicPropertySource
+    static void flightServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("flight.service.url", flightService::url);
+    }
+
+    @AfterAll
+    static void stopFlightService() {
+        flightService.close();
+    }
+
+    @Test
+    void createBooking_overlapsFlightLookupAndReservation() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        book(client, "WARMUP", WARMUP_BOOKINGS);
+        List<Long> latencies = book(client, "FL", BOOKINGS);
+
+        Collections.sort(latencies);
+        long p50 = percentile(latencies, 50);
+        long p99 = percentile(latencies, 99);
+        System.out.printf("createBooking with %d ms flight-service latency: p50 %d ms, p99 %d ms%n",
+                FLIGHT_SERVICE_LATENCY.toMillis(), p50, p99);
+        assertTrue(p50 < 2 * FLIGHT_SERVICE_LATENCY.toMillis(), "p50 " + p50 + " ms: lookup and reservation ran in sequence");
+    }
+
+    private List<Long> book(HttpClient client, String flightPrefix, int bookings) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        List<Future<Long>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < bookings; i++) {
+                String flightId = flightPrefix + "-" + i;
+                futures.add(pool.submit(() -> {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/booking/" + flightId))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(bookingJson()))
+                            .build();
+                    long start = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    assertEquals(201, response.statusCode(), response.body());
+                    return millis;
+                }));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (Future<Long> f : futures) {
+                latencies.add(f.get(60, TimeUnit.SECONDS));
+            }
+            return latencies;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percentile / 100));
+    }
+
+    private static String bookingJson() {
+        return """
+                {"bookerEmailId":"user@test.com","tripType":"ONE_WAY","passengers":[
+                  {"name":"A","gender":"FEMALE","age":30,"seatNo":"1A","mealType":"VEG"}]}
+                """;
+    }
+}
@@ -4,10 +4,18 @@ package com.bookingservice;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.bookingevents.id.IdGenerator;
+import com.bookingevents.id.SequenceIdGenerator;
+import com.bookingservice.cache.FlightSnapshotCache;
 import com.bookingservice.client.FlightClient;
 import com.bookingservice.client.dto.FlightDto;
 import com.bookingservice.client.dto.ReleaseSeatsRequest;
@@ -17,15 +25,20 @@ import com.bookingservice.dto.request.BookingRequest;
 import com.bookingservice.dto.request.PassengerRequest;
 import com.bookingservice.dto.response.BookingResponse;
 import com.bookingservice.enums.BookingStatus;
+import com.bookingservice.enums.OutboxType;
 import com.bookingservice.enums.TripType;
 import com.bookingservice.exceptions.BusinessException;
+import com.bookingservice.exceptions.ConflictException;
 import com.bookingservice.model.Booking;
+import com.bookingservice.model.FlightSummary;
+import com.bookingservice.model.OutboxEntry;
 import com.bookingservice.model.Passenger;
 import com.bookingservice.repository.BookingRepository;
 import com.bookingservice.repository.PassengerRepository;
 import com.bookingservice.serviceimpl.BookingServiceImpl;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.springframework.dao.DuplicateKeyException;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -37,12 +50,18 @@ class BookingServiceImplTest {
     @Mock
     private FlightClient flightClient;
 
+    @Mock
+    private FlightSnapshotCache flightSnapshots;
+
     @Mock
     private BookingRepository bookingRepository;
 
     @Mock
     private PassengerRepository passengerRepository;
 
+    @Spy
+    private IdGenerator idGenerator = new SequenceIdGenerator(1, Clock.systemUTC());
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -82,8 +101,7 @@ class BookingServiceImplTest {
         List<PassengerRequest> passengers = Arrays.asList(p("A", "1A"), p("B", "1B"));
         BookingRequest req = buildBookingRequest("u@test.com", passengers);
 
-        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
-        when(passengerRepository.findByFlightIdAndSeatNoIn(eq("FL1"), anyList())).thenReturn(Collections.emptyList());
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
         ReserveSeatsResponse rresp = new ReserveSeatsResponse();
         rresp.setSuccess(true);
         rresp.setMessage("Reserved");
@@ -97,17 +115,29 @@ class BookingServiceImplTest {
             return b;
         });
 
-        // passenger saveAll
-        when(passengerRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
-
-        BookingResponse resp = bookingService.createBooking("FL1", req);
+        BookingResponse resp = bookingService.createBooking("FL1", req, null);
 
         assertNotNull(resp);
         assertEquals("PNR-ABC", resp.getPnr());
         assertEquals(2, resp.getPassengers().size());
         verify(flightClient).reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class));
-        verify(passengerRepository).saveAll(anyList());
-        verify(bookingRepository).save(any(Booking.class));
+
+        // one document holds the booking, its passengers and the flight summary
+        ArgumentCaptor<Booking> saved = ArgumentCaptor.forClass(Booking.class);
+        verify(bookingRepository).save(saved.capture());
+        assertEquals(2, saved.getValue().getPassengers().size());
+        assertEquals("DEL", saved.getValue().getFlight().getSource());
+        assertEquals("TestAir", saved.getValue().getAirlineName());
+        // confirming the seat hold and the booking-created event are queued in the same insert, not sent inline
+        List<OutboxEntry> outbox = saved.getValue().getOutbox();
+        assertEquals(2, outbox.size());
+        assertEquals(OutboxType.CONFIRM_SEATS, outbox.get(0).getType());
+        assertEquals(saved.getValue().getBookingReference(), outbox.get(0).getBookingReference());
+        assertTrue(outbox.get(0).getBookingReference().startsWith("BR-"));
+        assertEquals(OutboxType.BOOKING_CREATED, outbox.get(1).getType());
+        // not due until the seats are confirmed
+        assertNull(outbox.get(1).getNextAttemptAt());
+        verifyNoInteractions(passengerRepository);
     }
 
     @Test
@@ -115,7 +145,7 @@ class BookingServiceImplTest {
         List<PassengerRequest> passengers = Arrays.asList(p("A", null));
         BookingRequest req = buildBookingRequest("fail@test", passengers);
 
-        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
         //when(passengerRepository.findByFlightIdAndSeatNoIn(eq("FL1"), anyList())).thenReturn(Collections.emptyList());
 
         // reservation unsuccessful
@@ -125,7 +155,7 @@ class BookingServiceImplTest {
         rresp.setReservedSeats(Collections.emptyList());
         when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
 
-        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req));
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req, null));
         assertTrue(ex.getMessage().toLowerCase().contains("reservation") || ex.getMessage().toLowerCase().contains("reserve"));
         verify(flightClient).reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class));
     }
@@ -140,7 +170,7 @@ class BookingServiceImplTest {
         );
         BookingRequest req = buildBookingRequest("partial@test", passengers);
 
-        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
 
         // simulate partial reservation: only 1 seat reserved instead of 3
         ReserveSeatsResponse rresp = new ReserveSeatsResponse();
@@ -157,11 +187,8 @@ class BookingServiceImplTest {
             return b;
         });
 
-        // also stub passengerRepository.saveAll to avoid NPE or unexpected behavior
-        when(passengerRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
-
         // 👉 current implementation does NOT throw; it returns a BookingResponse
-        BookingResponse resp = bookingService.createBooking("FL1", req);
+        BookingResponse resp = bookingService.createBooking("FL1", req, null);
 
         assertNotNull(resp);
         assertEquals("PNR-PARTIAL", resp.getPnr());
@@ -176,57 +203,255 @@ class BookingServiceImplTest {
     @Test
     void createBooking_throws_when_notEnoughSeats() {
         BookingRequest req = buildBookingRequest("a@b", Arrays.asList(p("A", null), p("B", null), p("C", null), p("D", null), p("E", null), p("F", null)));
-        // flight has 5 seats
-        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        // flight has 5 seats, both in the snapshot and live
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
+        when(flightSnapshots.refresh("FL1")).thenReturn(sampleFlight);
 
-        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req));
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req, null));
         assertTrue(ex.getMessage().toLowerCase().contains("not enough seats"));
     }
 
     @Test
-    void createBooking_throws_when_seatConflictLocally() {
+    void createBooking_throws_when_seatAlreadyTaken() {
         List<PassengerRequest> passengers = Arrays.asList(p("A", "1A"));
         BookingRequest req = buildBookingRequest("x@y", passengers);
 
-        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
-        // conflict exists
-        Passenger existing = new Passenger();
-        existing.setSeatNo("1A");
-        when(passengerRepository.findByFlightIdAndSeatNoIn(eq("FL1"), anyList())).thenReturn(Arrays.asList(existing));
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
+        // flight-service rejects the claim against its seat map
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(false);
+        rresp.setMessage("Seat(s) already taken: 1A");
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
 
-        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req));
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req, null));
         assertTrue(ex.getMessage().toLowerCase().contains("seat(s) already taken"));
+        verify(passengerRepository, never()).findByFlightIdAndSeatNoIn(anyString(), anyList());
     }
 
     @Test
-    void createBooking_compensation_releasesOnPassengerSaveFailure() {
+    void createBooking_compensation_releasesOnBookingSaveFailure() {
         List<PassengerRequest> passengers = Arrays.asList(p("A", "1A"), p("B", "1B"));
         BookingRequest req = buildBookingRequest("comp@test", passengers);
 
-        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
-        when(passengerRepository.findByFlightIdAndSeatNoIn(eq("FL1"), anyList())).thenReturn(Collections.emptyList());
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
 
         ReserveSeatsResponse rresp = new ReserveSeatsResponse();
         rresp.setSuccess(true);
         when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
 
+        // simulate failure while saving the booking
+        when(bookingRepository.save(any(Booking.class))).thenThrow(new RuntimeException("DB down"));
+
+        // when releaseSeats called as compensation, do nothing (successful)
+        doNothing().when(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req, null));
+        assertTrue(ex.getMessage().toLowerCase().contains("failed to save booking"));
+
+        // verify compensation release called
+        verify(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
+    }
+
+    @Test
+    void createBooking_storesFailedBookingWithRelease_whenBookingSaveFails() {
+        List<PassengerRequest> passengers = Arrays.asList(p("A", "1A"), p("B", "1B"));
+        BookingRequest req = buildBookingRequest("comp@test", passengers);
+
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+
+        // the booking insert fails, the FAILED record goes through
+        List<BookingStatus> statuses = new ArrayList<>();
         when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> {
             Booking b = inv.getArgument(0);
-            b.setPnr("PNR-COMP");
+            statuses.add(b.getStatus());
+            if (statuses.size() == 1) {
+                throw new RuntimeException("write conflict");
+            }
             return b;
         });
 
-        // simulate failure while saving passengers
-        when(passengerRepository.saveAll(anyList())).thenThrow(new RuntimeException("DB down"));
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req, null));
+        assertTrue(ex.getMessage().toLowerCase().contains("failed to save booking"));
+
+        ArgumentCaptor<Booking> saved = ArgumentCaptor.forClass(Booking.class);
+        verify(bookingRepository, times(2)).save(saved.capture());
+        assertEquals(List.of(BookingStatus.BOOKED, BookingStatus.FAILED), statuses);
+        List<OutboxEntry> outbox = saved.getValue().getOutbox();
+        assertEquals(1, outbox.size());
+        assertEquals(OutboxType.RELEASE_SEATS, outbox.get(0).getType());
+        assertEquals(2, outbox.get(0).getSeatCount());
+        assertEquals(List.of("1A", "1B"), outbox.get(0).getSeatNumbers());
+        // the relay releases the seats, not the request
+        verify(flightClient, never()).releaseSeats(anyString(), any(ReleaseSeatsRequest.class));
+    }
 
-        // when releaseSeats called as compensation, do nothing (successful)
-        doNothing().when(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
+    @Test
+    void createBooking_withIdempotencyKey_reservesUnderKeyAndStoresIt() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", "1A")));
+        when(bookingRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req));
-        assertTrue(ex.getMessage().toLowerCase().contains("failed to save passengers"));
+        bookingService.createBooking("FL1", req, "key-1");
 
-        // verify compensation release called
-        verify(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
+        // a retry reuses the reference, so flight-service replays instead of reserving again
+        verify(flightClient).reserveSeats(eq("FL1"), argThat(r -> "BR-key-1".equals(r.getBookingReference())));
+        verify(bookingRepository).save(argThat(b -> "key-1".equals(b.getIdempotencyKey())));
+    }
+
+    @Test
+    void createBooking_retryWithIdempotencyKey_returnsExistingBooking() {
+        Booking existing = new Booking();
+        existing.setPnr("PNR-1");
+        existing.setFlightId("FL1");
+        existing.setFlight(FlightSummary.from(sampleFlight));
+        existing.setStatus(BookingStatus.BOOKED);
+        existing.setIdempotencyKey("key-1");
+        when(bookingRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(existing));
+
+        BookingResponse resp = bookingService.createBooking("FL1", buildBookingRequest("u@test.com", List.of(p("A", "1A"))), "key-1");
+
+        assertEquals("PNR-1", resp.getPnr());
+        verifyNoInteractions(flightClient, flightSnapshots);
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_retryWithIdempotencyKey_ofFailedBooking_isRejected() {
+        Booking failed = new Booking();
+        failed.setPnr("PNR-F");
+        failed.setFlightId("FL1");
+        failed.setStatus(BookingStatus.FAILED);
+        when(bookingRepository.findByIdempotencyKey("key-f")).thenReturn(Optional.of(failed));
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.createBooking("FL1", buildBookingRequest("u@test.com", List.of(p("A", "1A"))), "key-f"));
+        verifyNoInteractions(flightClient);
+    }
+
+    @Test
+    void createBooking_concurrentRetryWithIdempotencyKey_returnsWinner_withoutReleasingSeats() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", "1A")));
+        Booking winner = new Booking();
+        winner.setPnr("PNR-W");
+        winner.setFlightId("FL1");
+        winner.setFlight(FlightSummary.from(sampleFlight));
+        winner.setStatus(BookingStatus.BOOKED);
+        // not there when this request starts, inserted by the other one before this save
+        when(bookingRepository.findByIdempotencyKey("key-2")).thenReturn(Optional.empty(), Optional.of(winner));
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(new DuplicateKeyException("idempotencyKey"));
+
+        BookingResponse resp = bookingService.createBooking("FL1", req, "key-2");
+
+        assertEquals("PNR-W", resp.getPnr());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(flightClient, never()).releaseSeats(anyString(), any(ReleaseSeatsRequest.class));
+    }
+
+    @Test
+    void createBooking_overlapsFlightLookupAndReservation() {
+        BookingRequest req = buildBookingRequest("par@test", Arrays.asList(p("A", "1A")));
+        // each call only returns once the other one has started, so sequential calls would time out
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch reserveStarted = new CountDownLatch(1);
+
+        when(flightSnapshots.get("FL1")).thenAnswer(inv -> {
+            lookupStarted.countDown();
+            assertTrue(reserveStarted.await(5, TimeUnit.SECONDS));
+            return sampleFlight;
+        });
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenAnswer(inv -> {
+            reserveStarted.countDown();
+            assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+            return rresp;
+        });
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        BookingResponse resp = bookingService.createBooking("FL1", req, null);
+
+        assertEquals("DEL", resp.getSource());
+        assertEquals(1, resp.getPassengers().size());
+    }
+
+    @Test
+    void createBooking_releasesSeats_whenFlightLookupFailsAfterReservation() {
+        BookingRequest req = buildBookingRequest("par@test", Arrays.asList(p("A", "1A")));
+        when(flightSnapshots.get("FL1")).thenThrow(new BusinessException("Flight not found with id: FL1"));
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req, null));
+
+        assertTrue(ex.getMessage().startsWith("Flight not found"));
+        verify(flightClient).releaseSeats(eq("FL1"), argThat(r -> r.getCount() == 1 && r.getSeatNumbers().equals(List.of("1A"))));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    private List<Booking> history(int size) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Booking b = new Booking();
+            b.setPnr("PNR-" + i);
+            b.setFlightId("FL" + (i % 3));
+            b.setBookerEmailId("flyer@test.com");
+            b.setStatus(BookingStatus.BOOKED);
+            bookings.add(b);
+        }
+        return bookings;
+    }
+
+    @Test
+    void getBookingHistory_batchesPassengerAndFlightLookups_regardlessOfHistorySize() {
+        List<Booking> bookings = history(300);
+        when(bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc("flyer@test.com")).thenReturn(bookings);
+
+        List<Passenger> passengers = new ArrayList<>();
+        for (Booking b : bookings) {
+            Passenger pas = new Passenger();
+            pas.setPnr(b.getPnr());
+            pas.setName("P");
+            passengers.add(pas);
+        }
+        when(passengerRepository.findByPnrIn(anyCollection())).thenReturn(passengers);
+        when(flightSnapshots.getAll(anyCollection())).thenReturn(Map.of("FL0", sampleFlight, "FL1", sampleFlight, "FL2", sampleFlight));
+
+        List<BookingResponse> resp = bookingService.getBookingHistory("flyer@test.com");
+
+        assertEquals(300, resp.size());
+        assertEquals("PNR-0", resp.get(0).getPnr());
+        assertEquals(1, resp.get(299).getPassengers().size());
+        assertEquals("DEL", resp.get(299).getSource());
+        verify(flightSnapshots, times(1)).getAll(argThat(ids -> ids.size() == 3));
+        verify(passengerRepository, times(1)).findByPnrIn(anyCollection());
+        verify(flightSnapshots, never()).get(anyString());
+        verify(passengerRepository, never()).findByPnr(anyString());
+    }
+
+    @Test
+    void getBookingHistory_leavesFlightDetailsOut_whenFlightUnresolved() {
+        when(bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc("flyer@test.com")).thenReturn(history(2));
+        when(passengerRepository.findByPnrIn(anyCollection())).thenReturn(List.of());
+        when(flightSnapshots.getAll(anyCollection())).thenReturn(Map.of());
+
+        List<BookingResponse> resp = bookingService.getBookingHistory("flyer@test.com");
+
+        assertEquals(2, resp.size());
+        assertNull(resp.get(0).getSource());
+        assertTrue(resp.get(0).getPassengers().isEmpty());
     }
 
     @Test
@@ -239,7 +464,7 @@ class BookingServiceImplTest {
         booking.setTotalAmount(2000.0);
         booking.setStatus(BookingStatus.BOOKED);
         when(bookingRepository.findByPnr("PNR-1")).thenReturn(Optional.of(booking));
-        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        when(flightSnapshots.get("FL1")).thenReturn(sampleFlight);
 
         Passenger pas = new Passenger();
         pas.setName("A");
@@ -254,26 +479,102 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void cancelBooking_success_and_releasesSeats() {
+    void getBookingByPnr_readsEmbeddedSummary_withoutRemoteCalls() {
+        Passenger pas = new Passenger();
+        pas.setName("A");
+        pas.setSeatNo("1A");
+        Booking booking = new Booking();
+        booking.setPnr("PNR-2");
+        booking.setFlightId("FL1");
+        booking.setAirlineName("TestAir");
+        booking.setFlight(FlightSummary.from(sampleFlight));
+        booking.setStatus(BookingStatus.BOOKED);
+        booking.setPassengers(List.of(pas));
+        when(bookingRepository.findByPnr("PNR-2")).thenReturn(Optional.of(booking));
+
+        BookingResponse resp = bookingService.getBookingByPnr("PNR-2");
+
+        assertEquals("DEL", resp.getSource());
+        assertEquals("BLR", resp.getDestination());
+        assertEquals("TestAir", resp.getAirlineName());
+        assertEquals("1A", resp.getPassengers().get(0).getSeatNo());
+        verifyNoInteractions(flightSnapshots, flightClient, passengerRepository);
+    }
+
+    @Test
+    void cancelBooking_success_queuesReleaseAndEvent() {
         Booking booking = new Booking();
         booking.setPnr("PNR-C");
         booking.setStatus(BookingStatus.BOOKED);
         booking.setBookingDateTime(LocalDateTime.now());
         booking.setFlightId("FL1");
-
-        when(bookingRepository.findByPnr("PNR-C")).thenReturn(Optional.of(booking));
-        when(passengerRepository.countByPnr("PNR-C")).thenReturn(2L);
+        booking.setAirlineName("TestAir");
         Passenger p1 = new Passenger();
         p1.setSeatNo("1A");
         Passenger p2 = new Passenger();
         p2.setSeatNo("1B");
-        when(passengerRepository.findByPnr("PNR-C")).thenReturn(Arrays.asList(p1, p2));
-        doNothing().when(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        booking.setPassengers(Arrays.asList(p1, p2));
+
+        when(bookingRepository.findByPnr("PNR-C")).thenReturn(Optional.of(booking));
+        when(bookingRepository.cancel(eq("PNR-C"), anyList())).thenReturn(Optional.of(booking));
 
         String msg = bookingService.cancelBooking("PNR-C");
         assertEquals("Booking cancelled successfully", msg);
-        verify(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
+
+        // the release and the event are committed with the status change and left to the relay
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxEntry>> outbox = ArgumentCaptor.forClass(List.class);
+        verify(bookingRepository).cancel(eq("PNR-C"), outbox.capture());
+        assertEquals(2, outbox.getValue().size());
+        OutboxEntry release = outbox.getValue().get(0);
+        assertEquals(OutboxType.RELEASE_SEATS, release.getType());
+        assertEquals("PNR-C", release.getBookingReference());
+        assertEquals(2, release.getSeatCount());
+        assertEquals(List.of("1A", "1B"), release.getSeatNumbers());
+        assertEquals(OutboxType.BOOKING_CANCELLED, outbox.getValue().get(1).getType());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(flightClient, flightSnapshots, passengerRepository);
+    }
+
+    @Test
+    void cancelBooking_releasesUnderTheReferenceTheSeatsAreHeldUnder() {
+        Booking booking = new Booking();
+        booking.setPnr("PNR-C");
+        booking.setBookingReference("BR-42");
+        booking.setStatus(BookingStatus.BOOKED);
+        booking.setBookingDateTime(LocalDateTime.now());
+        booking.setFlightId("FL1");
+        Passenger p1 = new Passenger();
+        p1.setSeatNo("1A");
+        booking.setPassengers(List.of(p1));
+
+        when(bookingRepository.findByPnr("PNR-C")).thenReturn(Optional.of(booking));
+        when(bookingRepository.cancel(eq("PNR-C"), anyList())).thenReturn(Optional.of(booking));
+
+        bookingService.cancelBooking("PNR-C");
+
+        verify(bookingRepository).cancel(eq("PNR-C"), argThat(outbox -> outbox.size() == 2
+                && "BR-42".equals(outbox.get(0).getBookingReference())));
+    }
+
+    @Test
+    void cancelBooking_throws_when_cancelledConcurrently() {
+        Booking booking = new Booking();
+        booking.setPnr("PNR-R");
+        booking.setStatus(BookingStatus.BOOKED);
+        booking.setBookingDateTime(LocalDateTime.now());
+        booking.setFlightId("FL1");
+        Passenger p1 = new Passenger();
+        p1.setSeatNo("1A");
+        booking.setPassengers(List.of(p1));
+
+        // read as BOOKED, but another request cancels it before the conditional update
+        when(bookingRepository.findByPnr("PNR-R")).thenReturn(Optional.of(booking));
+        when(bookingRepository.cancel(eq("PNR-R"), anyList())).thenReturn(Optional.empty());
+
+        var ex = assertThrows(ConflictException.class, () -> bookingService.cancelBooking("PNR-R"));
+        assertTrue(ex.getMessage().toLowerCase().contains("already cancelled"));
+        verifyNoInteractions(flightClient);
     }
 
     @Test
@@ -301,4 +602,23 @@ class BookingServiceImplTest {
         var ex = assertThrows(com.bookingservice.exceptions.ConflictException.class, () -> bookingService.cancelBooking("PNR-X"));
         assertTrue(ex.getMessage().toLowerCase().contains("already cancelled"));
     }
+
+    @Test
+    void createBookingFallback_passesUnwrappedFlightNotFoundThrough() {
+        BusinessException notFound = new BusinessException("Flight not found with id: FL9");
+        BookingRequest req = buildBookingRequest("u@test.com", List.of(p("A", "1A")));
+
+        var ex = assertThrows(BusinessException.class, () -> bookingService.createBookingFallback("FL9", req, null,
+                new ExecutionException(notFound)));
+        assertSame(notFound, ex);
+    }
+
+    @Test
+    void createBookingFallback_reportsUnavailable_whenFailureHasNoMessage() {
+        BookingRequest req = buildBookingRequest("u@test.com", List.of(p("A", "1A")));
+
+        var ex = assertThrows(BusinessException.class, () -> bookingService.createBookingFallback("FL1", req, null,
+                new CompletionException(new BusinessException(null))));
+        assertTrue(ex.getMessage().contains("temporarily unavailable"));
+    }
 }
@@ -0,0 +1,89 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Bookings per second of the blocking implementation and the reactive one (profile
+ * {@code reactive}), each started in turn against the same flight-service stand-in and driven
+ * with {@link #CONCURRENCY} bookings in flight. Both rates are printed; only failed bookings fail
+ * the test. Needs a local MongoDB.
+ */
+class BookingThroughputTest {
+
+    private static final Duration FLIGHT_SERVICE_LATENCY = Duration.ofMillis(20);
+    private static final int WARMUP_BOOKINGS = 200;
+    private static final int BOOKINGS = 2000;
+    private static final int CONCURRENCY = 256;
+
+    @Test
+    void blockingAndReactiveBookings_throughput() throws Exception {
+        try (FlightServiceStandIn flightService = FlightServiceStandIn.start(FLIGHT_SERVICE_LATENCY)) {
+            double blocking = throughput(flightService, "blocking");
+            double reactive = throughput(flightService, "reactive");
+            System.out.printf("bookings/s with %d in flight and %d ms flight-service latency: blocking %.0f, reactive %.0f%n",
+                    CONCURRENCY, FLIGHT_SERVICE_LATENCY.toMillis(), blocking, reactive);
+        }
+    }
+
+    private double throughput(FlightServiceStandIn flightService, String profile) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(BookingServiceApplication.class)
+                .profiles(profile)
+                .properties("server.port=0", "id-generator.node-id=0", "flight.lookup.coalesce-window=PT0S",
+                        "flight.service.url=" + flightService.url())
+                .run()) {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            HttpClient client = HttpClient.newHttpClient();
+            book(client, port, profile + "-WARMUP", WARMUP_BOOKINGS);
+
+            long start = System.nanoTime();
+            book(client, port, profile, BOOKINGS);
+            return BOOKINGS / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    // non-blocking sends, so the client is not what limits the rate
+    private void book(HttpClient client, int port, String flightPrefix, int bookings) throws Exception {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<?>> sent = new ArrayList<>();
+        for (int i = 0; i < bookings; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/booking/" + flightPrefix + "-" + i))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(bookingJson()))
+                    .build();
+            inFlight.acquire();
+            sent.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        inFlight.release();
+                        if (ex != null || response.statusCode() != 201) {
+                            failed.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).exceptionally(ex -> null).get(120, TimeUnit.SECONDS);
+        assertEquals(0, failed.get(), failed.get() + " of " + bookings + " bookings failed for " + flightPrefix);
+    }
+
+    private static String bookingJson() {
+        return """
+                {"bookerEmailId":"user@test.com","tripType":"ONE_WAY","passengers":[
+                  {"name":"A","gender":"FEMALE","age":30,"seatNo":"1A","mealType":"VEG"}]}
+                """;
+    }
+}
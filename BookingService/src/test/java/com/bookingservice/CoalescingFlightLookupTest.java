@@ -0,0 +1,151 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bookingservice.client.CoalescingFlightLookup;
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.exceptions.BusinessException;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingFlightLookupTest {
+
+    @Mock
+    private FlightClient flightClient;
+
+    private CoalescingFlightLookup lookup;
+
+    @BeforeEach
+    void setUp() {
+        lookup = new CoalescingFlightLookup(flightClient, Duration.ofMillis(200), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lookup.shutdown();
+    }
+
+    private static FlightDto flight(String id) {
+        FlightDto f = new FlightDto();
+        f.setFlightId(id);
+        return f;
+    }
+
+    @Test
+    void concurrentLookupsShareOneBatchCall() throws Exception {
+        when(flightClient.getFlights(anyCollection())).thenAnswer(inv -> {
+            Map<String, FlightDto> found = new HashMap<>();
+            for (String id : (Collection<String>) inv.getArgument(0)) {
+                found.put(id, flight(id));
+            }
+            return found;
+        });
+
+        int callers = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<FlightDto>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                String id = "FL" + (i % 5);
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return lookup.getFlight(id);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < callers; i++) {
+                assertEquals("FL" + (i % 5), results.get(i).get().getFlightId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(flightClient, times(1)).getFlights(argThat(ids -> ids.size() == 5));
+        verify(flightClient, never()).getFlight(anyString());
+    }
+
+    @Test
+    void earlyFlushAtMaxBatch_doesNotCutTheNextWindowShort() throws Exception {
+        CoalescingFlightLookup small = new CoalescingFlightLookup(flightClient, Duration.ofMillis(300), 2);
+        List<Collection<String>> batches = new ArrayList<>();
+        when(flightClient.getFlights(anyCollection())).thenAnswer(inv -> {
+            Collection<String> ids = new ArrayList<>((Collection<String>) inv.getArgument(0));
+            synchronized (batches) {
+                batches.add(ids);
+            }
+            Map<String, FlightDto> found = new HashMap<>();
+            ids.forEach(id -> found.put(id, flight(id)));
+            return found;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            // fills the first window before its timer fires
+            Future<FlightDto> a = pool.submit(() -> small.getFlight("FL1"));
+            Future<FlightDto> b = pool.submit(() -> small.getFlight("FL2"));
+            a.get();
+            b.get();
+            // opens a second window shortly before the first window's timer was due, which
+            // must not close it
+            Thread.sleep(200);
+            Future<FlightDto> c = pool.submit(() -> small.getFlight("FL3"));
+            Thread.sleep(150);
+            Future<FlightDto> d = pool.submit(() -> small.getFlight("FL4"));
+            c.get();
+            d.get();
+        } finally {
+            pool.shutdownNow();
+            small.shutdown();
+        }
+
+        synchronized (batches) {
+            assertEquals(2, batches.size(), "batches: " + batches);
+            assertEquals(2, batches.get(1).size());
+        }
+    }
+
+    @Test
+    void unknownFlightFailsLikeTheSingleLookup() {
+        when(flightClient.getFlights(anyCollection())).thenReturn(Map.of());
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> lookup.getFlight("NOPE"));
+        assertTrue(ex.getMessage().startsWith("Flight not found"));
+    }
+
+    @Test
+    void batchFailureIsRethrownToEveryCaller() {
+        when(flightClient.getFlights(anyCollection())).thenThrow(new IllegalStateException("flight-service down"));
+
+        assertThrows(IllegalStateException.class, () -> lookup.getFlight("FL1"));
+    }
+
+    @Test
+    void zeroWindowCallsThroughDirectly() {
+        CoalescingFlightLookup direct = new CoalescingFlightLookup(flightClient, Duration.ZERO, 100);
+        when(flightClient.getFlight("FL1")).thenReturn(flight("FL1"));
+
+        assertEquals("FL1", direct.getFlight("FL1").getFlightId());
+        verify(flightClient, never()).getFlights(anyCollection());
+        direct.shutdown();
+    }
+}
@@ -0,0 +1,87 @@
+package com.bookingservice;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local flight-service that answers every call after a fixed delay. Every flight exists and
+ * has seats, every reservation succeeds, and confirm and release calls from the outbox relay
+ * just succeed.
+ */
+final class FlightServiceStandIn implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService requests = Executors.newCachedThreadPool();
+    private final Duration latency;
+
+    private FlightServiceStandIn(HttpServer server, Duration latency) {
+        this.server = server;
+        this.latency = latency;
+    }
+
+    static FlightServiceStandIn start(Duration latency) {
+        try {
+            FlightServiceStandIn flightService = new FlightServiceStandIn(
+                    HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0), latency);
+            flightService.server.setExecutor(flightService.requests);
+            flightService.server.createContext("/flights", flightService::answer);
+            flightService.server.start();
+            return flightService;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        requests.shutdownNow();
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getRequestBody().readAllBytes();
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        String body;
+        if (path.length == 3 && "GET".equals(exchange.getRequestMethod())) {
+            body = """
+                    {"flightId":"%s","flightNo":"TA100","airlineName":"TestAir","source":"DEL","destination":"BLR",
+                     "departureDateTime":"2030-01-01T10:00:00","arrivalDateTime":"2030-01-01T12:00:00",
+                     "availableSeats":100,"price":5000.0}
+                    """.formatted(path[2]);
+        } else if (path.length == 4 && "reserve".equals(path[3])) {
+            body = """
+                    {"success":true,"message":"Reserved","reservedSeats":["1A"],"remainingSeats":99}
+                    """;
+        } else if (path.length == 4 && "pending".equals(path[3])) {
+            body = "[]";
+        } else {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
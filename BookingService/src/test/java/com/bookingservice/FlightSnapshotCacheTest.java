@@ -0,0 +1,101 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bookingservice.cache.FlightSnapshotCache;
+import com.bookingservice.client.CoalescingFlightLookup;
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.FlightDto;
+
+@ExtendWith(MockitoExtension.class)
+class FlightSnapshotCacheTest {
+
+    @Mock
+    private CoalescingFlightLookup flightLookup;
+
+    @Mock
+    private FlightClient flightClient;
+
+    private static FlightDto flight(String id, int seats) {
+        FlightDto f = new FlightDto();
+        f.setFlightId(id);
+        f.setSource("DEL");
+        f.setDestination("BLR");
+        f.setAvailableSeats(seats);
+        return f;
+    }
+
+    @Test
+    void servesRepeatReadsFromCache_andPatchesSeatCounts() {
+        FlightSnapshotCache cache = new FlightSnapshotCache(flightLookup, flightClient, Duration.ofMinutes(10), 100);
+        when(flightLookup.getFlight("FL1")).thenReturn(flight("FL1", 10));
+
+        assertEquals(10, cache.get("FL1").getAvailableSeats());
+        cache.updateSeats("FL1", 7);
+        FlightDto cached = cache.get("FL1");
+
+        assertEquals(7, cached.getAvailableSeats());
+        assertEquals("DEL", cached.getSource());
+        verify(flightLookup, times(1)).getFlight("FL1");
+    }
+
+    @Test
+    void servesExpiredSnapshot_whenFlightServiceIsDown() {
+        FlightSnapshotCache cache = new FlightSnapshotCache(flightLookup, flightClient, Duration.ZERO, 100);
+        when(flightLookup.getFlight("FL1"))
+                .thenReturn(flight("FL1", 10))
+                .thenThrow(new IllegalStateException("flight-service down"));
+
+        cache.get("FL1");
+        assertEquals("BLR", cache.get("FL1").getDestination());
+    }
+
+    @Test
+    void invalidatedFlightIsFetchedAgain() {
+        FlightSnapshotCache cache = new FlightSnapshotCache(flightLookup, flightClient, Duration.ofMinutes(10), 100);
+        when(flightLookup.getFlight("FL1")).thenReturn(flight("FL1", 10));
+
+        cache.get("FL1");
+        cache.invalidate("FL1");
+        cache.get("FL1");
+
+        verify(flightLookup, times(2)).getFlight("FL1");
+    }
+
+    @Test
+    void getAll_fetchesOnlyMissingFlights_inOneBatch() {
+        FlightSnapshotCache cache = new FlightSnapshotCache(flightLookup, flightClient, Duration.ofMinutes(10), 100);
+        when(flightLookup.getFlight("FL1")).thenReturn(flight("FL1", 10));
+        when(flightClient.getFlights(List.of("FL2", "FL3")))
+                .thenReturn(Map.of("FL2", flight("FL2", 5), "FL3", flight("FL3", 6)));
+
+        cache.get("FL1");
+        Map<String, FlightDto> flights = cache.getAll(List.of("FL1", "FL2", "FL3"));
+
+        assertEquals(3, flights.size());
+        verify(flightClient, times(1)).getFlights(anyCollection());
+    }
+
+    @Test
+    void getAll_leavesUnknownFlightsOut_whenFlightServiceIsDown() {
+        FlightSnapshotCache cache = new FlightSnapshotCache(flightLookup, flightClient, Duration.ZERO, 100);
+        when(flightLookup.getFlight("FL1")).thenReturn(flight("FL1", 10));
+        when(flightClient.getFlights(anyCollection())).thenThrow(new IllegalStateException("flight-service down"));
+
+        cache.get("FL1");
+        Map<String, FlightDto> flights = cache.getAll(List.of("FL1", "FL2"));
+
+        assertEquals(1, flights.size());
+        assertEquals("DEL", flights.get("FL1").getSource());
+    }
+}
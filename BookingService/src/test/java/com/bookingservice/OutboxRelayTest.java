@@ -0,0 +1,186 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.id.SequenceIdGenerator;
+import com.bookingservice.cache.FlightSnapshotCache;
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.ReleaseSeatsRequest;
+import com.bookingservice.enums.BookingStatus;
+import com.bookingservice.enums.OutboxType;
+import com.bookingservice.kafka.BookingEventProducer;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.OutboxEntry;
+import com.bookingservice.outbox.OutboxRelay;
+import com.bookingservice.repository.BookingRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import feign.FeignException;
+import feign.Request;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private FlightClient flightClient;
+
+    @Mock
+    private BookingEventProducer bookingEventProducer;
+
+    @Mock
+    private FlightSnapshotCache flightSnapshots;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(bookingRepository, flightClient, bookingEventProducer, flightSnapshots,
+                new SequenceIdGenerator(1, Clock.systemUTC()), Duration.ofSeconds(30), Duration.ofMinutes(5));
+    }
+
+    private Booking booking(OutboxEntry... outbox) {
+        Booking booking = new Booking();
+        booking.setBookingid("B1");
+        booking.setPnr("PNR-1");
+        booking.setFlightId("FL1");
+        booking.setAirlineName("TestAir");
+        booking.setBookerEmailId("u@test.com");
+        booking.setStatus(BookingStatus.CANCELLED);
+        booking.setOutbox(new ArrayList<>(List.of(outbox)));
+        return booking;
+    }
+
+    private OutboxEntry release(String id) {
+        return OutboxEntry.releaseSeats(id, LocalDateTime.now().minusSeconds(1), "PNR-1", 2, List.of("1A", "1B"));
+    }
+
+    @Test
+    void relay_releasesSeatsAndRemovesEntry() {
+        when(bookingRepository.findWithDueOutbox(any(LocalDateTime.class), anyInt())).thenReturn(List.of(booking(release("E1"))));
+        when(bookingRepository.claimOutboxEntry(eq("B1"), eq("E1"), any(), any())).thenReturn(true);
+
+        relay.relay();
+
+        ArgumentCaptor<ReleaseSeatsRequest> request = ArgumentCaptor.forClass(ReleaseSeatsRequest.class);
+        verify(flightClient).releaseSeats(eq("FL1"), request.capture());
+        assertEquals("PNR-1", request.getValue().getBookingReference());
+        assertEquals(2, request.getValue().getCount());
+        assertEquals(List.of("1A", "1B"), request.getValue().getSeatNumbers());
+        verify(bookingRepository).removeOutboxEntry("B1", "E1");
+        verify(bookingRepository, never()).rescheduleOutboxEntry(any(), any(), any(), any());
+    }
+
+    @Test
+    void relay_reschedulesWithBackoff_whenReleaseFails() {
+        OutboxEntry entry = release("E1");
+        entry.setAttempts(3);
+        when(bookingRepository.findWithDueOutbox(any(LocalDateTime.class), anyInt())).thenReturn(List.of(booking(entry)));
+        when(bookingRepository.claimOutboxEntry(eq("B1"), eq("E1"), any(), any())).thenReturn(true);
+        doThrow(new RuntimeException("flight-service down")).when(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
+
+        LocalDateTime before = LocalDateTime.now();
+        relay.relay();
+
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(bookingRepository).rescheduleOutboxEntry(eq("B1"), eq("E1"), next.capture(), contains("flight-service down"));
+        // fourth attempt: 2^3 seconds later
+        assertFalse(next.getValue().isBefore(before.plusSeconds(8)));
+        assertTrue(next.getValue().isBefore(before.plusSeconds(9)));
+        verify(bookingRepository, never()).removeOutboxEntry(any(), any());
+    }
+
+    @Test
+    void relay_skipsEntryClaimedElsewhere() {
+        when(bookingRepository.findWithDueOutbox(any(LocalDateTime.class), anyInt())).thenReturn(List.of(booking(release("E1"))));
+        when(bookingRepository.claimOutboxEntry(eq("B1"), eq("E1"), any(), any())).thenReturn(false);
+
+        relay.relay();
+
+        verifyNoInteractions(flightClient);
+        verify(bookingRepository, never()).removeOutboxEntry(any(), any());
+    }
+
+    @Test
+    void relay_confirmsSeatHold_ofBookedBooking() {
+        Booking booking = booking(OutboxEntry.confirmSeats("E3", LocalDateTime.now().minusSeconds(1), "BR-1"));
+        booking.setStatus(BookingStatus.BOOKED);
+        when(bookingRepository.findWithDueOutbox(any(LocalDateTime.class), anyInt())).thenReturn(List.of(booking));
+        when(bookingRepository.claimOutboxEntry(eq("B1"), eq("E3"), any(), any())).thenReturn(true);
+
+        relay.relay();
+
+        verify(flightClient).confirmSeats(eq("FL1"), argThat(r -> "BR-1".equals(r.getBookingReference())));
+        // the booking-created event was waiting for this
+        verify(bookingRepository).startWaitingOutboxEntries(eq("B1"), any(LocalDateTime.class));
+        verify(bookingRepository).removeOutboxEntry("B1", "E3");
+    }
+
+    @Test
+    void relay_failsBooking_whenSeatHoldCanNoLongerBeConfirmed() {
+        Booking booking = booking(OutboxEntry.confirmSeats("E3", LocalDateTime.now().minusSeconds(1), "BR-1"),
+                OutboxEntry.afterConfirmation("E4", OutboxType.BOOKING_CREATED, LocalDateTime.now()));
+        booking.setStatus(BookingStatus.BOOKED);
+        when(bookingRepository.findWithDueOutbox(any(LocalDateTime.class), anyInt())).thenReturn(List.of(booking));
+        when(bookingRepository.claimOutboxEntry(eq("B1"), eq("E3"), any(), any())).thenReturn(true);
+        Request confirm = Request.create(Request.HttpMethod.POST, "/flights/FL1/confirm", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        doThrow(new FeignException.Conflict("Seat hold of booking reference BR-1 was expired", confirm, null, Map.of()))
+                .when(flightClient).confirmSeats(eq("FL1"), any());
+
+        relay.relay();
+
+        verify(bookingRepository).failUnconfirmed(eq("B1"), eq("E3"),
+                argThat(notice -> notice.getType() == OutboxType.BOOKING_CANCELLED && notice.getNextAttemptAt() != null));
+        verify(bookingRepository, never()).startWaitingOutboxEntries(any(), any());
+        verify(bookingRepository, never()).rescheduleOutboxEntry(any(), any(), any(), any());
+        // the waiting booking-created entry was never due
+        verify(bookingRepository, never()).claimOutboxEntry(eq("B1"), eq("E4"), any(), any());
+        verifyNoInteractions(bookingEventProducer);
+    }
+
+    @Test
+    void relay_dropsSeatConfirmation_ofCancelledBooking() {
+        when(bookingRepository.findWithDueOutbox(any(LocalDateTime.class), anyInt())).thenReturn(List.of(
+                booking(OutboxEntry.confirmSeats("E3", LocalDateTime.now().minusSeconds(1), "BR-1"))));
+        when(bookingRepository.claimOutboxEntry(eq("B1"), eq("E3"), any(), any())).thenReturn(true);
+
+        relay.relay();
+
+        // the cancellation's release hands the hold back
+        verifyNoInteractions(flightClient);
+        verify(bookingRepository).removeOutboxEntry("B1", "E3");
+    }
+
+    @Test
+    void relay_publishesCreatedEvent_onceAcknowledged() {
+        OutboxEntry created = OutboxEntry.of("E2", OutboxType.BOOKING_CREATED, LocalDateTime.now().minusSeconds(1));
+        when(bookingRepository.findWithDueOutbox(any(LocalDateTime.class), anyInt())).thenReturn(List.of(booking(created)));
+        when(bookingRepository.claimOutboxEntry(eq("B1"), eq("E2"), any(), any())).thenReturn(true);
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")))
+                .when(bookingEventProducer).sendBookingCreatedEvent(any(BookingCreatedEvent.class));
+
+        relay.relay();
+
+        verify(bookingEventProducer).sendBookingCreatedEvent(argThat(e -> "PNR-1".equals(e.getPnr()) && "TestAir".equals(e.getAirlineName())));
+        // not acknowledged, so kept for the next attempt
+        verify(bookingRepository).rescheduleOutboxEntry(eq("B1"), eq("E2"), any(), contains("broker unavailable"));
+        verify(bookingRepository, never()).removeOutboxEntry(any(), any());
+    }
+}
@@ -0,0 +1,439 @@
+package com.bookingservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import com.bookingevents.id.IdGenerator;
+import com.bookingevents.id.SequenceIdGenerator;
+import com.bookingservice.cache.FlightSnapshotCache;
+import com.bookingservice.client.ReactiveFlightClient;
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.client.dto.ReleaseSeatsRequest;
+import com.bookingservice.client.dto.ReserveSeatsRequest;
+import com.bookingservice.client.dto.ReserveSeatsResponse;
+import com.bookingservice.dto.request.BookingRequest;
+import com.bookingservice.dto.request.PassengerRequest;
+import com.bookingservice.enums.BookingStatus;
+import com.bookingservice.enums.OutboxType;
+import com.bookingservice.enums.TripType;
+import com.bookingservice.exceptions.BadRequestException;
+import com.bookingservice.exceptions.BusinessException;
+import com.bookingservice.exceptions.ConflictException;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.FlightSummary;
+import com.bookingservice.model.OutboxEntry;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.ReactiveBookingRepository;
+import com.bookingservice.repository.ReactivePassengerRepository;
+import com.bookingservice.serviceimpl.ReactiveBookingServiceImpl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The {@link BookingServiceImplTest} scenarios, run against the reactive implementation.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookingServiceImplTest {
+
+    @Mock
+    private ReactiveFlightClient flightClient;
+
+    @Mock
+    private FlightSnapshotCache flightSnapshots;
+
+    @Mock
+    private ReactiveBookingRepository bookingRepository;
+
+    @Mock
+    private ReactivePassengerRepository passengerRepository;
+
+    @Spy
+    private IdGenerator idGenerator = new SequenceIdGenerator(1, Clock.systemUTC());
+
+    @InjectMocks
+    private ReactiveBookingServiceImpl bookingService;
+
+    private FlightDto sampleFlight;
+
+    @BeforeEach
+    void setUp() {
+        sampleFlight = new FlightDto();
+        sampleFlight.setFlightId("FL1");
+        sampleFlight.setAvailableSeats(5);
+        sampleFlight.setPrice(1000.0);
+        sampleFlight.setSource("DEL");
+        sampleFlight.setDestination("BLR");
+        sampleFlight.setAirlineName("TestAir");
+    }
+
+    private BookingRequest buildBookingRequest(String bookerEmail, List<PassengerRequest> passengers) {
+        BookingRequest req = new BookingRequest();
+        req.setBookerEmailId(bookerEmail);
+        req.setTripType(TripType.ONE_WAY);
+        req.setPassengers(passengers);
+        return req;
+    }
+
+    private PassengerRequest p(String name, String seat) {
+        PassengerRequest pr = new PassengerRequest();
+        pr.setName(name);
+        pr.setAge(30);
+        pr.setSeatNo(seat);
+        return pr;
+    }
+
+    private ReserveSeatsResponse reservation(boolean success, String message) {
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(success);
+        rresp.setMessage(message);
+        return rresp;
+    }
+
+    @Test
+    void createBooking_success_reservesAndSaves() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", "1A"), p("B", "1B")));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(sampleFlight);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(Mono.just(reservation(true, "Reserved")));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .assertNext(resp -> {
+                    assertTrue(resp.getPnr().startsWith("PNR-"));
+                    assertEquals(2, resp.getPassengers().size());
+                    assertEquals("DEL", resp.getSource());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Booking> saved = ArgumentCaptor.forClass(Booking.class);
+        verify(bookingRepository).save(saved.capture());
+        assertEquals(2, saved.getValue().getPassengers().size());
+        assertEquals("TestAir", saved.getValue().getFlight().getAirlineName());
+        assertEquals(OutboxType.CONFIRM_SEATS, saved.getValue().getOutbox().get(0).getType());
+        assertEquals(OutboxType.BOOKING_CREATED, saved.getValue().getOutbox().get(1).getType());
+    }
+
+    @Test
+    void createBooking_fetchesFlight_whenNotCached() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", "1A")));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(null);
+        when(flightClient.getFlight("FL1")).thenReturn(Mono.just(sampleFlight));
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(Mono.just(reservation(true, "Reserved")));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .assertNext(resp -> assertEquals("BLR", resp.getDestination()))
+                .verifyComplete();
+        verify(flightSnapshots).put("FL1", sampleFlight);
+    }
+
+    @Test
+    void createBooking_throws_when_reservationFails() {
+        BookingRequest req = buildBookingRequest("fail@test", Arrays.asList(p("A", null)));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(sampleFlight);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(Mono.just(reservation(false, "No seats available")));
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .expectErrorSatisfies(ex -> {
+                    assertInstanceOf(BusinessException.class, ex);
+                    assertTrue(ex.getMessage().toLowerCase().contains("reservation"));
+                })
+                .verify();
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_throws_when_notEnoughSeats() {
+        BookingRequest req = buildBookingRequest("a@b", Arrays.asList(p("A", null), p("B", null), p("C", null), p("D", null), p("E", null), p("F", null)));
+        // flight has 5 seats, both in the snapshot and live; flight-service rejects the reservation
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(sampleFlight);
+        when(flightClient.getFlight("FL1")).thenReturn(Mono.just(sampleFlight));
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class)))
+                .thenReturn(Mono.error(new BusinessException("Not enough seats available. Requested: 6, Available: 5")));
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .expectErrorSatisfies(ex -> assertTrue(ex.getMessage().toLowerCase().contains("not enough seats")))
+                .verify();
+    }
+
+    @Test
+    void createBooking_throws_when_seatAlreadyTaken() {
+        BookingRequest req = buildBookingRequest("x@y", Arrays.asList(p("A", "1A")));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(sampleFlight);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(Mono.just(reservation(false, "Seat(s) already taken: 1A")));
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .expectErrorMessage("Seat(s) already taken: 1A")
+                .verify();
+    }
+
+    @Test
+    void createBooking_compensation_releasesOnBookingSaveFailure() {
+        BookingRequest req = buildBookingRequest("comp@test", Arrays.asList(p("A", "1A"), p("B", "1B")));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(sampleFlight);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(Mono.just(reservation(true, null)));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(Mono.error(new RuntimeException("DB down")));
+        when(flightClient.releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .expectErrorSatisfies(ex -> assertTrue(ex.getMessage().toLowerCase().contains("failed to save booking")))
+                .verify();
+        verify(flightClient).releaseSeats(eq("FL1"), argThat(r -> r.getCount() == 2));
+    }
+
+    @Test
+    void createBooking_retryWithIdempotencyKey_returnsExistingBooking() {
+        Booking existing = new Booking();
+        existing.setPnr("PNR-1");
+        existing.setFlightId("FL1");
+        existing.setFlight(FlightSummary.from(sampleFlight));
+        existing.setStatus(BookingStatus.BOOKED);
+        when(bookingRepository.findByIdempotencyKey("key-1")).thenReturn(Mono.just(existing));
+
+        StepVerifier.create(bookingService.createBooking("FL1", buildBookingRequest("u@test.com", List.of(p("A", "1A"))), "key-1"))
+                .assertNext(resp -> assertEquals("PNR-1", resp.getPnr()))
+                .verifyComplete();
+        verifyNoInteractions(flightClient, flightSnapshots);
+    }
+
+    @Test
+    void createBooking_storesFailedBookingWithRelease_whenBookingSaveFails() {
+        BookingRequest req = buildBookingRequest("comp@test", Arrays.asList(p("A", "1A"), p("B", "1B")));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(sampleFlight);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(Mono.just(reservation(true, null)));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenReturn(Mono.error(new RuntimeException("write conflict")))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .expectErrorSatisfies(ex -> assertTrue(ex.getMessage().toLowerCase().contains("failed to save booking")))
+                .verify();
+
+        ArgumentCaptor<Booking> saved = ArgumentCaptor.forClass(Booking.class);
+        verify(bookingRepository, times(2)).save(saved.capture());
+        assertEquals(BookingStatus.FAILED, saved.getValue().getStatus());
+        OutboxEntry release = saved.getValue().getOutbox().get(0);
+        assertEquals(OutboxType.RELEASE_SEATS, release.getType());
+        assertEquals(2, release.getSeatCount());
+        verify(flightClient, never()).releaseSeats(anyString(), any(ReleaseSeatsRequest.class));
+    }
+
+    @Test
+    void createBooking_releasesSeats_whenFlightLookupFailsAfterReservation() {
+        BookingRequest req = buildBookingRequest("par@test", Arrays.asList(p("A", "1A")));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(null);
+        when(flightClient.getFlight("FL1")).thenReturn(Mono.error(new BusinessException("Flight not found with id: FL1")));
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(Mono.just(reservation(true, null)));
+        when(flightClient.releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookingService.createBooking("FL1", req, null))
+                .expectErrorMessage("Flight not found with id: FL1")
+                .verify();
+        verify(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    private List<Booking> history(int size) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Booking b = new Booking();
+            b.setPnr("PNR-" + i);
+            b.setFlightId("FL" + (i % 3));
+            b.setBookerEmailId("flyer@test.com");
+            b.setStatus(BookingStatus.BOOKED);
+            bookings.add(b);
+        }
+        return bookings;
+    }
+
+    @Test
+    void getBookingHistory_batchesPassengerAndFlightLookups() {
+        List<Booking> bookings = history(250);
+        when(bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc("flyer@test.com")).thenReturn(Flux.fromIterable(bookings));
+        when(passengerRepository.findByPnrIn(anyCollection())).thenAnswer(inv -> {
+            Collection<String> pnrs = inv.getArgument(0);
+            return Flux.fromIterable(pnrs).map(pnr -> {
+                Passenger pas = new Passenger();
+                pas.setPnr(pnr);
+                pas.setName("P");
+                return pas;
+            });
+        });
+        when(flightClient.getFlights(anyCollection())).thenReturn(Mono.just(Map.of("FL0", sampleFlight, "FL1", sampleFlight, "FL2", sampleFlight)));
+
+        StepVerifier.create(bookingService.getBookingHistory("flyer@test.com").collectList())
+                .assertNext(resp -> {
+                    assertEquals(250, resp.size());
+                    assertEquals("PNR-0", resp.get(0).getPnr());
+                    assertEquals(1, resp.get(249).getPassengers().size());
+                    assertEquals("DEL", resp.get(249).getSource());
+                })
+                .verifyComplete();
+
+        // 250 bookings in batches of 100
+        verify(passengerRepository, times(3)).findByPnrIn(anyCollection());
+        verify(flightClient, times(3)).getFlights(anyCollection());
+        verify(passengerRepository, never()).findByPnr(anyString());
+    }
+
+    @Test
+    void getBookingHistory_leavesFlightDetailsOut_whenFlightUnresolved() {
+        when(bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc("flyer@test.com")).thenReturn(Flux.fromIterable(history(2)));
+        when(passengerRepository.findByPnrIn(anyCollection())).thenReturn(Flux.empty());
+        when(flightClient.getFlights(anyCollection())).thenReturn(Mono.error(new RuntimeException("down")));
+
+        StepVerifier.create(bookingService.getBookingHistory("flyer@test.com"))
+                .assertNext(resp -> {
+                    assertNull(resp.getSource());
+                    assertTrue(resp.getPassengers().isEmpty());
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void getBookingHistory_throws_whenNoBookings() {
+        when(bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc("none@test.com")).thenReturn(Flux.empty());
+
+        StepVerifier.create(bookingService.getBookingHistory("none@test.com"))
+                .expectErrorMessage("No bookings found for email: none@test.com")
+                .verify();
+    }
+
+    @Test
+    void getBookingByPnr_success_mapsPassengersAndFlightInfo() {
+        Booking booking = new Booking();
+        booking.setPnr("PNR-1");
+        booking.setFlightId("FL1");
+        booking.setBookingDateTime(LocalDateTime.now());
+        booking.setStatus(BookingStatus.BOOKED);
+        when(bookingRepository.findByPnr("PNR-1")).thenReturn(Mono.just(booking));
+        when(flightSnapshots.getIfFresh("FL1")).thenReturn(sampleFlight);
+        Passenger pas = new Passenger();
+        pas.setName("A");
+        pas.setSeatNo("1A");
+        when(passengerRepository.findByPnr("PNR-1")).thenReturn(Flux.just(pas));
+
+        StepVerifier.create(bookingService.getBookingByPnr("PNR-1"))
+                .assertNext(resp -> {
+                    assertEquals("PNR-1", resp.getPnr());
+                    assertEquals(1, resp.getPassengers().size());
+                    assertEquals("DEL", resp.getSource());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getBookingByPnr_readsEmbeddedSummary_withoutRemoteCalls() {
+        Passenger pas = new Passenger();
+        pas.setSeatNo("1A");
+        Booking booking = new Booking();
+        booking.setPnr("PNR-2");
+        booking.setFlightId("FL1");
+        booking.setFlight(FlightSummary.from(sampleFlight));
+        booking.setPassengers(List.of(pas));
+        when(bookingRepository.findByPnr("PNR-2")).thenReturn(Mono.just(booking));
+
+        StepVerifier.create(bookingService.getBookingByPnr("PNR-2"))
+                .assertNext(resp -> {
+                    assertEquals("TestAir", resp.getAirlineName());
+                    assertEquals("1A", resp.getPassengers().get(0).getSeatNo());
+                })
+                .verifyComplete();
+        verifyNoInteractions(flightSnapshots, flightClient, passengerRepository);
+    }
+
+    @Test
+    void getBookingByPnr_throws_whenUnknown() {
+        when(bookingRepository.findByPnr("NOPE")).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookingService.getBookingByPnr("NOPE"))
+                .expectErrorMessage("invalid PNR")
+                .verify();
+    }
+
+    @Test
+    void cancelBooking_success_queuesReleaseAndEvent() {
+        Booking booking = new Booking();
+        booking.setPnr("PNR-C");
+        booking.setStatus(BookingStatus.BOOKED);
+        booking.setBookingDateTime(LocalDateTime.now());
+        booking.setFlightId("FL1");
+        booking.setAirlineName("TestAir");
+        Passenger p1 = new Passenger();
+        p1.setSeatNo("1A");
+        Passenger p2 = new Passenger();
+        p2.setSeatNo("1B");
+        booking.setPassengers(Arrays.asList(p1, p2));
+
+        when(bookingRepository.findByPnr("PNR-C")).thenReturn(Mono.just(booking));
+        when(bookingRepository.cancel(eq("PNR-C"), anyList())).thenReturn(Mono.just(booking));
+
+        StepVerifier.create(bookingService.cancelBooking("PNR-C"))
+                .expectNext("Booking cancelled successfully")
+                .verifyComplete();
+
+        verify(bookingRepository).cancel(eq("PNR-C"), argThat(outbox -> outbox.size() == 2
+                && outbox.get(0).getType() == OutboxType.RELEASE_SEATS
+                && outbox.get(0).getSeatNumbers().equals(List.of("1A", "1B"))
+                && outbox.get(1).getType() == OutboxType.BOOKING_CANCELLED));
+        verifyNoInteractions(flightClient);
+    }
+
+    @Test
+    void cancelBooking_throws_when_cancelledConcurrently() {
+        Booking booking = new Booking();
+        booking.setPnr("PNR-R");
+        booking.setStatus(BookingStatus.BOOKED);
+        booking.setBookingDateTime(LocalDateTime.now());
+        booking.setFlightId("FL1");
+
+        when(bookingRepository.findByPnr("PNR-R")).thenReturn(Mono.just(booking));
+        when(passengerRepository.findByPnr("PNR-R")).thenReturn(Flux.empty());
+        when(bookingRepository.cancel(eq("PNR-R"), anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(bookingService.cancelBooking("PNR-R"))
+                .expectError(ConflictException.class)
+                .verify();
+    }
+
+    @Test
+    void cancelBooking_throws_when_moreThan24h_old() {
+        Booking booking = new Booking();
+        booking.setPnr("PNR-OLD");
+        booking.setStatus(BookingStatus.BOOKED);
+        booking.setBookingDateTime(LocalDateTime.now().minus(25, ChronoUnit.HOURS));
+        booking.setFlightId("FL1");
+        when(bookingRepository.findByPnr("PNR-OLD")).thenReturn(Mono.just(booking));
+
+        StepVerifier.create(bookingService.cancelBooking("PNR-OLD"))
+                .expectError(BadRequestException.class)
+                .verify();
+        verify(flightClient, never()).releaseSeats(anyString(), any());
+    }
+
+    @Test
+    void cancelBooking_throws_when_alreadyCancelled() {
+        Booking booking = new Booking();
+        booking.setPnr("PNR-X");
+        booking.setStatus(BookingStatus.CANCELLED);
+        booking.setBookingDateTime(LocalDateTime.now());
+        when(bookingRepository.findByPnr("PNR-X")).thenReturn(Mono.just(booking));
+
+        StepVerifier.create(bookingService.cancelBooking("PNR-X"))
+                .expectError(ConflictException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,76 @@
+package com.bookingservice;
+
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.config.SeatMapSeeder;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SeatMapSeederTest {
+
+    @Mock
+    private FlightClient flightClient;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PassengerRepository passengerRepository;
+
+    private SeatMapSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new SeatMapSeeder(flightClient, bookingRepository, passengerRepository);
+    }
+
+    private static Passenger passenger(String seatNo) {
+        Passenger p = new Passenger();
+        p.setSeatNo(seatNo);
+        return p;
+    }
+
+    private static Booking booking(String pnr, Passenger... passengers) {
+        Booking b = new Booking();
+        b.setPnr(pnr);
+        b.setPassengers(List.of(passengers));
+        return b;
+    }
+
+    @Test
+    void seed_marksSeatsOfEmbeddedAndUnmigratedPassengers() {
+        when(flightClient.getSeatMapPendingFlights()).thenReturn(List.of("FL1"));
+        when(bookingRepository.findLiveSeatsByFlightId("FL1"))
+                .thenReturn(List.of(booking("PNR-1", passenger("1A"), passenger(null)), booking("PNR-2")));
+        when(passengerRepository.findByPnrIn(Set.of("PNR-2"))).thenReturn(List.of(passenger("2C")));
+
+        seeder.seed();
+
+        verify(flightClient).markBookedSeats("FL1", List.of("1A", "2C"));
+    }
+
+    @Test
+    void seed_carriesOn_whenOneFlightFails() {
+        when(flightClient.getSeatMapPendingFlights()).thenReturn(List.of("FL1", "FL2"));
+        when(bookingRepository.findLiveSeatsByFlightId("FL1")).thenReturn(List.of(booking("PNR-1", passenger("1A"))));
+        when(bookingRepository.findLiveSeatsByFlightId("FL2")).thenReturn(List.of());
+        doThrow(new RuntimeException("flight-service down")).when(flightClient).markBookedSeats("FL1", List.of("1A"));
+
+        seeder.seed();
+
+        verify(flightClient).markBookedSeats("FL2", List.of());
+    }
+}
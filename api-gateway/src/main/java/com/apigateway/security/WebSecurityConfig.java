@@ -50,7 +50,11 @@ public class WebSecurityConfig {
 
                 
                 // Search flights public
-                .requestMatchers(HttpMethod.POST, "/flights/search").permitAll()
+                .requestMatchers(HttpMethod.POST,
+                    "/flights/search",
+                    "/flights/search/page",
+                    "/flights/search/stream"
+                ).permitAll()
                 
              //  dropdown APIs
                 .requestMatchers(HttpMethod.GET,
@@ -58,8 +62,20 @@ public class WebSecurityConfig {
                     "/flights/destinations"
                 ).permitAll()
 
+                // seat lifecycle and batch lookup, called by booking-service directly, never through here
+                .requestMatchers(HttpMethod.POST,
+                    "/flights/batch",
+                    "/flights/*/reserve",
+                    "/flights/*/release",
+                    "/flights/*/confirm",
+                    "/flights/*/seat-map"
+                ).denyAll()
+                .requestMatchers(HttpMethod.GET, "/flights/seat-maps/pending").denyAll()
+
                 // ADMIN only
-                .requestMatchers(HttpMethod.POST, "/flights")
+                .requestMatchers(HttpMethod.POST, "/flights", "/flights/bulk")
+                    .hasAuthority("ROLE_ADMIN")
+                .requestMatchers("/notifications/**")
                     .hasAuthority("ROLE_ADMIN")
 
                 // Flight APIs
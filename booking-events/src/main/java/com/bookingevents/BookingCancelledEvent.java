@@ -1,4 +1,4 @@
-package com.bookingservice.events;
+package com.bookingevents;
 
 import java.time.LocalDateTime;
 
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class BookingCancelledEvent {
+public class BookingCancelledEvent implements BookingEvent {
 
     private String pnr;
     private String bookerEmailId;
@@ -18,4 +18,7 @@ public class BookingCancelledEvent {
     private String airlineName;
 
     private LocalDateTime cancelledAt;
+
+    // language tag of the booker's locale, e.g. "fr-FR"; emails use the default locale when absent
+    private String locale;
 }
@@ -1,4 +1,4 @@
-package com.notificationservice.events;
+package com.bookingevents;
 
 import java.time.LocalDateTime;
 
@@ -6,12 +6,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class BookingCreatedEvent {
+public class BookingCreatedEvent implements BookingEvent {
 
     private String pnr;
     private String bookerEmailId;
@@ -23,4 +21,7 @@ public class BookingCreatedEvent {
     private Double totalAmount;
 
     private LocalDateTime bookingDateTime;
+
+    // language tag of the booker's locale, e.g. "fr-FR"; emails use the default locale when absent
+    private String locale;
 }
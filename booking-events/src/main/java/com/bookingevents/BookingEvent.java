@@ -0,0 +1,7 @@
+package com.bookingevents;
+
+// an event published about a booking; records are keyed by its PNR
+public interface BookingEvent {
+
+    String getPnr();
+}
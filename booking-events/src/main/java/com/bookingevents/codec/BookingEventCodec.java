@@ -0,0 +1,369 @@
+package com.bookingevents.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import com.bookingevents.BookingCancelledEvent;
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.BookingEvent;
+
+/**
+ * The binary form of booking events on Kafka. A payload is a marker byte, the format version
+ * and the event type, followed by the event's fields, each tagged with its field number and
+ * wire type and omitted when null. Readers skip fields they do not know and leave fields that
+ * are absent null, so fields can be added (under a new number) or dropped without breaking
+ * producers or consumers on either side of a deployment. A field number is never reused for
+ * another meaning; a change the tags cannot express bumps {@link #FORMAT_VERSION}, which
+ * older readers reject.
+ */
+public final class BookingEventCodec {
+
+    static final byte MARKER = (byte) 0xBE;
+    static final byte FORMAT_VERSION = 1;
+
+    static final byte BOOKING_CREATED = 1;
+    static final byte BOOKING_CANCELLED = 2;
+
+    // wire types
+    static final int VARINT = 0;
+    static final int FIXED64 = 1;
+    static final int LENGTH_DELIMITED = 2;
+    // seconds since the epoch (zigzag varint) and nanos (varint), read as UTC
+    static final int TIMESTAMP = 3;
+
+    // BookingCreatedEvent fields
+    private static final int CREATED_PNR = 1;
+    private static final int CREATED_BOOKER_EMAIL = 2;
+    private static final int CREATED_FLIGHT_ID = 3;
+    private static final int CREATED_AIRLINE = 4;
+    private static final int CREATED_SEATS = 5;
+    private static final int CREATED_TOTAL_AMOUNT = 6;
+    private static final int CREATED_BOOKED_AT = 7;
+    private static final int CREATED_LOCALE = 8;
+
+    // BookingCancelledEvent fields
+    private static final int CANCELLED_PNR = 1;
+    private static final int CANCELLED_BOOKER_EMAIL = 2;
+    private static final int CANCELLED_FLIGHT_ID = 3;
+    private static final int CANCELLED_AIRLINE = 4;
+    private static final int CANCELLED_AT = 5;
+    private static final int CANCELLED_LOCALE = 6;
+
+    private BookingEventCodec() {
+    }
+
+    public static byte[] encode(BookingEvent event) {
+        if (event instanceof BookingCreatedEvent created) {
+            Writer out = new Writer(BOOKING_CREATED);
+            out.string(CREATED_PNR, created.getPnr());
+            out.string(CREATED_BOOKER_EMAIL, created.getBookerEmailId());
+            out.string(CREATED_FLIGHT_ID, created.getFlightId());
+            out.string(CREATED_AIRLINE, created.getAirlineName());
+            out.int64(CREATED_SEATS, created.getSeatsBooked());
+            out.float64(CREATED_TOTAL_AMOUNT, created.getTotalAmount());
+            out.timestamp(CREATED_BOOKED_AT, created.getBookingDateTime());
+            out.string(CREATED_LOCALE, created.getLocale());
+            return out.toByteArray();
+        }
+        if (event instanceof BookingCancelledEvent cancelled) {
+            Writer out = new Writer(BOOKING_CANCELLED);
+            out.string(CANCELLED_PNR, cancelled.getPnr());
+            out.string(CANCELLED_BOOKER_EMAIL, cancelled.getBookerEmailId());
+            out.string(CANCELLED_FLIGHT_ID, cancelled.getFlightId());
+            out.string(CANCELLED_AIRLINE, cancelled.getAirlineName());
+            out.timestamp(CANCELLED_AT, cancelled.getCancelledAt());
+            out.string(CANCELLED_LOCALE, cancelled.getLocale());
+            return out.toByteArray();
+        }
+        throw new IllegalArgumentException("No binary form for " + (event == null ? null : event.getClass().getName()));
+    }
+
+    /**
+     * Reads an event written by {@link #encode}.
+     *
+     * @throws IllegalArgumentException if the payload is not a booking event this version can read
+     */
+    public static BookingEvent decode(byte[] payload) {
+        Reader in = new Reader(payload);
+        return switch (in.eventType) {
+            case BOOKING_CREATED -> bookingCreated(in);
+            case BOOKING_CANCELLED -> bookingCancelled(in);
+            default -> throw new IllegalArgumentException("Unknown booking event type " + in.eventType);
+        };
+    }
+
+    /**
+     * Reads an event written by {@link #encode} that must be of the given type.
+     *
+     * @throws IllegalArgumentException if the payload is not such an event
+     */
+    public static <T extends BookingEvent> T decode(byte[] payload, Class<T> type) {
+        BookingEvent event = decode(payload);
+        if (!type.isInstance(event)) {
+            throw new IllegalArgumentException("Expected " + type.getSimpleName() + " but got "
+                    + event.getClass().getSimpleName());
+        }
+        return type.cast(event);
+    }
+
+    private static BookingCreatedEvent bookingCreated(Reader in) {
+        BookingCreatedEvent event = new BookingCreatedEvent();
+        while (in.hasMore()) {
+            int key = in.key();
+            switch (key >>> 3) {
+                case CREATED_PNR -> event.setPnr(in.string(key));
+                case CREATED_BOOKER_EMAIL -> event.setBookerEmailId(in.string(key));
+                case CREATED_FLIGHT_ID -> event.setFlightId(in.string(key));
+                case CREATED_AIRLINE -> event.setAirlineName(in.string(key));
+                case CREATED_SEATS -> event.setSeatsBooked(in.int32(key));
+                case CREATED_TOTAL_AMOUNT -> event.setTotalAmount(in.float64(key));
+                case CREATED_BOOKED_AT -> event.setBookingDateTime(in.timestamp(key));
+                case CREATED_LOCALE -> event.setLocale(in.string(key));
+                default -> in.skip(key);
+            }
+        }
+        return event;
+    }
+
+    private static BookingCancelledEvent bookingCancelled(Reader in) {
+        BookingCancelledEvent event = new BookingCancelledEvent();
+        while (in.hasMore()) {
+            int key = in.key();
+            switch (key >>> 3) {
+                case CANCELLED_PNR -> event.setPnr(in.string(key));
+                case CANCELLED_BOOKER_EMAIL -> event.setBookerEmailId(in.string(key));
+                case CANCELLED_FLIGHT_ID -> event.setFlightId(in.string(key));
+                case CANCELLED_AIRLINE -> event.setAirlineName(in.string(key));
+                case CANCELLED_AT -> event.setCancelledAt(in.timestamp(key));
+                case CANCELLED_LOCALE -> event.setLocale(in.string(key));
+                default -> in.skip(key);
+            }
+        }
+        return event;
+    }
+
+    static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int size;
+
+        Writer(byte eventType) {
+            buffer[size++] = MARKER;
+            buffer[size++] = FORMAT_VERSION;
+            buffer[size++] = eventType;
+        }
+
+        void string(int field, String value) {
+            if (value == null) {
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            key(field, LENGTH_DELIMITED);
+            varint(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buffer, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void int64(int field, long value) {
+            if (value == 0) {
+                return;
+            }
+            key(field, VARINT);
+            varint(zigzag(value));
+        }
+
+        void float64(int field, Double value) {
+            if (value == null) {
+                return;
+            }
+            key(field, FIXED64);
+            long bits = Double.doubleToLongBits(value);
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buffer[size++] = (byte) (bits >>> (8 * i));
+            }
+        }
+
+        void timestamp(int field, LocalDateTime value) {
+            if (value == null) {
+                return;
+            }
+            key(field, TIMESTAMP);
+            varint(zigzag(value.toEpochSecond(ZoneOffset.UTC)));
+            varint(value.getNano());
+        }
+
+        void key(int field, int wireType) {
+            varint((long) field << 3 | wireType);
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    static final class Reader {
+
+        private final byte[] payload;
+        private final byte eventType;
+        private int position;
+
+        Reader(byte[] payload) {
+            if (payload == null || payload.length < 3) {
+                throw new IllegalArgumentException("Not a booking event: "
+                        + (payload == null ? "no payload" : payload.length + " bytes"));
+            }
+            if (payload[0] != MARKER) {
+                throw new IllegalArgumentException("Not a booking event: unexpected first byte 0x"
+                        + Integer.toHexString(payload[0] & 0xFF));
+            }
+            if (payload[1] < 1 || payload[1] > FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported booking event format version " + payload[1]);
+            }
+            this.payload = payload;
+            this.eventType = payload[2];
+            this.position = 3;
+        }
+
+        boolean hasMore() {
+            return position < payload.length;
+        }
+
+        int key() {
+            long key = varint();
+            if (key >>> 3 > Integer.MAX_VALUE >>> 3) {
+                throw malformed("field number out of range");
+            }
+            return (int) key;
+        }
+
+        String string(int key) {
+            expect(key, LENGTH_DELIMITED);
+            int length = length();
+            String value = new String(payload, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        long int64(int key) {
+            expect(key, VARINT);
+            return unzigzag(varint());
+        }
+
+        int int32(int key) {
+            long value = int64(key);
+            if (value != (int) value) {
+                throw malformed("field " + (key >>> 3) + " out of int range");
+            }
+            return (int) value;
+        }
+
+        double float64(int key) {
+            expect(key, FIXED64);
+            require(8);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits |= (payload[position++] & 0xFFL) << (8 * i);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        LocalDateTime timestamp(int key) {
+            expect(key, TIMESTAMP);
+            long seconds = unzigzag(varint());
+            long nanos = varint();
+            if (nanos < 0 || nanos > 999_999_999) {
+                throw malformed("nanos out of range");
+            }
+            try {
+                return LocalDateTime.ofEpochSecond(seconds, (int) nanos, ZoneOffset.UTC);
+            } catch (DateTimeException ex) {
+                throw malformed("timestamp out of range");
+            }
+        }
+
+        // a field added after this reader was written
+        void skip(int key) {
+            switch (key & 0x7) {
+                case VARINT -> varint();
+                case FIXED64 -> {
+                    require(8);
+                    position += 8;
+                }
+                case LENGTH_DELIMITED -> {
+                    int length = length();
+                    position += length;
+                }
+                case TIMESTAMP -> {
+                    varint();
+                    varint();
+                }
+                default -> throw malformed("unknown wire type " + (key & 0x7) + " for field " + (key >>> 3));
+            }
+        }
+
+        private long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                require(1);
+                byte b = payload[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw malformed("varint longer than 10 bytes");
+        }
+
+        private int length() {
+            long length = varint();
+            if (length < 0 || length > payload.length - position) {
+                throw malformed("length " + length + " runs past the end");
+            }
+            return (int) length;
+        }
+
+        private void expect(int key, int wireType) {
+            if ((key & 0x7) != wireType) {
+                throw malformed("field " + (key >>> 3) + " has wire type " + (key & 0x7) + ", expected " + wireType);
+            }
+        }
+
+        private void require(int bytes) {
+            if (payload.length - position < bytes) {
+                throw malformed("truncated");
+            }
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException("Malformed booking event at byte " + position + ": " + reason);
+        }
+    }
+}
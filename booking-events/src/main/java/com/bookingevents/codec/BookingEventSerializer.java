@@ -0,0 +1,22 @@
+package com.bookingevents.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.bookingevents.BookingEvent;
+
+// writes booking events in the binary form of BookingEventCodec
+public class BookingEventSerializer implements Serializer<BookingEvent> {
+
+    @Override
+    public byte[] serialize(String topic, BookingEvent event) {
+        if (event == null) {
+            return null;
+        }
+        try {
+            return BookingEventCodec.encode(event);
+        } catch (IllegalArgumentException ex) {
+            throw new SerializationException("Cannot write event to " + topic + ": " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bookingevents.id;
+
+/**
+ * Source of unique, roughly time-ordered identifiers for human-facing references
+ * (flight numbers, PNRs, reservation references). Implementations must not need a database
+ * round trip per id and must stay unique across instances.
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns the next id as an upper-case base-36 string.
+     */
+    String nextId();
+}
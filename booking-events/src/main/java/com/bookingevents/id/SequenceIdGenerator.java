@@ -0,0 +1,80 @@
+package com.bookingevents.id;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered 63-bit ids laid out as {@code millis since 2024 (41 bits) | sequence (12 bits) |
+ * node (10 bits)} and rendered in base 36. More than 4096 ids in a millisecond borrow from the
+ * next one, and a clock stepping back is ignored until it catches up. Each instance needs its own
+ * node id (0-1023), see {@link #nodeId(int, boolean)}.
+ */
+public class SequenceIdGenerator implements IdGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeId;
+    private final Clock clock;
+
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SequenceIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("id-generator.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        return Long.toString(nextLong(), 36).toUpperCase(Locale.ROOT);
+    }
+
+    long nextLong() {
+        long now = (clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = Math.max(prev + 1, now);
+        } while (!last.compareAndSet(prev, next));
+        return (next << NODE_BITS) | nodeId;
+    }
+
+    /**
+     * The node id configured as {@code id-generator.node-id}, negative if unset. Only in
+     * development is an unset id derived from the host name and process id, which two instances
+     * may share.
+     *
+     * @throws IllegalStateException if the id is unset outside development
+     */
+    public static int nodeId(int configured, boolean development) {
+        if (configured >= 0) {
+            return configured;
+        }
+        if (!development) {
+            throw new IllegalStateException("id-generator.node-id is not set; give each instance its own id between 0 and "
+                    + MAX_NODE_ID);
+        }
+        return hostNodeId();
+    }
+
+    private static int hostNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            host = "localhost";
+        }
+        return Math.floorMod((host + ":" + ProcessHandle.current().pid()).hashCode(), MAX_NODE_ID + 1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bookingevents;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookingevents.codec.BookingEventCodec;
+
+class BookingEventCodecTest {
+
+    private static final BookingCreatedEvent CREATED = new BookingCreatedEvent("PNR-123456", "user@test.com",
+            "FL1", "TestAir", 2, 5000.0, LocalDateTime.of(2026, 1, 1, 10, 0, 0, 123_456_789), "fr-FR");
+
+    @Test
+    void bookingCreated_roundTrips() {
+        assertEquals(CREATED, BookingEventCodec.decode(BookingEventCodec.encode(CREATED)));
+    }
+
+    @Test
+    void bookingCancelled_roundTrips() {
+        BookingCancelledEvent cancelled = new BookingCancelledEvent("PNR-123456", "user@test.com", "FL1", "TestAir",
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59), null);
+
+        assertEquals(cancelled, BookingEventCodec.decode(BookingEventCodec.encode(cancelled), BookingCancelledEvent.class));
+    }
+
+    @Test
+    void absentFields_decodeAsUnset() {
+        BookingCreatedEvent sparse = new BookingCreatedEvent();
+        sparse.setPnr("PNR-1");
+
+        byte[] payload = BookingEventCodec.encode(sparse);
+
+        assertEquals(sparse, BookingEventCodec.decode(payload));
+        // marker, version, type, then the pnr alone
+        assertEquals(3 + 2 + "PNR-1".length(), payload.length);
+    }
+
+    @Test
+    void isSmallerThanJson() {
+        String json = """
+                {"pnr":"PNR-123456","bookerEmailId":"user@test.com","flightId":"FL1","airlineName":"TestAir",\
+                "seatsBooked":2,"totalAmount":5000.0,"bookingDateTime":"2026-01-01T10:00:00.123456789","locale":"fr-FR"}""";
+
+        assertTrue(BookingEventCodec.encode(CREATED).length < json.getBytes(StandardCharsets.UTF_8).length / 2);
+    }
+
+    @Test
+    void fieldsAddedByNewerWriters_areSkipped() {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payload.writeBytes(BookingEventCodec.encode(CREATED));
+        // field 20, a string
+        payload.writeBytes(new byte[] {(byte) 0xA2, 0x01, 3, 'a', 'b', 'c'});
+        // field 21, a number
+        payload.writeBytes(new byte[] {(byte) 0xA8, 0x01, (byte) 0x96, 0x01});
+        // field 22, a double
+        payload.writeBytes(new byte[] {(byte) 0xB1, 0x01, 0, 0, 0, 0, 0, 0, (byte) 0xF0, 0x3F});
+        // field 23, a timestamp
+        payload.writeBytes(new byte[] {(byte) 0xBB, 0x01, 0x02, 0x00});
+
+        assertEquals(CREATED, BookingEventCodec.decode(payload.toByteArray()));
+    }
+
+    @Test
+    void decode_rejectsOtherPayloads() {
+        byte[] valid = BookingEventCodec.encode(CREATED);
+
+        assertThrows(IllegalArgumentException.class, () -> BookingEventCodec.decode(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingEventCodec.decode("{\"pnr\":\"PNR-1\"}".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingEventCodec.decode(Arrays.copyOf(valid, valid.length - 1)));
+
+        byte[] newerFormat = valid.clone();
+        newerFormat[1] = 2;
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> BookingEventCodec.decode(newerFormat));
+        assertTrue(ex.getMessage().contains("format version 2"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BookingEventCodec.decode(valid, BookingCancelledEvent.class));
+    }
+}
@@ -0,0 +1,108 @@
+package com.bookingevents;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookingevents.id.SequenceIdGenerator;
+
+class SequenceIdGeneratorTest {
+
+    private static Clock fixedClock(AtomicLong millis) {
+        return new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        };
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        SequenceIdGenerator generator = new SequenceIdGenerator(7, Clock.systemUTC());
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(16 * 20_000, ids.size());
+    }
+
+    @Test
+    void idsKeepIncreasingWhenTheClockStallsOrStepsBack() {
+        AtomicLong millis = new AtomicLong(Instant.parse("2030-01-01T00:00:00Z").toEpochMilli());
+        SequenceIdGenerator generator = new SequenceIdGenerator(3, fixedClock(millis));
+
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                millis.addAndGet(-60_000);
+            }
+            long id = Long.parseLong(generator.nextId(), 36);
+            assertTrue(id > previous, "id " + i + " went backwards");
+            previous = id;
+        }
+    }
+
+    @Test
+    void nodesNeverCollideInTheSameMillisecond() {
+        AtomicLong millis = new AtomicLong(Instant.parse("2030-01-01T00:00:00Z").toEpochMilli());
+        SequenceIdGenerator a = new SequenceIdGenerator(1, fixedClock(millis));
+        SequenceIdGenerator b = new SequenceIdGenerator(2, fixedClock(millis));
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(ids.add(a.nextId()));
+            assertTrue(ids.add(b.nextId()));
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SequenceIdGenerator(1024, Clock.systemUTC()));
+    }
+
+    @Test
+    void nodeIdIsRequiredOutsideDevelopment() {
+        assertEquals(5, SequenceIdGenerator.nodeId(5, false));
+        assertThrows(IllegalStateException.class, () -> SequenceIdGenerator.nodeId(-1, false));
+        int derived = SequenceIdGenerator.nodeId(-1, true);
+        assertTrue(derived >= 0 && derived <= 1023);
+    }
+}
@@ -0,0 +1,148 @@
+package com.flightservice.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Airline;
+import com.flightservice.repository.AirlineRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-process, case-insensitive view of the airline collection (id to name and name to id).
+ * Airlines are loaded once at startup and added as they are created; a lookup that misses
+ * falls through to Mongo and caches the result, so airlines created by another instance
+ * are picked up on first use. Hit and miss counts are published as
+ * {@code airline.directory.lookups}.
+ */
+@Component
+public class AirlineDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(AirlineDirectory.class);
+
+    private final AirlineRepository airlineRepository;
+
+    private final ConcurrentMap<String, String> namesById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> idsByName = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public AirlineDirectory(AirlineRepository airlineRepository, MeterRegistry meterRegistry) {
+        this.airlineRepository = airlineRepository;
+        this.hits = Counter.builder("airline.directory.lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("airline.directory.lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("airline.directory.size", namesById, Map::size)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            airlineRepository.findAll().forEach(this::register);
+            log.info("Airline directory loaded with {} airlines", namesById.size());
+        } catch (DataAccessException ex) {
+            log.warn("Airline directory not preloaded, lookups will fill it lazily: {}", ex.getMessage());
+        }
+    }
+
+    public Optional<Airline> findByName(String airlineName) {
+        if (airlineName == null) {
+            return Optional.empty();
+        }
+        String id = idsByName.get(normalize(airlineName));
+        if (id != null) {
+            hits.increment();
+            return Optional.of(airline(id, namesById.get(id)));
+        }
+        misses.increment();
+        return airlineRepository.findByAirlineNameIgnoreCase(airlineName).map(this::register);
+    }
+
+    public String nameOf(String airlineId) {
+        String name = namesById.get(airlineId);
+        if (name != null) {
+            hits.increment();
+            return name;
+        }
+        misses.increment();
+        return airlineRepository.findById(airlineId)
+                .map(this::register)
+                .map(Airline::getAirlineName)
+                .orElse("Unknown");
+    }
+
+    /**
+     * Resolves several airline ids at once; ids not in the directory are fetched with a single findAllById.
+     */
+    public Map<String, String> namesOf(Collection<String> airlineIds) {
+        Map<String, String> names = new HashMap<>();
+        Set<String> unresolved = new HashSet<>();
+        for (String id : airlineIds) {
+            String name = namesById.get(id);
+            if (name != null) {
+                names.put(id, name);
+            } else {
+                unresolved.add(id);
+            }
+        }
+        hits.increment(names.size());
+
+        if (!unresolved.isEmpty()) {
+            misses.increment(unresolved.size());
+            for (Airline a : airlineRepository.findAllById(unresolved)) {
+                register(a);
+                names.put(a.getAirlineId(), a.getAirlineName());
+            }
+        }
+        return names;
+    }
+
+    public Airline getOrCreate(String airlineName) {
+        return findByName(airlineName).orElseGet(() -> {
+            Airline a = new Airline();
+            a.setAirlineName(airlineName);
+            return register(airlineRepository.save(a));
+        });
+    }
+
+    private Airline register(Airline airline) {
+        if (airline.getAirlineId() == null || airline.getAirlineName() == null) {
+            return airline;
+        }
+        namesById.put(airline.getAirlineId(), airline.getAirlineName());
+        idsByName.putIfAbsent(normalize(airline.getAirlineName()), airline.getAirlineId());
+        return airline;
+    }
+
+    private static Airline airline(String id, String name) {
+        Airline a = new Airline();
+        a.setAirlineId(id);
+        a.setAirlineName(name);
+        return a;
+    }
+
+    private static String normalize(String airlineName) {
+        return airlineName.toLowerCase(Locale.ROOT);
+    }
+}
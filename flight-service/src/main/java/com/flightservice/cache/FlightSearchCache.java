@@ -0,0 +1,217 @@
+package com.flightservice.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.dto.response.FlightResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, short-lived cache of route searches keyed by (source, destination, departure date).
+ * Entries are dropped when {@code addFlights} schedules a flight on the same route and day, and
+ * when seats are reserved or released on any flight an entry contains; the TTL
+ * ({@code flight.search-cache.ttl}) bounds how stale availability can get for changes made
+ * through other instances. Least recently used entries are evicted beyond
+ * {@code flight.search-cache.max-entries}. Lookups are published as
+ * {@code flight.search.cache.requests} and evictions as {@code flight.search.cache.evictions}.
+ */
+@Component
+public class FlightSearchCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<RouteKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, RouteKey> routesByFlightId = new HashMap<>();
+    // bumped by every invalidation; a load that overlapped one is not cached
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    @Autowired
+    public FlightSearchCache(@Value("${flight.search-cache.max-entries:1000}") int maxEntries,
+                             @Value("${flight.search-cache.ttl:PT10S}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this(maxEntries, ttl, meterRegistry, System::nanoTime);
+    }
+
+    FlightSearchCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.hits = Counter.builder("flight.search.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("flight.search.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.sizeEvictions = eviction(meterRegistry, "size");
+        this.expiredEvictions = eviction(meterRegistry, "expired");
+        this.invalidations = eviction(meterRegistry, "invalidated");
+        Gauge.builder("flight.search.cache.size", this, FlightSearchCache::size)
+                .register(meterRegistry);
+        Gauge.builder("flight.search.cache.hit.ratio", this, FlightSearchCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached results for the route and day, or loads, caches and returns them.
+     * The loader runs outside the lock, so concurrent misses on one key may each query Mongo.
+     */
+    public List<FlightResponse> get(String sourceKey, String destinationKey, LocalDate date,
+                                    Supplier<List<FlightResponse>> loader) {
+        if (maxEntries <= 0 || ttlNanos <= 0) {
+            return loader.get();
+        }
+        RouteKey key = new RouteKey(sourceKey, destinationKey, date);
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - clock.getAsLong() > 0) {
+                    hits.increment();
+                    return entry.results;
+                }
+                remove(key, entry);
+                expiredEvictions.increment();
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        List<FlightResponse> results = List.copyOf(loader.get());
+
+        lock.lock();
+        try {
+            if (generation == loadGeneration) {
+                put(key, new Entry(results, clock.getAsLong() + ttlNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Drops the entry for a route and day, e.g. after a flight was scheduled on it.
+     */
+    public void invalidateRoute(String sourceKey, String destinationKey, LocalDate date) {
+        RouteKey key = new RouteKey(sourceKey, destinationKey, date);
+        lock.lock();
+        try {
+            generation++;
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                remove(key, entry);
+                invalidations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the entry holding this flight, if any, after its seat availability changed.
+     */
+    public void invalidateFlight(String flightId) {
+        lock.lock();
+        try {
+            generation++;
+            RouteKey key = routesByFlightId.get(flightId);
+            if (key == null) {
+                return;
+            }
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                remove(key, entry);
+                invalidations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private void put(RouteKey key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        for (FlightResponse f : entry.results) {
+            if (f.getFlightId() != null) {
+                routesByFlightId.put(f.getFlightId(), key);
+            }
+        }
+
+        Iterator<Map.Entry<RouteKey, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            Map.Entry<RouteKey, Entry> e = eldest.next();
+            eldest.remove();
+            unindex(e.getKey(), e.getValue());
+            sizeEvictions.increment();
+        }
+    }
+
+    private void remove(RouteKey key, Entry entry) {
+        entries.remove(key);
+        unindex(key, entry);
+    }
+
+    private void unindex(RouteKey key, Entry entry) {
+        for (FlightResponse f : entry.results) {
+            if (f.getFlightId() != null) {
+                routesByFlightId.remove(f.getFlightId(), key);
+            }
+        }
+    }
+
+    private static Counter eviction(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("flight.search.cache.evictions")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    private record RouteKey(String sourceKey, String destinationKey, LocalDate date) {
+    }
+
+    private record Entry(List<FlightResponse> results, long expiresAt) {
+    }
+}
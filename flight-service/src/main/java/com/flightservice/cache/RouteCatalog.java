@@ -0,0 +1,125 @@
+package com.flightservice.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Sorted, de-duplicated sources and destinations for the dropdown endpoints, served from an
+ * immutable in-memory snapshot. The snapshot is built from a distinct query at startup,
+ * extended in place when {@code addFlights} introduces a new place, and rebuilt periodically
+ * to pick up flights added through other instances.
+ */
+@Component
+public class RouteCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteCatalog.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = Snapshot.of(new TreeSet<>(), new TreeSet<>());
+
+    public RouteCatalog(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${flight.route-catalog.refresh-interval:PT5M}",
+            fixedDelayString = "${flight.route-catalog.refresh-interval:PT5M}")
+    public void refresh() {
+        try {
+            TreeSet<String> sources = distinct("source");
+            TreeSet<String> destinations = distinct("destination");
+            writeLock.lock();
+            try {
+                snapshot = Snapshot.of(sources, destinations);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Route catalog refresh failed, keeping previous snapshot: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Adds a newly scheduled route; a no-op unless the source or destination is new.
+     */
+    public void register(String source, String destination) {
+        Snapshot current = snapshot;
+        if (current.contains(source, destination)) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            TreeSet<String> sources = new TreeSet<>(snapshot.sources());
+            TreeSet<String> destinations = new TreeSet<>(snapshot.destinations());
+            if (source != null) {
+                sources.add(source);
+            }
+            if (destination != null) {
+                destinations.add(destination);
+            }
+            snapshot = Snapshot.of(sources, destinations);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<String> sources() {
+        return snapshot.sources();
+    }
+
+    public List<String> destinations() {
+        return snapshot.destinations();
+    }
+
+    /**
+     * Content hash of the current snapshot, usable as an ETag.
+     */
+    public String version() {
+        return snapshot.version();
+    }
+
+    private TreeSet<String> distinct(String field) {
+        TreeSet<String> values = new TreeSet<>();
+        for (String value : mongoTemplate.findDistinct(new Query(), field, Flight.class, String.class)) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private record Snapshot(List<String> sources, List<String> destinations, String version) {
+
+        static Snapshot of(TreeSet<String> sources, TreeSet<String> destinations) {
+            List<String> s = List.copyOf(sources);
+            List<String> d = List.copyOf(destinations);
+            return new Snapshot(s, d, Integer.toHexString(Objects.hash(s, d)));
+        }
+
+        boolean contains(String source, String destination) {
+            return (source == null || Collections.binarySearch(sources, source) >= 0)
+                    && (destination == null || Collections.binarySearch(destinations, destination) >= 0);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.flightservice.config;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Flight;
+import com.flightservice.model.SeatReservation;
+import com.mongodb.MongoException;
+
+/**
+ * Backfills route search keys and creates the flight indexes at startup, failing it if route
+ * search would still scan the collection.
+ */
+@Component
+@Order(1)
+public class FlightIndexInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean verifyQueryPlan;
+
+    public FlightIndexInitializer(MongoTemplate mongoTemplate,
+                                  @Value("${flight.search.verify-query-plan:true}") boolean verifyQueryPlan) {
+        this.mongoTemplate = mongoTemplate;
+        this.verifyQueryPlan = verifyQueryPlan;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            backfillSearchKeys();
+            createIndexes();
+        } catch (DataAccessException | MongoException ex) {
+            // the plan check below decides whether this matters
+            log.warn("Flight index initialization failed: {}", ex.getMessage());
+        }
+        if (!verifyQueryPlan) {
+            return;
+        }
+
+        Document winningPlan;
+        try {
+            winningPlan = explainRouteSearch();
+        } catch (DataAccessException | MongoException ex) {
+            throw new IllegalStateException("Could not verify the flight route search plan", ex);
+        }
+        if (usesStage(winningPlan, "COLLSCAN")) {
+            throw new IllegalStateException("Flight route search is not using an index, winning plan: "
+                    + winningPlan.toJson());
+        }
+    }
+
+    private void backfillSearchKeys() {
+        long updated = mongoTemplate.updateMulti(
+                query(where("sourceKey").exists(false)),
+                AggregationUpdate.update()
+                        .set("sourceKey").toValue(searchKey("source"))
+                        .set("destinationKey").toValue(searchKey("destination")),
+                Flight.class).getModifiedCount();
+        if (updated > 0) {
+            log.info("Filled route search keys for {} existing flights", updated);
+        }
+    }
+
+    // same normalization as Flight.searchKey
+    private static AggregationExpression searchKey(String field) {
+        return StringOperators.valueOf(StringOperators.valueOf(field).trim()).toUpper();
+    }
+
+    private void createIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Flight.class);
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (IndexDefinition index : resolver.resolveIndexFor(Flight.class)) {
+            indexOps.createIndex(index);
+        }
+        // expiry of released per-booking-reference reservation records; the former index expired every record
+        IndexOperations seatReservationIndexOps = mongoTemplate.indexOps(SeatReservation.class);
+        if (seatReservationIndexOps.getIndexInfo().stream()
+                .anyMatch(index -> "seat_reservation_expiry".equals(index.getName()))) {
+            seatReservationIndexOps.dropIndex("seat_reservation_expiry");
+        }
+        for (IndexDefinition index : resolver.resolveIndexFor(SeatReservation.class)) {
+            seatReservationIndexOps.createIndex(index);
+        }
+    }
+
+    private Document explainRouteSearch() {
+        // same shape as findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween
+        Date now = new Date();
+        Document filter = new Document("sourceKey", "PLAN-CHECK")
+                .append("destinationKey", "PLAN-CHECK")
+                .append("departureDateTime", new Document("$gt", now).append("$lt", now));
+        Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Flight.class))
+                .find(filter)
+                .explain();
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        return queryPlanner == null ? new Document() : queryPlanner.get("winningPlan", Document.class);
+    }
+
+    private static boolean usesStage(Object plan, String stage) {
+        if (plan instanceof Document doc) {
+            if (stage.equals(doc.getString("stage"))) {
+                return true;
+            }
+            return doc.values().stream().anyMatch(v -> usesStage(v, stage));
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(v -> usesStage(v, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.flightservice.config;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.bookingevents.id.IdGenerator;
+import com.bookingevents.id.SequenceIdGenerator;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    // startup fails when id-generator.node-id is unset, except under the dev profile
+    @Bean
+    public IdGenerator idGenerator(@Value("${id-generator.node-id:-1}") int nodeId, Environment environment) {
+        return new SequenceIdGenerator(SequenceIdGenerator.nodeId(nodeId, environment.matchesProfiles("dev")),
+                Clock.systemUTC());
+    }
+}
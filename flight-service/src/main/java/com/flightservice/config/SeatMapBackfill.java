@@ -0,0 +1,62 @@
+package com.flightservice.config;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Flight;
+import com.flightservice.model.SeatMap;
+
+/**
+ * Gives flights created before seat-level inventory an empty seat map, pending until
+ * booking-service marks the seats already booked on them.
+ */
+@Component
+public class SeatMapBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatMapBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public SeatMapBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query missing = query(where("seatMap").exists(false));
+        missing.fields().include("totalSeats");
+
+        int migrated = 0;
+        try (Stream<Flight> flights = mongoTemplate.stream(missing, Flight.class)) {
+            Iterator<Flight> it = flights.iterator();
+            while (it.hasNext()) {
+                Flight flight = it.next();
+                mongoTemplate.updateFirst(
+                        query(where("_id").is(flight.getFlightId()).and("seatMap").exists(false)),
+                        new Update().set("seatMap", SeatMap.empty(flight.getTotalSeats())).set("seatMapPending", true),
+                        Flight.class);
+                migrated++;
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Seat map backfill skipped: {}", ex.getMessage());
+            return;
+        }
+
+        if (migrated > 0) {
+            log.info("Initialized seat maps for {} existing flights", migrated);
+        }
+    }
+}
@@ -1,34 +1,60 @@
 package com.flightservice.controller;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.flightservice.dto.request.ConfirmSeatsRequest;
+import com.flightservice.dto.request.FlightImportRow;
 import com.flightservice.dto.request.FlightRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.BulkImportResponse;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
 import com.flightservice.dto.response.ReserveSeatsResponse;
 import com.flightservice.model.Flight;
 import com.flightservice.service.FlightService;
 
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import tools.jackson.databind.json.JsonMapper;
 
 @RestController
 public class FlightController {
 
+	private static final CacheControl ROUTE_CATALOG_CACHE = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+	private static final String NDJSON = "application/x-ndjson";
+
+	private static final String CSV = "text/csv";
+
 	@Autowired
 	FlightService flightService;
 	
+	@Autowired
+	JsonMapper jsonMapper;
+	
+	@Autowired
+	Validator validator;
+	
 	@PostMapping("/flights")
 	public ResponseEntity<String> addFlights(@Valid @RequestBody FlightRequest request){
 		System.out.println(">>> FlightService: addFlights CALLED");
@@ -38,18 +64,63 @@ public class FlightController {
 						.body(saved.getFlightId());
 	}
 	
+	// the upload is read row by row from the request stream and imported in batches
+	@PostMapping(value = "/flights/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<BulkImportResponse> importFlightsJson(InputStream body) {
+		Iterator<FlightImportRow> rows = FlightScheduleReader.json(jsonMapper, validator, body);
+		return ResponseEntity.ok(flightService.importFlights(rows));
+	}
+	
+	@PostMapping(value = "/flights/bulk", consumes = CSV)
+	public ResponseEntity<BulkImportResponse> importFlightsCsv(InputStream body) {
+		Iterator<FlightImportRow> rows = FlightScheduleReader.csv(jsonMapper, validator, body);
+		return ResponseEntity.ok(flightService.importFlights(rows));
+	}
+	
 	@PostMapping("/flights/search")
 	public ResponseEntity<List<FlightResponse>> searchFlights(@RequestBody FlightRequest request) {
 	    List<FlightResponse> responses = flightService.searchFlights(request);
 	    return ResponseEntity.ok(responses);
 	}
 	
+	@PostMapping("/flights/search/page")
+	public ResponseEntity<FlightSearchPage> searchFlightsPage(@RequestBody FlightRequest request,
+	                                                          @RequestParam(name = "cursor", required = false) String cursor,
+	                                                          @RequestParam(name = "limit", defaultValue = "50") int limit) {
+	    return ResponseEntity.ok(flightService.searchFlightsPage(request, cursor, limit));
+	}
+	
+	// newline-delimited JSON, written as documents are read from the Mongo cursor
+	@PostMapping(value = "/flights/search/stream", produces = NDJSON)
+	public ResponseEntity<StreamingResponseBody> streamFlights(@RequestBody FlightRequest request) {
+	    Stream<FlightResponse> flights = flightService.streamFlights(request);
+	    StreamingResponseBody body = out -> {
+	        try (flights) {
+	            Iterator<FlightResponse> it = flights.iterator();
+	            while (it.hasNext()) {
+	                out.write(jsonMapper.writeValueAsBytes(it.next()));
+	                out.write('\n');
+	            }
+	            out.flush();
+	        }
+	    };
+	    return ResponseEntity.ok()
+	            .contentType(MediaType.parseMediaType(NDJSON))
+	            .body(body);
+	}
+	
 	 @GetMapping("/flights/{id}")
 	    public ResponseEntity<FlightResponse> getFlightById(@PathVariable("id") String id) {
 	        FlightResponse response = flightService.getFlightById(id);
 	        return ResponseEntity.ok(response);
 	    }
 
+	    // multi-get for callers that would otherwise fetch flights one by one
+	    @PostMapping("/flights/batch")
+	    public ResponseEntity<Map<String, FlightResponse>> getFlightsByIds(@RequestBody Set<String> flightIds) {
+	        return ResponseEntity.ok(flightService.getFlightsByIds(flightIds));
+	    }
+
 	    @PostMapping("/flights/{id}/reserve")
 	    public ResponseEntity<ReserveSeatsResponse> reserveSeats(@PathVariable("id") String id,
 	                                                             @Valid @RequestBody ReserveSeatsRequest request) {
@@ -63,15 +134,43 @@ public class FlightController {
 	        flightService.releaseSeats(id, request);
 	        return ResponseEntity.ok().build();
 	    }
+
+	    // makes a seat hold permanent
+	    @PostMapping("/flights/{id}/confirm")
+	    public ResponseEntity<Void> confirmSeats(@PathVariable("id") String id,
+	                                             @Valid @RequestBody ConfirmSeatsRequest request) {
+	        flightService.confirmSeats(id, request);
+	        return ResponseEntity.ok().build();
+	    }
 	    
+	    // seat map seeding, called by booking-service for flights booked before seat maps existed
+	    @GetMapping("/flights/seat-maps/pending")
+	    public ResponseEntity<List<String>> getSeatMapPendingFlights() {
+	        return ResponseEntity.ok(flightService.getSeatMapPendingFlightIds());
+	    }
+
+	    @PostMapping("/flights/{id}/seat-map")
+	    public ResponseEntity<Void> markBookedSeats(@PathVariable("id") String id,
+	                                                @RequestBody List<String> seatNumbers) {
+	        flightService.markBookedSeats(id, seatNumbers);
+	        return ResponseEntity.ok().build();
+	    }
+
+	    // served from the in-memory route catalog; the ETag lets browsers revalidate with a 304
 	    @GetMapping("/flights/sources")
-	    public Map<String,List<String>> getSources(){
-	    	return flightService.getSources();
+	    public ResponseEntity<Map<String,List<String>>> getSources(){
+	    	return ResponseEntity.ok()
+	    			.eTag(flightService.getRouteCatalogVersion())
+	    			.cacheControl(ROUTE_CATALOG_CACHE)
+	    			.body(flightService.getSources());
 	    }
 	    
 	    @GetMapping("/flights/destinations")
-	    public Map<String,List<String>> getDestinations(){
-	    	return flightService.getDestinations();
+	    public ResponseEntity<Map<String,List<String>>> getDestinations(){
+	    	return ResponseEntity.ok()
+	    			.eTag(flightService.getRouteCatalogVersion())
+	    			.cacheControl(ROUTE_CATALOG_CACHE)
+	    			.body(flightService.getDestinations());
 	    }
 	    
 	    @GetMapping("/flights/{flightId}/seats/count")
@@ -79,4 +178,9 @@ public class FlightController {
 	    	int totalSeats=flightService.getTotalSeats(flightId);
 	    	return Map.of("totalSeats",totalSeats);
 	    }
+	    
+	    @GetMapping("/flights/{flightId}/seats")
+	    public Map<String,List<String>> getBookedSeats(@PathVariable String flightId){
+	    	return Map.of("bookedSeats",flightService.getBookedSeats(flightId));
+	    }
 }
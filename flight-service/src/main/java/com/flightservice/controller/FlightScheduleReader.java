@@ -0,0 +1,155 @@
+package com.flightservice.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.flightservice.dto.request.FlightImportRow;
+import com.flightservice.dto.request.FlightRequest;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads a bulk schedule upload one row at a time.
+ * JSON uploads are an array of {@link FlightRequest} objects; CSV uploads start with a header
+ * naming {@link FlightRequest} properties (e.g. {@code airlineName,source,destination,
+ * departureDateTime,arrivalDateTime,totalSeats,price}) and do not support quoted fields.
+ * Rows that cannot be converted or fail bean validation come back as failed rows; a JSON
+ * syntax error ends the upload with a failed row.
+ */
+final class FlightScheduleReader {
+
+	private FlightScheduleReader() {
+	}
+
+	static Iterator<FlightImportRow> json(JsonMapper jsonMapper, Validator validator, InputStream body) {
+		MappingIterator<JsonNode> nodes = jsonMapper.readerFor(JsonNode.class).readValues(body);
+		return new RowIterator() {
+			@Override
+			FlightImportRow read(int row) {
+				try {
+					if (!nodes.hasNext()) {
+						return null;
+					}
+					JsonNode node = nodes.next();
+					return toRow(jsonMapper, validator, row, node);
+				} catch (JacksonException ex) {
+					done = true;
+					return FlightImportRow.failed(row, "Malformed JSON: " + ex.getOriginalMessage());
+				}
+			}
+		};
+	}
+
+	static Iterator<FlightImportRow> csv(JsonMapper jsonMapper, Validator validator, InputStream body) {
+		BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+		String[] header = split(readLine(lines));
+		return new RowIterator() {
+			@Override
+			FlightImportRow read(int row) {
+				String line;
+				do {
+					line = readLine(lines);
+					if (line == null) {
+						return null;
+					}
+				} while (line.isBlank());
+
+				String[] values = split(line);
+				if (values.length != header.length) {
+					return FlightImportRow.failed(row,
+							"Expected " + header.length + " columns but found " + values.length);
+				}
+				ObjectNode node = jsonMapper.createObjectNode();
+				for (int i = 0; i < header.length; i++) {
+					if (!values[i].isEmpty()) {
+						node.put(header[i], values[i]);
+					}
+				}
+				return toRow(jsonMapper, validator, row, node);
+			}
+		};
+	}
+
+	private static FlightImportRow toRow(JsonMapper jsonMapper, Validator validator, int row, JsonNode node) {
+		FlightRequest request;
+		try {
+			request = jsonMapper.treeToValue(node, FlightRequest.class);
+		} catch (JacksonException ex) {
+			return FlightImportRow.failed(row, ex.getOriginalMessage());
+		}
+		Set<ConstraintViolation<FlightRequest>> violations = validator.validate(request);
+		if (!violations.isEmpty()) {
+			return FlightImportRow.failed(row, violations.stream()
+					.map(v -> v.getPropertyPath() + " " + v.getMessage())
+					.sorted()
+					.collect(Collectors.joining(", ")));
+		}
+		return FlightImportRow.of(row, request);
+	}
+
+	private static String readLine(BufferedReader lines) {
+		try {
+			return lines.readLine();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static String[] split(String line) {
+		if (line == null) {
+			return new String[0];
+		}
+		String[] values = line.split(",", -1);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = values[i].trim();
+		}
+		return values;
+	}
+
+	private abstract static class RowIterator implements Iterator<FlightImportRow> {
+
+		private int row;
+		private FlightImportRow next;
+		boolean done;
+
+		// returns null at the end of the upload
+		abstract FlightImportRow read(int row);
+
+		@Override
+		public boolean hasNext() {
+			if (next == null && !done) {
+				next = read(row + 1);
+				if (next == null) {
+					done = true;
+				} else {
+					row++;
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public FlightImportRow next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			FlightImportRow current = next;
+			next = null;
+			return current;
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package com.flightservice.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ConfirmSeatsRequest {
+    @NotNull
+    private String bookingReference; // the reference the seats were reserved under
+}
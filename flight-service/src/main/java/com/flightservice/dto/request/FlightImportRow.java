@@ -0,0 +1,16 @@
+package com.flightservice.dto.request;
+
+/**
+ * One row of a bulk schedule import: either a parsed request or the reason it could not be read.
+ * Rows are numbered from 1 in the order they appear in the upload.
+ */
+public record FlightImportRow(int row, FlightRequest request, String error) {
+
+	public static FlightImportRow of(int row, FlightRequest request) {
+		return new FlightImportRow(row, request, null);
+	}
+
+	public static FlightImportRow failed(int row, String error) {
+		return new FlightImportRow(row, null, error);
+	}
+}
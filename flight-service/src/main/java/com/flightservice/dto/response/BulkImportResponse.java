@@ -0,0 +1,28 @@
+package com.flightservice.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BulkImportResponse {
+
+	private int received;
+	
+	private int imported;
+	
+	// rows that were not imported, in row order
+	private List<RowError> errors = new ArrayList<>();
+	
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class RowError {
+		private int row;
+		private String message;
+	}
+}
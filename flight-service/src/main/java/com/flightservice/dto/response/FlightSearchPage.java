@@ -0,0 +1,18 @@
+package com.flightservice.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSearchPage {
+
+	private List<FlightResponse> flights;
+	
+	// opaque token for the next page; null on the last page
+	private String nextCursor;
+}
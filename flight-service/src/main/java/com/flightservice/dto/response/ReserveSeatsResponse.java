@@ -1,5 +1,8 @@
 package com.flightservice.dto.response;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import lombok.Data;
 
 @Data
@@ -8,6 +11,11 @@ public class ReserveSeatsResponse {
     private String reservationReference; // optional id
     private int seatsReserved;
     private int remainingSeats;
+    private String message;
+    private List<String> reservedSeats;
+    // the seats go back to inventory at this time unless confirmed; null for reservations
+    // made without a booking reference, which are permanent
+    private LocalDateTime holdExpiresAt;
 
   
     public boolean isSuccess() { return success; }
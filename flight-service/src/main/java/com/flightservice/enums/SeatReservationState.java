@@ -0,0 +1,14 @@
+package com.flightservice.enums;
+
+public enum SeatReservationState {
+	// claimed by a reserve request that is still applying it
+	RESERVING,
+	// seats taken out of inventory until expiresAt unless confirmed
+	HELD,
+	CONFIRMED,
+	// claimed by a release request or the hold sweeper that is still applying it
+	RELEASING,
+	RELEASED,
+	// hold returned to inventory by the sweeper
+	EXPIRED
+}
@@ -0,0 +1,23 @@
+package com.flightservice.events;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightChangedEvent {
+
+    public enum ChangeType { ADDED, SEATS_CHANGED }
+
+    private String flightId;
+    private ChangeType type;
+
+    // seats left after the change
+    private int availableSeats;
+
+    private LocalDateTime changedAt;
+}
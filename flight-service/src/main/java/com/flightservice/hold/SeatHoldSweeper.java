@@ -0,0 +1,45 @@
+package com.flightservice.hold;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.service.FlightService;
+
+/**
+ * Hands the seats of expired, unconfirmed holds back to their flights in batches.
+ */
+@Component
+public class SeatHoldSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldSweeper.class);
+
+    static final int BATCH_SIZE = 500;
+
+    private final FlightService flightService;
+
+    public SeatHoldSweeper(FlightService flightService) {
+        this.flightService = flightService;
+    }
+
+    @Scheduled(initialDelayString = "${flight.seat-holds.sweep-interval:PT5S}",
+            fixedDelayString = "${flight.seat-holds.sweep-interval:PT5S}")
+    public void sweep() {
+        int total = 0;
+        try {
+            int expired;
+            do {
+                expired = flightService.expireSeatHolds(BATCH_SIZE);
+                total += expired;
+            } while (expired == BATCH_SIZE);
+        } catch (DataAccessException ex) {
+            log.warn("Seat hold sweep stopped after {} holds: {}", total, ex.getMessage());
+            return;
+        }
+        if (total > 0) {
+            log.info("Expired {} seat holds", total);
+        }
+    }
+}
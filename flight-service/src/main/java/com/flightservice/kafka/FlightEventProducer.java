@@ -0,0 +1,86 @@
+package com.flightservice.kafka;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightChangedEvent.ChangeType;
+import com.flightservice.model.Flight;
+
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Publishes {@link FlightChangedEvent}s keyed by flight id, best effort and off the request thread.
+ */
+@Service
+public class FlightEventProducer {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightEventProducer.class);
+
+    private static final String TOPIC_FLIGHT_CHANGED = "flight-changed";
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final ThreadPoolExecutor sender;
+
+    public FlightEventProducer(KafkaTemplate<String, String> kafkaTemplate, JsonMapper jsonMapper,
+                               @Value("${flight.events.enabled:true}") boolean enabled) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "flight-event-sender");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    public void flightAdded(Flight flight) {
+        send(new FlightChangedEvent(flight.getFlightId(), ChangeType.ADDED, flight.getAvailableSeats(),
+                LocalDateTime.now()));
+    }
+
+    public void seatsChanged(Flight flight) {
+        send(new FlightChangedEvent(flight.getFlightId(), ChangeType.SEATS_CHANGED, flight.getAvailableSeats(),
+                LocalDateTime.now()));
+    }
+
+    private void send(FlightChangedEvent event) {
+        if (enabled) {
+            sender.execute(() -> publish(event));
+        }
+    }
+
+    private void publish(FlightChangedEvent event) {
+        try {
+            kafkaTemplate.send(TOPIC_FLIGHT_CHANGED, event.getFlightId(), jsonMapper.writeValueAsString(event))
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.warn("Failed to publish {}: {}", event, ex.toString());
+                        }
+                    });
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish {}: {}", event, ex.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        sender.shutdown();
+        sender.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
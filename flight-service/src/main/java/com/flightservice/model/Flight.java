@@ -1,8 +1,12 @@
 package com.flightservice.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.flightservice.enums.TripType;
@@ -12,6 +16,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document
+@CompoundIndexes({
+	// route search: equality on both keys, then the (departure, price, id) keyset sort order
+	@CompoundIndex(name = "route_departure_price",
+			def = "{'sourceKey': 1, 'destinationKey': 1, 'departureDateTime': 1, 'price': 1, '_id': 1}"),
+	@CompoundIndex(name = "airline_departure_price",
+			def = "{'airlineId': 1, 'departureDateTime': 1, 'price': 1, '_id': 1}"),
+	// uniqueness tuple checked by addFlights
+	@CompoundIndex(name = "airline_route_departure", unique = true,
+			def = "{'airlineId': 1, 'source': 1, 'destination': 1, 'departureDateTime': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +47,11 @@ public class Flight {
 	
 	String destination;
 	
+	// upper-cased source/destination, so route search is an exact indexed match
+	String sourceKey;
+	
+	String destinationKey;
+	
 	LocalDateTime departureDateTime;
 	
 	 LocalDateTime arrivalDateTime;
@@ -40,9 +59,19 @@ public class Flight {
 	 int totalSeats;
 	 
 	 int availableSeats;
+
+	 // one bit per seat, see SeatMap
+	 List<Long> seatMap;
+
+	 // set until booking-service has marked the seats booked before the seat map existed
+	 boolean seatMapPending;
 	 
 	 Double price;
 	 
 	 TripType tripType;
+	 
+	 public static String searchKey(String place) {
+		 return place == null ? null : place.trim().toUpperCase(Locale.ROOT);
+	 }
 	
 }
@@ -0,0 +1,102 @@
+package com.flightservice.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitset layout of a flight's seats, stored on {@link Flight#getSeatMap()} as 64-bit words.
+ * Seat "12C" is row 12, column C and maps to index (12 - 1) * 6 + 2; a set bit means the seat is taken.
+ */
+public final class SeatMap {
+
+    public static final int SEATS_PER_ROW = 6;
+
+    private static final int WORD_BITS = Long.SIZE;
+
+    private SeatMap() {
+    }
+
+    /**
+     * @return the seat index for a seat number such as "12C", or -1 if it is not a valid seat number
+     */
+    public static int indexOf(String seatNo) {
+        if (seatNo == null || seatNo.length() < 2) {
+            return -1;
+        }
+        char column = seatNo.charAt(seatNo.length() - 1);
+        if (column < 'A' || column >= 'A' + SEATS_PER_ROW) {
+            return -1;
+        }
+        int row;
+        try {
+            row = Integer.parseInt(seatNo.substring(0, seatNo.length() - 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+        if (row < 1) {
+            return -1;
+        }
+        return (row - 1) * SEATS_PER_ROW + (column - 'A');
+    }
+
+    public static String seatNoOf(int index) {
+        return (index / SEATS_PER_ROW + 1) + String.valueOf((char) ('A' + index % SEATS_PER_ROW));
+    }
+
+    public static List<Long> empty(int totalSeats) {
+        int words = (Math.max(totalSeats, 0) + WORD_BITS - 1) / WORD_BITS;
+        List<Long> map = new ArrayList<>(words);
+        for (int i = 0; i < words; i++) {
+            map.add(0L);
+        }
+        return map;
+    }
+
+    /**
+     * Groups seat indexes into one bit mask per word, keyed by word position.
+     */
+    public static Map<Integer, Long> masks(Collection<Integer> indexes) {
+        Map<Integer, Long> masks = new TreeMap<>();
+        for (int index : indexes) {
+            masks.merge(index / WORD_BITS, 1L << (index % WORD_BITS), (a, b) -> a | b);
+        }
+        return masks;
+    }
+
+    /**
+     * @return the positions of the set bits in {@code mask}, lowest first
+     */
+    public static List<Integer> bitPositions(long mask) {
+        List<Integer> positions = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            positions.add(Long.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return positions;
+    }
+
+    public static boolean isTaken(List<Long> seatMap, int index) {
+        int word = index / WORD_BITS;
+        return seatMap != null && word < seatMap.size()
+                && (seatMap.get(word) & (1L << (index % WORD_BITS))) != 0;
+    }
+
+    public static List<String> takenSeats(List<Long> seatMap) {
+        List<String> taken = new ArrayList<>();
+        if (seatMap == null) {
+            return taken;
+        }
+        for (int word = 0; word < seatMap.size(); word++) {
+            long bits = seatMap.get(word);
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                taken.add(seatNoOf(word * WORD_BITS + bit));
+                bits &= bits - 1;
+            }
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,56 @@
+package com.flightservice.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.flightservice.enums.SeatReservationState;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seat hold of one booking reference, replayed to retried reserve, confirm and release requests.
+ */
+@Document(collection = "seat_reservations")
+// expired-hold sweep: equality on state, range on expiresAt
+@CompoundIndex(name = "state_expiry", def = "{'state': 1, 'expiresAt': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatReservation {
+
+	@Id
+	String bookingReference;
+	
+	String flightId;
+	
+	SeatReservationState state;
+	
+	// a RESERVING/RELEASING claim older than the claim timeout is taken over
+	LocalDateTime updatedAt;
+	
+	// set while HELD (and while the sweeper releases the hold)
+	LocalDateTime expiresAt;
+	
+	// the sweeper run releasing this hold
+	String sweepId;
+	
+	// outcome of the reservation, replayed to retries
+	String reservationReference;
+	
+	int seats;
+	
+	int remainingSeats;
+	
+	List<String> seatNumbers;
+	
+	// set once the record is released or expired; HELD and CONFIRMED records are kept
+	@Indexed(name = "seat_reservation_retention", expireAfter = "0s")
+	LocalDateTime expireAt;
+}
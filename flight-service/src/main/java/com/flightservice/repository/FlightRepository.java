@@ -6,13 +6,12 @@ import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.flightservice.model.Flight;
 
 @Repository
-public interface FlightRepository extends MongoRepository<Flight, String> {
+public interface FlightRepository extends MongoRepository<Flight, String>, FlightRepositoryCustom {
 
     Flight findByAirlineIdAndSourceAndDestinationAndDepartureDateTime(
             String airlineId,
@@ -21,14 +20,18 @@ public interface FlightRepository extends MongoRepository<Flight, String> {
             LocalDateTime departureDateTime
     );
 
-    List<Flight> findBySourceIgnoreCaseAndDestinationIgnoreCaseAndDepartureDateTimeBetween(
-            String source,
-            String destination,
+    List<Flight> findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(
+            String sourceKey,
+            String destinationKey,
             LocalDateTime start,
             LocalDateTime end
     );
 
-    List<Flight> findByAirlineIdIgnoreCase(String airlineId);
+    List<Flight> findByAirlineIdAndDepartureDateTimeBetween(
+            String airlineId,
+            LocalDateTime start,
+            LocalDateTime end
+    );
 
     boolean existsByAirlineIdAndSourceAndDestinationAndDepartureDateTime(
             String airlineId,
@@ -37,12 +40,6 @@ public interface FlightRepository extends MongoRepository<Flight, String> {
             LocalDateTime departureDateTime
     );
     
-    @Query("select distinct f.source from Flight f")
-    List<Flight> findDistinctSources();
-    
-    @Query("select distinct f.destination from Flight f")
-    List<Flight> findDistinctDestinations();
-    
     Optional<Flight> findById(String id);
 
 }
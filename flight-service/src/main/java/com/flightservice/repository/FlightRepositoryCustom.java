@@ -0,0 +1,69 @@
+package com.flightservice.repository;
+
+import java.util.Collection;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Seat inventory updates that must run as a single server-side operation
+ * instead of a read-modify-save round trip, keyset-paged search, and bulk schedule import.
+ */
+public interface FlightRepositoryCustom {
+
+    /**
+     * Decrements {@code availableSeats} by {@code count} only if at least that many
+     * seats are still available and every seat in {@code seatIndexes} is free, marking
+     * those seats as taken in the same update.
+     *
+     * @return the updated flight, or empty if the flight does not exist, has too few seats,
+     *         or one of the requested seats is already taken or out of range
+     */
+    Optional<Flight> reserveSeats(String flightId, int count, Collection<Integer> seatIndexes);
+
+    /**
+     * Increments {@code availableSeats} by {@code count} and frees the seats in {@code seatIndexes}.
+     *
+     * @return the updated flight, or empty if the flight does not exist
+     */
+    Optional<Flight> releaseSeats(String flightId, int count, Collection<Integer> seatIndexes);
+
+    /**
+     * Marks the seats in {@code seatIndexes} as taken and clears {@code seatMapPending}, only if
+     * it is still set; {@code availableSeats} already accounts for them.
+     *
+     * @return whether the flight was pending
+     */
+    boolean markBookedSeats(String flightId, Collection<Integer> seatIndexes);
+
+    List<String> findSeatMapPendingIds();
+
+    /**
+     * Returns up to {@code limit} flights matching {@code filter} that sort after {@code after}
+     * (or from the start when it is null), ordered by departure time, price and id.
+     */
+    List<Flight> searchPage(FlightSearchFilter filter, SearchCursor after, int limit);
+
+    /**
+     * Streams every flight matching {@code filter} in search order; the caller must close the stream.
+     */
+    Stream<Flight> searchStream(FlightSearchFilter filter);
+
+    /**
+     * Returns the uniqueness tuple (airline, source, destination, departure) of the flights
+     * whose airline and departure time are among the given ones; other fields are not loaded.
+     */
+    List<Flight> findScheduled(Collection<String> airlineIds, Collection<LocalDateTime> departures);
+
+    /**
+     * Inserts {@code flights} with one unordered bulk write, so a failing document does not
+     * stop the others.
+     *
+     * @return the error message per index into {@code flights} of each document that was not inserted
+     */
+    Map<Integer, String> insertUnordered(List<Flight> flights);
+}
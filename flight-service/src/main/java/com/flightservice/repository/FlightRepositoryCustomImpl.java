@@ -0,0 +1,161 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.model.Flight;
+import com.flightservice.model.SeatMap;
+import com.mongodb.bulk.BulkWriteError;
+
+public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
+
+    private static final Sort SEARCH_ORDER = Sort.by("departureDateTime", "price", "_id");
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public FlightRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<Flight> reserveSeats(String flightId, int count, Collection<Integer> seatIndexes) {
+        // the availability check and the decrement happen in one findAndModify,
+        // so concurrent reservations can neither oversell nor overwrite each other
+        Criteria criteria = where("_id").is(flightId).and("availableSeats").gte(count);
+        Update update = new Update().inc("availableSeats", -count);
+
+        if (!seatIndexes.isEmpty()) {
+            // seats booked before the seat map may not be marked in it yet
+            criteria.and("seatMapPending").ne(true);
+            criteria.and("totalSeats").gt(Collections.max(seatIndexes));
+            for (Map.Entry<Integer, Long> word : SeatMap.masks(seatIndexes).entrySet()) {
+                String key = "seatMap." + word.getKey();
+                criteria.and(key).bits().allClear(SeatMap.bitPositions(word.getValue()));
+                update.bitwise(key).or(word.getValue());
+            }
+        }
+
+        Flight updated = mongoTemplate.findAndModify(
+                query(criteria),
+                update,
+                options().returnNew(true),
+                Flight.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public Optional<Flight> releaseSeats(String flightId, int count, Collection<Integer> seatIndexes) {
+        Update update = new Update().inc("availableSeats", count);
+        for (Map.Entry<Integer, Long> word : SeatMap.masks(seatIndexes).entrySet()) {
+            update.bitwise("seatMap." + word.getKey()).and(~word.getValue());
+        }
+
+        Flight updated = mongoTemplate.findAndModify(
+                query(where("_id").is(flightId)),
+                update,
+                options().returnNew(true),
+                Flight.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public boolean markBookedSeats(String flightId, Collection<Integer> seatIndexes) {
+        Update update = new Update().unset("seatMapPending");
+        for (Map.Entry<Integer, Long> word : SeatMap.masks(seatIndexes).entrySet()) {
+            update.bitwise("seatMap." + word.getKey()).or(word.getValue());
+        }
+        return mongoTemplate.updateFirst(
+                query(where("_id").is(flightId).and("seatMapPending").is(true)),
+                update,
+                Flight.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public List<String> findSeatMapPendingIds() {
+        Query query = query(where("seatMapPending").is(true));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Flight.class).stream().map(Flight::getFlightId).toList();
+    }
+
+    @Override
+    public List<Flight> searchPage(FlightSearchFilter filter, SearchCursor after, int limit) {
+        Criteria criteria = searchCriteria(filter);
+        if (after != null) {
+            // keyset predicate for (departureDateTime, price, _id) > cursor
+            criteria.orOperator(
+                    where("departureDateTime").gt(after.departureDateTime()),
+                    where("departureDateTime").is(after.departureDateTime()).and("price").gt(after.price()),
+                    where("departureDateTime").is(after.departureDateTime()).and("price").is(after.price())
+                            .and("_id").gt(after.flightId()));
+        }
+        return mongoTemplate.find(query(criteria).with(SEARCH_ORDER).limit(limit), Flight.class);
+    }
+
+    @Override
+    public Stream<Flight> searchStream(FlightSearchFilter filter) {
+        Query query = query(searchCriteria(filter)).with(SEARCH_ORDER);
+        query.cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Flight.class);
+    }
+
+    @Override
+    public List<Flight> findScheduled(Collection<String> airlineIds, Collection<LocalDateTime> departures) {
+        // the caller matches the route
+        Query query = query(where("airlineId").in(airlineIds).and("departureDateTime").in(departures));
+        query.fields().include("airlineId", "source", "destination", "departureDateTime");
+        return mongoTemplate.find(query, Flight.class);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, Flight.class).insert(flights).execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            Map<Integer, String> failed = new HashMap<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                failed.put(error.getIndex(), error.getCode() == DUPLICATE_KEY
+                        ? "Flight already exists for this airline at this time"
+                        : error.getMessage());
+            }
+            return failed;
+        }
+    }
+
+    private static Criteria searchCriteria(FlightSearchFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.airlineId() != null) {
+            criteria.and("airlineId").is(filter.airlineId());
+        }
+        if (filter.sourceKey() != null) {
+            criteria.and("sourceKey").is(filter.sourceKey());
+        }
+        if (filter.destinationKey() != null) {
+            criteria.and("destinationKey").is(filter.destinationKey());
+        }
+        return criteria.and("departureDateTime").gte(filter.departureFrom()).lte(filter.departureTo());
+    }
+}
@@ -0,0 +1,14 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Search criteria for the paged and streamed flight search. {@code airlineId},
+ * {@code sourceKey} and {@code destinationKey} are optional; the departure window is not.
+ */
+public record FlightSearchFilter(String airlineId,
+                                 String sourceKey,
+                                 String destinationKey,
+                                 LocalDateTime departureFrom,
+                                 LocalDateTime departureTo) {
+}
@@ -0,0 +1,42 @@
+package com.flightservice.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.flightservice.exceptions.BadRequestException;
+import com.flightservice.model.Flight;
+
+/**
+ * Keyset position in the search sort order (departure time, price, id). Clients only see the
+ * opaque, URL-safe token produced by {@link #encode()}.
+ */
+public record SearchCursor(LocalDateTime departureDateTime, double price, String flightId) {
+
+    private static final String VERSION = "v1";
+
+    public static SearchCursor after(Flight flight) {
+        return new SearchCursor(flight.getDepartureDateTime(),
+                flight.getPrice() == null ? 0 : flight.getPrice(),
+                flight.getFlightId());
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + departureDateTime + "|" + price + "|" + flightId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid search cursor");
+            }
+            return new SearchCursor(LocalDateTime.parse(parts[1]), Double.parseDouble(parts[2]), parts[3]);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid search cursor", ex);
+        }
+    }
+}
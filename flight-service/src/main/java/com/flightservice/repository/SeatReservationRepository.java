@@ -0,0 +1,10 @@
+package com.flightservice.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightservice.model.SeatReservation;
+
+@Repository
+public interface SeatReservationRepository extends MongoRepository<SeatReservation, String>, SeatReservationRepositoryCustom {
+}
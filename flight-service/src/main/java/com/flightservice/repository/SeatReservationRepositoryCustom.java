@@ -0,0 +1,72 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.flightservice.enums.SeatReservationState;
+import com.flightservice.model.SeatReservation;
+
+/**
+ * State transitions of {@link SeatReservation} records, each a single conditional write.
+ */
+public interface SeatReservationRepositoryCustom {
+
+    /**
+     * Moves the record of {@code bookingReference} into the in-progress state {@code claim},
+     * creating it if there is none, provided it is in one of {@code from} or is stuck in
+     * {@code claim} since before {@code staleBefore} (its owner is then assumed to have failed).
+     * The claim is stamped with {@code now}, which the owner passes back to end it.
+     *
+     * @return empty if the caller now owns the transition, otherwise the record as it stands
+     */
+    Optional<SeatReservation> claim(String bookingReference, String flightId, SeatReservationState claim,
+                                    Collection<SeatReservationState> from, LocalDateTime now,
+                                    LocalDateTime staleBefore);
+
+    /**
+     * Ends the transition claimed as {@code claimed} at {@code claimedAt} in {@code state}, storing
+     * the outcome replayed to retries and the hold expiry ({@code null} unless the state is {@code HELD}).
+     *
+     * @return false if the claim has since been taken over by another request
+     */
+    boolean complete(String bookingReference, SeatReservationState claimed, LocalDateTime claimedAt,
+                     SeatReservationState state, String reservationReference, int seats, int remainingSeats,
+                     List<String> seatNumbers, LocalDateTime expiresAt);
+
+    /**
+     * Ends the transition claimed as {@code claimed} at {@code claimedAt} in {@code state} without
+     * touching the stored outcome, for transitions that did not change the seat inventory.
+     *
+     * @return false if the claim has since been taken over by another request
+     */
+    boolean revert(String bookingReference, SeatReservationState claimed, LocalDateTime claimedAt,
+                   SeatReservationState state);
+
+    /**
+     * Ends the release claimed at {@code claimedAt} that did not go through: a hold goes back to
+     * {@code HELD} with its expiry, anything else to {@code CONFIRMED}.
+     *
+     * @return false if the claim has since been taken over by another request
+     */
+    boolean revertRelease(String bookingReference, LocalDateTime claimedAt);
+
+    /**
+     * Turns the hold of {@code bookingReference} on {@code flightId} into a confirmed reservation.
+     *
+     * @return false if there is no such hold
+     */
+    boolean confirm(String bookingReference, String flightId, LocalDateTime now);
+
+    /**
+     * Claims up to {@code limit} holds expired before {@code now}, or left by a sweep stale since
+     * {@code staleBefore}, for the sweep {@code sweepId}.
+     */
+    List<SeatReservation> claimExpiredHolds(String sweepId, LocalDateTime now, LocalDateTime staleBefore, int limit);
+
+    /**
+     * Marks holds claimed by {@code sweepId} whose seats are back in inventory as expired.
+     */
+    void markExpired(Collection<String> bookingReferences, String sweepId);
+}
@@ -0,0 +1,156 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.enums.SeatReservationState;
+import com.flightservice.model.SeatReservation;
+
+public class SeatReservationRepositoryCustomImpl implements SeatReservationRepositoryCustom {
+
+    private static final Duration RETENTION = Duration.ofDays(7);
+
+    private final MongoTemplate mongoTemplate;
+
+    public SeatReservationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<SeatReservation> claim(String bookingReference, String flightId, SeatReservationState claim,
+                                           Collection<SeatReservationState> from, LocalDateTime now,
+                                           LocalDateTime staleBefore) {
+        Criteria claimable = where("_id").is(bookingReference).orOperator(
+                where("state").in(from),
+                where("state").is(claim).and("updatedAt").lt(staleBefore));
+        Update enter = new Update()
+                .set("state", claim)
+                .set("flightId", flightId)
+                .set("updatedAt", now)
+                .unset("sweepId")
+                .unset("expireAt");
+        if (mongoTemplate.updateFirst(query(claimable), enter, SeatReservation.class).getModifiedCount() == 1) {
+            return Optional.empty();
+        }
+
+        // no record yet: the unique _id makes the insert the claim
+        try {
+            mongoTemplate.insert(new SeatReservation(bookingReference, flightId, claim, now, null, null, null, 0, 0,
+                    null, null));
+            return Optional.empty();
+        } catch (DuplicateKeyException ex) {
+            return Optional.ofNullable(mongoTemplate.findById(bookingReference, SeatReservation.class));
+        }
+    }
+
+    @Override
+    public boolean complete(String bookingReference, SeatReservationState claimed, LocalDateTime claimedAt,
+                            SeatReservationState state, String reservationReference, int seats, int remainingSeats,
+                            List<String> seatNumbers, LocalDateTime expiresAt) {
+        Update done = finish(state)
+                .set("expiresAt", expiresAt)
+                .set("reservationReference", reservationReference)
+                .set("seats", seats)
+                .set("remainingSeats", remainingSeats)
+                .set("seatNumbers", seatNumbers);
+        return mongoTemplate.updateFirst(query(owned(bookingReference, claimed, claimedAt)), done,
+                SeatReservation.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean revert(String bookingReference, SeatReservationState claimed, LocalDateTime claimedAt,
+                          SeatReservationState state) {
+        return mongoTemplate.updateFirst(query(owned(bookingReference, claimed, claimedAt)), finish(state),
+                SeatReservation.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public boolean revertRelease(String bookingReference, LocalDateTime claimedAt) {
+        Criteria hold = owned(bookingReference, SeatReservationState.RELEASING, claimedAt).and("expiresAt").ne(null);
+        if (mongoTemplate.updateFirst(query(hold), finish(SeatReservationState.HELD), SeatReservation.class)
+                .getModifiedCount() == 1) {
+            return true;
+        }
+        return revert(bookingReference, SeatReservationState.RELEASING, claimedAt, SeatReservationState.CONFIRMED);
+    }
+
+    @Override
+    public boolean confirm(String bookingReference, String flightId, LocalDateTime now) {
+        Criteria held = where("_id").is(bookingReference)
+                .and("flightId").is(flightId)
+                .and("state").is(SeatReservationState.HELD);
+        Update confirmed = new Update()
+                .set("state", SeatReservationState.CONFIRMED)
+                .set("updatedAt", now)
+                .unset("expiresAt");
+        return mongoTemplate.updateFirst(query(held), confirmed, SeatReservation.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public List<SeatReservation> claimExpiredHolds(String sweepId, LocalDateTime now, LocalDateTime staleBefore,
+                                                   int limit) {
+        Query candidates = query(sweepable(new Criteria(), now, staleBefore)).limit(limit);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, SeatReservation.class).stream()
+                .map(SeatReservation::getBookingReference)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // re-checked in the update, so a hold confirmed or claimed by another sweeper meanwhile is left alone
+        Update claim = new Update()
+                .set("state", SeatReservationState.RELEASING)
+                .set("updatedAt", now)
+                .set("sweepId", sweepId);
+        mongoTemplate.updateMulti(query(sweepable(where("_id").in(ids), now, staleBefore)), claim, SeatReservation.class);
+        return mongoTemplate.find(query(where("_id").in(ids).and("sweepId").is(sweepId)), SeatReservation.class);
+    }
+
+    @Override
+    public void markExpired(Collection<String> bookingReferences, String sweepId) {
+        Criteria claimed = where("_id").in(bookingReferences)
+                .and("sweepId").is(sweepId)
+                .and("state").is(SeatReservationState.RELEASING);
+        Update expired = new Update()
+                .set("state", SeatReservationState.EXPIRED)
+                .set("updatedAt", LocalDateTime.now())
+                .set("expireAt", LocalDateTime.now().plus(RETENTION))
+                .unset("expiresAt");
+        mongoTemplate.updateMulti(query(claimed), expired, SeatReservation.class);
+    }
+
+    // the claim is still the caller's: a taken-over claim carries the new owner's updatedAt
+    private static Criteria owned(String bookingReference, SeatReservationState claimed, LocalDateTime claimedAt) {
+        return where("_id").is(bookingReference).and("state").is(claimed).and("updatedAt").is(claimedAt);
+    }
+
+    // released records are kept for retries until the retention has passed, live holds are not expired
+    private static Update finish(SeatReservationState state) {
+        Update update = new Update()
+                .set("state", state)
+                .set("updatedAt", LocalDateTime.now());
+        return state == SeatReservationState.RELEASED
+                ? update.set("expireAt", LocalDateTime.now().plus(RETENTION))
+                : update.unset("expireAt");
+    }
+
+    // expired holds, and holds whose sweep was left unfinished
+    private static Criteria sweepable(Criteria criteria, LocalDateTime now, LocalDateTime staleBefore) {
+        return criteria.and("expiresAt").lt(now).orOperator(
+                where("state").is(SeatReservationState.HELD),
+                where("state").is(SeatReservationState.RELEASING).and("updatedAt").lt(staleBefore));
+    }
+}
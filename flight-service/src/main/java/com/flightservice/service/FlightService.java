@@ -1,13 +1,20 @@
 package com.flightservice.service;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import com.flightservice.dto.request.ConfirmSeatsRequest;
+import com.flightservice.dto.request.FlightImportRow;
 import com.flightservice.dto.request.FlightRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.BulkImportResponse;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
 import com.flightservice.dto.response.ReserveSeatsResponse;
 import com.flightservice.model.Flight;
 
@@ -17,16 +24,63 @@ public interface FlightService {
 
 Flight addFlights(FlightRequest request);
 	
+	/**
+	 * Imports a schedule upload in batches, skipping rows that fail validation or duplicate an
+	 * existing or earlier flight, and reports every skipped row.
+	 */
+	BulkImportResponse importFlights(Iterator<FlightImportRow> rows);
+	
 	List<FlightResponse> searchFlights(FlightRequest request);
+	
+	/**
+	 * Keyset-paged search ordered by departure time, price and id; pass the previous page's
+	 * {@code nextCursor} to continue.
+	 */
+	FlightSearchPage searchFlightsPage(FlightRequest request, String cursor, int limit);
+	
+	/**
+	 * Lazily streams all matching flights in search order; the caller must close the stream.
+	 */
+	Stream<FlightResponse> streamFlights(FlightRequest request);
+	
 	FlightResponse getFlightById(String id);
+	
+	/**
+	 * Looks up several flights in one query, keyed by flight id; unknown ids are left out.
+	 */
+	Map<String, FlightResponse> getFlightsByIds(Collection<String> flightIds);
 
     ReserveSeatsResponse reserveSeats(String flightId, ReserveSeatsRequest request);
 
     void releaseSeats(String flightId, ReleaseSeatsRequest request);
+
+    /**
+     * Makes the seat hold of a booking reference permanent; confirming twice is a no-op.
+     */
+    void confirmSeats(String flightId, ConfirmSeatsRequest request);
+
+    /**
+     * Flights whose seats booked before the seat map existed are not marked in it yet; seat
+     * numbers cannot be reserved on them until {@link #markBookedSeats} has run.
+     */
+    List<String> getSeatMapPendingFlightIds();
+
+    void markBookedSeats(String flightId, List<String> seatNumbers);
+
+    /**
+     * Returns up to {@code limit} expired seat holds to inventory.
+     *
+     * @return the number of holds handled
+     */
+    int expireSeatHolds(int limit);
     
     Map<String, List<String>> getSources();
     
     Map<String, List<String>> getDestinations();
     
+    String getRouteCatalogVersion();
+    
     int getTotalSeats(String flightId);
+    
+    List<String> getBookedSeats(String flightId);
 }
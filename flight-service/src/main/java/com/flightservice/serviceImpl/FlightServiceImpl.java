@@ -1,40 +1,95 @@
 package com.flightservice.serviceImpl;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import com.bookingevents.id.IdGenerator;
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.FlightSearchCache;
+import com.flightservice.cache.RouteCatalog;
+import com.flightservice.dto.request.ConfirmSeatsRequest;
+import com.flightservice.dto.request.FlightImportRow;
 import com.flightservice.dto.request.FlightRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.BulkImportResponse;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
 import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.SeatReservationState;
+import com.flightservice.exceptions.BadRequestException;
 import com.flightservice.exceptions.BusinessException;
+import com.flightservice.exceptions.ConflictException;
+import com.flightservice.kafka.FlightEventProducer;
 import com.flightservice.model.Airline;
 import com.flightservice.model.Flight;
-import com.flightservice.repository.AirlineRepository;
+import com.flightservice.model.SeatMap;
+import com.flightservice.model.SeatReservation;
 import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchFilter;
+import com.flightservice.repository.SearchCursor;
+import com.flightservice.repository.SeatReservationRepository;
 import com.flightservice.service.FlightService;
 
 @Service
 public class FlightServiceImpl implements FlightService {
 
-    private final FlightRepository flightRepository;
-    private final AirlineRepository airlineRepository;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int MAX_BATCH_LOOKUP = 500;
+    private static final long IN_FLIGHT_POLL_MILLIS = 50;
+
+    private static final Logger log = LoggerFactory.getLogger(FlightServiceImpl.class);
 
-    public FlightServiceImpl(FlightRepository flightRepository, AirlineRepository airlineRepository) {
+    private final FlightRepository flightRepository;
+    private final AirlineDirectory airlineDirectory;
+    private final RouteCatalog routeCatalog;
+    private final FlightSearchCache searchCache;
+    private final IdGenerator idGenerator;
+    private final FlightEventProducer eventProducer;
+    private final SeatReservationRepository seatReservations;
+    private final Duration claimTimeout;
+    private final Duration inFlightWait;
+    private final Duration holdTtl;
+
+    public FlightServiceImpl(FlightRepository flightRepository, AirlineDirectory airlineDirectory,
+                             RouteCatalog routeCatalog, FlightSearchCache searchCache, IdGenerator idGenerator,
+                             FlightEventProducer eventProducer, SeatReservationRepository seatReservations,
+                             @Value("${flight.seat-reservations.claim-timeout:PT1M}") Duration claimTimeout,
+                             @Value("${flight.seat-reservations.in-flight-wait:PT5S}") Duration inFlightWait,
+                             @Value("${flight.seat-holds.ttl:PT15M}") Duration holdTtl) {
         this.flightRepository = flightRepository;
-        this.airlineRepository = airlineRepository;
+        this.airlineDirectory = airlineDirectory;
+        this.routeCatalog = routeCatalog;
+        this.searchCache = searchCache;
+        this.idGenerator = idGenerator;
+        this.eventProducer = eventProducer;
+        this.seatReservations = seatReservations;
+        this.claimTimeout = claimTimeout;
+        this.inFlightWait = inFlightWait;
+        this.holdTtl = holdTtl;
     }
 
     @Override
@@ -48,12 +103,7 @@ public class FlightServiceImpl implements FlightService {
         }
 
         // Find or create airline
-        Optional<Airline> optAirline = airlineRepository.findByAirlineNameIgnoreCase(request.getAirlineName());
-        Airline airline = optAirline.orElseGet(() -> {
-            Airline a = new Airline();
-            a.setAirlineName(request.getAirlineName());
-            return airlineRepository.save(a);
-        });
+        Airline airline = airlineDirectory.getOrCreate(request.getAirlineName());
 
         // Check if flight already exists for this airline/time/route
         boolean exists = flightRepository.existsByAirlineIdAndSourceAndDestinationAndDepartureDateTime(
@@ -67,27 +117,144 @@ public class FlightServiceImpl implements FlightService {
             throw new BusinessException("Flight already exists for this airline at this time");
         }
 
-        
+        Flight flight = newFlight(request, airline);
+
+        Flight saved;
+        try {
+            saved = flightRepository.save(flight);
+        } catch (DuplicateKeyException ex) {
+            // lost a race with a concurrent addFlights for the same tuple
+            throw new BusinessException("Flight already exists for this airline at this time");
+        }
+        routeCatalog.register(saved.getSource(), saved.getDestination());
+        searchCache.invalidateRoute(saved.getSourceKey(), saved.getDestinationKey(),
+                saved.getDepartureDateTime().toLocalDate());
+        eventProducer.flightAdded(saved);
+        return saved;
+    }
+
+    private Flight newFlight(FlightRequest request, Airline airline) {
         Flight flight = new Flight();
         flight.setAirlineId(airline.getAirlineId());
+        flight.setAirlineName(airline.getAirlineName());
         flight.setSource(request.getSource());
         flight.setDestination(request.getDestination());
-        flight.setDepartureDateTime(departure);
-        flight.setArrivalDateTime(arrival);
+        flight.setSourceKey(Flight.searchKey(request.getSource()));
+        flight.setDestinationKey(Flight.searchKey(request.getDestination()));
+        flight.setDepartureDateTime(request.getDepartureDateTime());
+        flight.setArrivalDateTime(request.getArrivalDateTime());
         flight.setTotalSeats(request.getTotalSeats());
         flight.setAvailableSeats(request.getTotalSeats());
+        flight.setSeatMap(SeatMap.empty(request.getTotalSeats()));
         flight.setPrice(request.getPrice());
 
-        
         String airlineCode = airline.getAirlineName()
                 .substring(0, Math.min(2, airline.getAirlineName().length()))
                 .toUpperCase();
-        int randomNumber = (int) (Math.random() * 900) + 100;
-        String flightNumber = airlineCode + "-" + randomNumber;
-        flight.setFlightNo(flightNumber);
+        flight.setFlightNo(airlineCode + "-" + idGenerator.nextId());
+        return flight;
+    }
 
-        
-        return flightRepository.save(flight);
+    @Override
+    public BulkImportResponse importFlights(Iterator<FlightImportRow> rows) {
+        BulkImportResponse response = new BulkImportResponse();
+        // uniqueness tuples seen earlier in this upload
+        Set<ScheduleKey> seen = new HashSet<>();
+        List<FlightImportRow> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        while (rows.hasNext()) {
+            FlightImportRow row = rows.next();
+            response.setReceived(response.getReceived() + 1);
+            if (row.error() != null) {
+                response.getErrors().add(new BulkImportResponse.RowError(row.row(), row.error()));
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                importBatch(batch, seen, response);
+                batch.clear();
+            }
+        }
+        importBatch(batch, seen, response);
+        response.getErrors().sort(Comparator.comparingInt(BulkImportResponse.RowError::getRow));
+        return response;
+    }
+
+    private void importBatch(List<FlightImportRow> batch, Set<ScheduleKey> seen, BulkImportResponse response) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // airlines are resolved once per distinct name, not once per row
+        Map<String, Airline> airlines = new HashMap<>();
+        List<FlightImportRow> candidates = new ArrayList<>(batch.size());
+        List<Flight> flights = new ArrayList<>(batch.size());
+        for (FlightImportRow row : batch) {
+            FlightRequest request = row.request();
+            if (!request.getArrivalDateTime().isAfter(request.getDepartureDateTime())) {
+                response.getErrors().add(new BulkImportResponse.RowError(row.row(),
+                        "Arrival time must be after departure time"));
+                continue;
+            }
+            Airline airline = airlines.computeIfAbsent(request.getAirlineName().trim().toLowerCase(Locale.ROOT),
+                    name -> airlineDirectory.getOrCreate(request.getAirlineName().trim()));
+            Flight flight = newFlight(request, airline);
+            if (!seen.add(ScheduleKey.of(flight))) {
+                response.getErrors().add(new BulkImportResponse.RowError(row.row(),
+                        "Duplicate of an earlier row in this upload"));
+                continue;
+            }
+            candidates.add(row);
+            flights.add(flight);
+        }
+
+        // one projected query per batch for flights already scheduled with the same tuple
+        Set<ScheduleKey> existing = new HashSet<>();
+        if (!flights.isEmpty()) {
+            Set<String> airlineIds = new HashSet<>();
+            Set<LocalDateTime> departures = new HashSet<>();
+            for (Flight f : flights) {
+                airlineIds.add(f.getAirlineId());
+                departures.add(f.getDepartureDateTime());
+            }
+            for (Flight f : flightRepository.findScheduled(airlineIds, departures)) {
+                existing.add(ScheduleKey.of(f));
+            }
+        }
+
+        List<FlightImportRow> insertedRows = new ArrayList<>(flights.size());
+        List<Flight> toInsert = new ArrayList<>(flights.size());
+        for (int i = 0; i < flights.size(); i++) {
+            if (existing.contains(ScheduleKey.of(flights.get(i)))) {
+                response.getErrors().add(new BulkImportResponse.RowError(candidates.get(i).row(),
+                        "Flight already exists for this airline at this time"));
+            } else {
+                insertedRows.add(candidates.get(i));
+                toInsert.add(flights.get(i));
+            }
+        }
+
+        // the unique index still catches rows raced in by a concurrent import
+        Map<Integer, String> failed = flightRepository.insertUnordered(toInsert);
+        for (int i = 0; i < toInsert.size(); i++) {
+            String error = failed.get(i);
+            if (error != null) {
+                response.getErrors().add(new BulkImportResponse.RowError(insertedRows.get(i).row(), error));
+                continue;
+            }
+            Flight f = toInsert.get(i);
+            routeCatalog.register(f.getSource(), f.getDestination());
+            searchCache.invalidateRoute(f.getSourceKey(), f.getDestinationKey(),
+                    f.getDepartureDateTime().toLocalDate());
+            response.setImported(response.getImported() + 1);
+        }
+    }
+
+    // the fields of the airline_route_departure unique index
+    private record ScheduleKey(String airlineId, String source, String destination, LocalDateTime departure) {
+
+        static ScheduleKey of(Flight flight) {
+            return new ScheduleKey(flight.getAirlineId(), flight.getSource(), flight.getDestination(),
+                    flight.getDepartureDateTime());
+        }
     }
 
     @Override
@@ -99,39 +266,115 @@ public class FlightServiceImpl implements FlightService {
 
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-        List<FlightResponse> responses = new ArrayList<>();
 
         if (airlineName == null || airlineName.isBlank()) {
-        	List<Flight> flights = flightRepository
-                    .findBySourceIgnoreCaseAndDestinationIgnoreCaseAndDepartureDateTimeBetween(
-                            source,
-                            destination,
-                            startOfDay,
-                            endOfDay
-                    );
-            for (Flight f : flights) {
-                responses.add(mapFlightToResponse(f));
-            }
-            return responses;
+            String sourceKey = Flight.searchKey(source);
+            String destinationKey = Flight.searchKey(destination);
+            return searchCache.get(sourceKey, destinationKey, date, () -> {
+                List<Flight> flights = flightRepository
+                        .findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(
+                                sourceKey,
+                                destinationKey,
+                                startOfDay,
+                                endOfDay
+                        );
+                return mapFlightsToResponses(flights, new HashMap<>());
+            });
         }
 
         // searching by airlineName
-        Optional<Airline> optAirline = airlineRepository.findByAirlineNameIgnoreCase(airlineName);
+        Optional<Airline> optAirline = airlineDirectory.findByName(airlineName);
         if (optAirline.isEmpty()) {
             throw new BusinessException("Airline not found");
         }
         Airline airline = optAirline.get();
-        List<Flight> flights = flightRepository.findByAirlineIdIgnoreCase(airline.getAirlineId());
+        List<Flight> flights = flightRepository.findByAirlineIdAndDepartureDateTimeBetween(
+                airline.getAirlineId(), startOfDay, endOfDay);
+        Map<String, String> airlineNames = new HashMap<>();
+        airlineNames.put(airline.getAirlineId(), airline.getAirlineName());
+        return mapFlightsToResponses(flights, airlineNames);
+    }
+
+    @Override
+    public FlightSearchPage searchFlightsPage(FlightRequest request, String cursor, int limit) {
+        FlightSearchFilter filter = toSearchFilter(request);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        SearchCursor after = (cursor == null || cursor.isBlank()) ? null : SearchCursor.decode(cursor);
+
+        // one extra row tells us whether another page exists
+        List<Flight> flights = flightRepository.searchPage(filter, after, pageSize + 1);
+        String nextCursor = null;
+        if (flights.size() > pageSize) {
+            flights = flights.subList(0, pageSize);
+            nextCursor = SearchCursor.after(flights.get(pageSize - 1)).encode();
+        }
+        return new FlightSearchPage(mapFlightsToResponses(flights, new HashMap<>()), nextCursor);
+    }
+
+    @Override
+    public Stream<FlightResponse> streamFlights(FlightRequest request) {
+        FlightSearchFilter filter = toSearchFilter(request);
+        return flightRepository.searchStream(filter)
+                .map(f -> mapFlightToResponse(f, f.getAirlineName() != null
+                        ? f.getAirlineName()
+                        : airlineDirectory.nameOf(f.getAirlineId())));
+    }
+
+    private FlightSearchFilter toSearchFilter(FlightRequest request) {
+        LocalDate date = request.getDate();
+        if (date == null) {
+            throw new BadRequestException("date is required");
+        }
+
+        String airlineId = null;
+        if (request.getAirlineName() != null && !request.getAirlineName().isBlank()) {
+            airlineId = airlineDirectory.findByName(request.getAirlineName())
+                    .orElseThrow(() -> new BusinessException("Airline not found"))
+                    .getAirlineId();
+        } else if (isBlank(request.getSource()) || isBlank(request.getDestination())) {
+            throw new BadRequestException("source and destination are required when no airline is given");
+        }
+
+        return new FlightSearchFilter(
+                airlineId,
+                isBlank(request.getSource()) ? null : Flight.searchKey(request.getSource()),
+                isBlank(request.getDestination()) ? null : Flight.searchKey(request.getDestination()),
+                date.atStartOfDay(),
+                date.atTime(LocalTime.MAX));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Maps a result page, resolving airline names with at most one query for the whole list:
+     * the denormalized {@link Flight#getAirlineName()} is used when present, and the remaining
+     * airline ids not already in {@code airlineNames} are resolved together through the directory.
+     */
+    private List<FlightResponse> mapFlightsToResponses(List<Flight> flights, Map<String, String> airlineNames) {
+        Set<String> unresolved = new HashSet<>();
         for (Flight f : flights) {
-            responses.add(mapFlightToResponse(f));
+            if (f.getAirlineName() == null && f.getAirlineId() != null
+                    && !airlineNames.containsKey(f.getAirlineId())) {
+                unresolved.add(f.getAirlineId());
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            airlineNames.putAll(airlineDirectory.namesOf(unresolved));
+        }
+
+        List<FlightResponse> responses = new ArrayList<>(flights.size());
+        for (Flight f : flights) {
+            String name = f.getAirlineName() != null
+                    ? f.getAirlineName()
+                    : airlineNames.getOrDefault(f.getAirlineId(), "Unknown");
+            responses.add(mapFlightToResponse(f, name));
         }
         return responses;
     }
 
-    private FlightResponse mapFlightToResponse(Flight flight) {
-        Optional<Airline> optAirline = airlineRepository.findById(flight.getAirlineId());
-        String airlineName = optAirline.map(Airline::getAirlineName).orElse("Unknown");
-
+    private FlightResponse mapFlightToResponse(Flight flight, String airlineName) {
         FlightResponse res = new FlightResponse();
         res.setFlightNo(flight.getFlightNo());
         res.setFlightId(flight.getFlightId());
@@ -147,44 +390,360 @@ public class FlightServiceImpl implements FlightService {
     
     @Override
     public ReserveSeatsResponse reserveSeats(String flightId, ReserveSeatsRequest request) {
-        // load flight
-        Flight flight = flightRepository.findById(flightId)
-                .orElseThrow(() -> new BusinessException("Flight not found with id: " + flightId));
-
         int count = request.getCount();
         if (count <= 0) {
             throw new BusinessException("Invalid seats count: " + count);
         }
 
-        if (flight.getAvailableSeats() < count) {
-            throw new BusinessException("Not enough seats available. Requested: " + count + ", Available: " + flight.getAvailableSeats());
+        List<String> seatNos = normalizeSeatNumbers(request.getSeatNumbers());
+        if (!seatNos.isEmpty() && seatNos.size() != count) {
+            throw new BusinessException("Seat numbers " + seatNos + " do not match seats count: " + count);
         }
+        List<Integer> seatIndexes = toSeatIndexes(seatNos);
 
-        // decrement and save
-        flight.setAvailableSeats(flight.getAvailableSeats() - count);
-        Flight saved = flightRepository.save(flight);
+        if (request.getBookingReference() == null) {
+            return applyReservation(flightId, count, seatNos, seatIndexes);
+        }
+        // a retry gets the original hold; a released or expired reference may reserve anew
+        String reference = request.getBookingReference();
+        LocalDateTime claimedAt = claimStamp();
+        Optional<SeatReservation> recorded = claim(reference, flightId, claimedAt, SeatReservationState.RESERVING,
+                SeatReservationState.RELEASED, SeatReservationState.EXPIRED);
+        if (recorded.isPresent()) {
+            return replayReservation(settled(awaitOutcome(recorded.get(), SeatReservationState.RESERVING), flightId,
+                    SeatReservationState.HELD, SeatReservationState.CONFIRMED));
+        }
+
+        ReserveSeatsResponse resp;
+        try {
+            resp = applyReservation(flightId, count, seatNos, seatIndexes);
+        } catch (RuntimeException ex) {
+            seatReservations.revert(reference, SeatReservationState.RESERVING, claimedAt, SeatReservationState.RELEASED);
+            throw ex;
+        }
+        if (!resp.isSuccess()) {
+            // nothing is held for this reference, so a retry may try again
+            seatReservations.revert(reference, SeatReservationState.RESERVING, claimedAt, SeatReservationState.RELEASED);
+            return resp;
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plus(holdTtl);
+        if (!seatReservations.complete(reference, SeatReservationState.RESERVING, claimedAt, SeatReservationState.HELD,
+                resp.getReservationReference(), count, resp.getRemainingSeats(), seatNos, expiresAt)) {
+            // the claim went stale and its new owner reserves for this reference itself
+            try {
+                applyRelease(flightId, count, seatIndexes);
+            } catch (RuntimeException ex) {
+                log.error("Returning {} seats of flight {} reserved twice for {} failed: {}", count, flightId,
+                        reference, ex.toString());
+            }
+            throw new ConflictException("Seats of this booking reference are being changed by another request, please retry");
+        }
+        resp.setHoldExpiresAt(expiresAt);
+        return resp;
+    }
+
+    private ReserveSeatsResponse applyReservation(String flightId, int count, List<String> seatNos,
+                                                  List<Integer> seatIndexes) {
+        // empty when the flight is missing, short of seats, or a requested seat is taken
+        Optional<Flight> updated = flightRepository.reserveSeats(flightId, count, seatIndexes);
+        if (updated.isEmpty()) {
+            return rejectReservation(flightId, count, seatNos, seatIndexes);
+        }
+        searchCache.invalidateFlight(flightId);
+        eventProducer.seatsChanged(updated.get());
 
         // build response
         ReserveSeatsResponse resp = new ReserveSeatsResponse();
         resp.setSuccess(true);
-        resp.setReservationReference("RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        resp.setReservationReference("RES-" + idGenerator.nextId());
         resp.setSeatsReserved(count);
-        resp.setRemainingSeats(saved.getAvailableSeats());
+        resp.setRemainingSeats(updated.get().getAvailableSeats());
+        resp.setReservedSeats(seatNos);
         return resp;
     }
 
-    @Override
-    public void releaseSeats(String flightId, ReleaseSeatsRequest request) {
+    private ReserveSeatsResponse rejectReservation(String flightId, int count, List<String> seatNos,
+                                                   List<Integer> seatIndexes) {
         Flight flight = flightRepository.findById(flightId)
                 .orElseThrow(() -> new BusinessException("Flight not found with id: " + flightId));
 
+        List<String> outOfRange = new ArrayList<>();
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < seatIndexes.size(); i++) {
+            int index = seatIndexes.get(i);
+            if (index >= flight.getTotalSeats()) {
+                outOfRange.add(seatNos.get(i));
+            } else if (SeatMap.isTaken(flight.getSeatMap(), index)) {
+                taken.add(seatNos.get(i));
+            }
+        }
+
+        if (!outOfRange.isEmpty()) {
+            throw new BusinessException("Invalid seat number(s): " + String.join(", ", outOfRange));
+        }
+        if (flight.getAvailableSeats() < count) {
+            throw new BusinessException("Not enough seats available. Requested: " + count + ", Available: " + flight.getAvailableSeats());
+        }
+        if (flight.isSeatMapPending()) {
+            throw new BusinessException("Seat numbers of flight " + flightId + " cannot be chosen until its seat map is seeded, please retry");
+        }
+        if (taken.isEmpty()) {
+            // the competing reservation was released again meanwhile
+            throw new BusinessException("Seat reservation conflicted with another booking, please retry");
+        }
+
+        ReserveSeatsResponse resp = new ReserveSeatsResponse();
+        resp.setSuccess(false);
+        resp.setMessage("Seat(s) already taken: " + String.join(", ", taken));
+        resp.setRemainingSeats(flight.getAvailableSeats());
+        return resp;
+    }
+
+    @Override
+    public void releaseSeats(String flightId, ReleaseSeatsRequest request) {
         int count = request.getCount();
         if (count <= 0) {
             throw new BusinessException("Invalid seats count: " + count);
         }
 
-        flight.setAvailableSeats(flight.getAvailableSeats() + count);
-        flightRepository.save(flight);
+        List<String> seatNos = normalizeSeatNumbers(request.getSeatNumbers());
+        List<Integer> seatIndexes = toSeatIndexes(seatNos);
+
+        if (request.getBookingReference() == null) {
+            applyRelease(flightId, count, seatIndexes);
+            return;
+        }
+        // seats already handed back for this booking reference are not released twice
+        String reference = request.getBookingReference();
+        LocalDateTime claimedAt = claimStamp();
+        Optional<SeatReservation> recorded = claim(reference, flightId, claimedAt, SeatReservationState.RELEASING,
+                SeatReservationState.HELD, SeatReservationState.CONFIRMED);
+        if (recorded.isPresent()) {
+            settled(awaitOutcome(recorded.get(), SeatReservationState.RELEASING), flightId,
+                    SeatReservationState.RELEASED, SeatReservationState.EXPIRED);
+            return;
+        }
+
+        Flight updated;
+        try {
+            updated = applyRelease(flightId, count, seatIndexes);
+        } catch (RuntimeException ex) {
+            seatReservations.revertRelease(reference, claimedAt);
+            throw ex;
+        }
+        if (!seatReservations.complete(reference, SeatReservationState.RELEASING, claimedAt,
+                SeatReservationState.RELEASED, null, count, updated.getAvailableSeats(), seatNos, null)) {
+            // the claim went stale and its new owner releases these seats itself
+            Optional<Flight> retaken = flightRepository.reserveSeats(flightId, count, seatIndexes);
+            if (retaken.isPresent()) {
+                searchCache.invalidateFlight(flightId);
+                eventProducer.seatsChanged(retaken.get());
+            } else {
+                log.error("Taking back {} seats of flight {} released twice for {} failed", count, flightId, reference);
+            }
+            throw new ConflictException("Seats of this booking reference are being changed by another request, please retry");
+        }
+    }
+
+    @Override
+    public void confirmSeats(String flightId, ConfirmSeatsRequest request) {
+        String reference = request.getBookingReference();
+        if (seatReservations.confirm(reference, flightId, LocalDateTime.now())) {
+            return;
+        }
+        SeatReservation reservation = seatReservations.findById(reference)
+                .orElseThrow(() -> new BusinessException("No seat hold found for booking reference " + reference));
+        if (!flightId.equals(reservation.getFlightId())) {
+            throw new BadRequestException("Booking reference already used on flight " + reservation.getFlightId());
+        }
+        switch (reservation.getState()) {
+            case CONFIRMED -> {
+                // confirmed before
+            }
+            case HELD, RESERVING, RELEASING ->
+                throw new BusinessException("Seats of this booking reference are being changed by another request, please retry");
+            default ->
+                throw new ConflictException("Seat hold of booking reference " + reference + " was "
+                        + reservation.getState().name().toLowerCase(Locale.ROOT) + " and can no longer be confirmed");
+        }
+    }
+
+    @Override
+    public List<String> getSeatMapPendingFlightIds() {
+        return flightRepository.findSeatMapPendingIds();
+    }
+
+    @Override
+    public void markBookedSeats(String flightId, List<String> seatNumbers) {
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new BusinessException("Flight not found with id: " + flightId));
+        List<Integer> seatIndexes = new ArrayList<>();
+        for (String seatNo : normalizeSeatNumbers(seatNumbers)) {
+            int index = SeatMap.indexOf(seatNo);
+            if (index >= 0 && index < flight.getTotalSeats()) {
+                seatIndexes.add(index);
+            } else {
+                log.warn("Skipping booked seat {} outside the seat map of flight {}", seatNo, flightId);
+            }
+        }
+        if (flightRepository.markBookedSeats(flightId, seatIndexes)) {
+            log.info("Seeded the seat map of flight {} with {} booked seats", flightId, seatIndexes.size());
+        }
+    }
+
+    @Override
+    public int expireSeatHolds(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        String sweepId = "SWEEP-" + idGenerator.nextId();
+        List<SeatReservation> holds = seatReservations.claimExpiredHolds(sweepId, now, now.minus(claimTimeout), limit);
+
+        // one inventory update per flight
+        Map<String, List<SeatReservation>> byFlight = new HashMap<>();
+        for (SeatReservation hold : holds) {
+            byFlight.computeIfAbsent(hold.getFlightId(), id -> new ArrayList<>()).add(hold);
+        }
+        for (Map.Entry<String, List<SeatReservation>> flightHolds : byFlight.entrySet()) {
+            String flightId = flightHolds.getKey();
+            int count = 0;
+            List<Integer> seatIndexes = new ArrayList<>();
+            List<String> references = new ArrayList<>();
+            for (SeatReservation hold : flightHolds.getValue()) {
+                count += hold.getSeats();
+                if (hold.getSeatNumbers() != null) {
+                    hold.getSeatNumbers().forEach(seatNo -> seatIndexes.add(SeatMap.indexOf(seatNo)));
+                }
+                references.add(hold.getBookingReference());
+            }
+            try {
+                applyRelease(flightId, count, seatIndexes);
+            } catch (BusinessException ex) {
+                // the flight is gone
+                log.warn("Dropping {} expired holds of missing flight {}", references.size(), flightId);
+            } catch (RuntimeException ex) {
+                // left claimed; the next sweep takes them over once the claim timeout has passed
+                log.warn("Returning {} expired holds of flight {} failed: {}", references.size(), flightId, ex.toString());
+                continue;
+            }
+            seatReservations.markExpired(references, sweepId);
+        }
+        return holds.size();
+    }
+
+    private Flight applyRelease(String flightId, int count, List<Integer> seatIndexes) {
+        Flight updated = flightRepository.releaseSeats(flightId, count, seatIndexes)
+                .orElseThrow(() -> new BusinessException("Flight not found with id: " + flightId));
+        searchCache.invalidateFlight(flightId);
+        eventProducer.seatsChanged(updated);
+        return updated;
+    }
+
+    private Optional<SeatReservation> claim(String reference, String flightId, LocalDateTime claimedAt,
+                                            SeatReservationState claim, SeatReservationState... from) {
+        return seatReservations.claim(reference, flightId, claim, List.of(from), claimedAt,
+                claimedAt.minus(claimTimeout));
+    }
+
+    // matched again when the claim ends, so no finer than the millisecond Mongo stores
+    private static LocalDateTime claimStamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    // a retry that overtakes the earlier request, e.g. one resent after a read timeout, waits for its outcome
+    private SeatReservation awaitOutcome(SeatReservation reservation, SeatReservationState inFlight) {
+        long deadline = System.nanoTime() + inFlightWait.toNanos();
+        while (reservation.getState() == inFlight && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(IN_FLIGHT_POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            reservation = seatReservations.findById(reservation.getBookingReference()).orElse(reservation);
+        }
+        return reservation;
+    }
+
+    // a retry is answered only once the earlier request has finished
+    private static SeatReservation settled(SeatReservation reservation, String flightId,
+                                           SeatReservationState... expected) {
+        if (!flightId.equals(reservation.getFlightId())) {
+            throw new BadRequestException("Booking reference already used on flight " + reservation.getFlightId());
+        }
+        if (!List.of(expected).contains(reservation.getState())) {
+            throw new ConflictException("Seats of this booking reference are being changed by another request, please retry");
+        }
+        return reservation;
+    }
+
+    private static ReserveSeatsResponse replayReservation(SeatReservation reservation) {
+        ReserveSeatsResponse resp = new ReserveSeatsResponse();
+        resp.setSuccess(true);
+        resp.setReservationReference(reservation.getReservationReference());
+        resp.setSeatsReserved(reservation.getSeats());
+        resp.setRemainingSeats(reservation.getRemainingSeats());
+        resp.setReservedSeats(reservation.getSeatNumbers());
+        resp.setHoldExpiresAt(reservation.getExpiresAt());
+        return resp;
+    }
+
+    private List<String> normalizeSeatNumbers(List<String> seatNumbers) {
+        if (seatNumbers == null) {
+            return List.of();
+        }
+        return seatNumbers.stream()
+                .filter(Objects::nonNull)
+                .map(s -> s.trim().toUpperCase())
+                .distinct()
+                .toList();
+    }
+
+    private List<Integer> toSeatIndexes(List<String> seatNos) {
+        List<Integer> indexes = new ArrayList<>(seatNos.size());
+        List<String> invalid = new ArrayList<>();
+        for (String seatNo : seatNos) {
+            int index = SeatMap.indexOf(seatNo);
+            if (index < 0) {
+                invalid.add(seatNo);
+            }
+            indexes.add(index);
+        }
+        if (!invalid.isEmpty()) {
+            throw new BusinessException("Invalid seat number(s): " + String.join(", ", invalid));
+        }
+        return indexes;
+    }
+
+    @Override
+    public Map<String, FlightResponse> getFlightsByIds(Collection<String> flightIds) {
+        Set<String> ids = new HashSet<>();
+        for (String id : flightIds) {
+            if (!isBlank(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() > MAX_BATCH_LOOKUP) {
+            throw new BadRequestException("At most " + MAX_BATCH_LOOKUP + " flight ids can be looked up at once");
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Flight> flights = new ArrayList<>();
+        flightRepository.findAllById(ids).forEach(flights::add);
+        List<FlightResponse> responses = mapFlightsToResponses(flights, new HashMap<>());
+
+        Map<String, FlightResponse> byId = new HashMap<>();
+        for (FlightResponse r : responses) {
+            byId.put(r.getFlightId(), r);
+        }
+        return byId;
+    }
+
+    @Override
+    public List<String> getBookedSeats(String flightId) {
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new BusinessException("Flight not found with id: " + flightId));
+        return SeatMap.takenSeats(flight.getSeatMap());
     }
 
     @Override
@@ -192,9 +751,15 @@ public class FlightServiceImpl implements FlightService {
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("Flight not found with id: " + id));
 
+        String airlineName = flight.getAirlineName();
+        if (airlineName == null && flight.getAirlineId() != null) {
+            // flights saved before airlineName was denormalized
+            airlineName = airlineDirectory.nameOf(flight.getAirlineId());
+        }
+
         FlightResponse response = new FlightResponse();
         //response.setFlightId(flight.getFlightId());
-        response.setAirlineName(flight.getAirlineName());
+        response.setAirlineName(airlineName);
         response.setSource(flight.getSource());
         response.setDestination(flight.getDestination());
         response.setDepartureDateTime(flight.getDepartureDateTime());
@@ -210,36 +775,18 @@ public class FlightServiceImpl implements FlightService {
     
     @Override
     public Map<String, List<String>> getSources(){
-    	 List<Flight> sources=flightRepository.findDistinctSources() ;    	 
-    	 List<String> sourceList=sources.stream()
-    			 .map(f->f.getSource())
-    			 .filter(Objects::nonNull)
-    			 .distinct()
-    			 .sorted()
-    			 .toList();
- 
-    	Map<String,List<String>> res=new HashMap<>();
-    	res.put("Sources",sourceList);
-
-    	return res;
-    	}
-    
+    	return Map.of("Sources", routeCatalog.sources());
+    }
     
     @Override
     public Map<String, List<String>> getDestinations(){
-    	 List<Flight> destinations=flightRepository.findDistinctDestinations() ;
-    	 List<String> destinationList=destinations.stream()
-    			 .map(f->f.getDestination())
-    			 .filter(Objects::nonNull)
-    			 .distinct()
-    			 .sorted()
-    			 .toList();
-    	  
-    	Map<String,List<String>> res=new HashMap<>();
-    	res.put("Destinations",destinationList);
-
-    	return res;
-    	}
+    	return Map.of("Destinations", routeCatalog.destinations());
+    }
+    
+    @Override
+    public String getRouteCatalogVersion() {
+    	return routeCatalog.version();
+    }
     
     @Override
     public int getTotalSeats(String flightId) {
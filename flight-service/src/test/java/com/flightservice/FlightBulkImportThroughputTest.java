@@ -0,0 +1,69 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.flightservice.dto.request.FlightImportRow;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.response.BulkImportResponse;
+import com.flightservice.model.Flight;
+import com.flightservice.service.FlightService;
+
+/**
+ * Imports a season of 50k flights against a real MongoDB and checks the bulk import keeps up
+ * with 10k flights per second.
+ */
+@SpringBootTest(properties = {"flight.events.enabled=false", "id-generator.node-id=0"})
+class FlightBulkImportThroughputTest {
+
+    private static final int FLIGHTS = 50_000;
+    private static final int MIN_FLIGHTS_PER_SECOND = 10_000;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.remove(query(where("source").is("BULK")), Flight.class);
+    }
+
+    @Test
+    void seasonOfFlights_importsAtTenThousandPerSecond() {
+        LocalDateTime base = LocalDateTime.now().plusDays(30).withNano(0);
+        List<FlightImportRow> rows = new ArrayList<>(FLIGHTS);
+        for (int i = 0; i < FLIGHTS; i++) {
+            FlightRequest r = new FlightRequest();
+            r.setAirlineName("BulkAir" + (i % 20));
+            r.setSource("BULK");
+            r.setDestination("DST" + (i % 50));
+            r.setDepartureDateTime(base.plusMinutes(i));
+            r.setArrivalDateTime(base.plusMinutes(i).plusHours(2));
+            r.setTotalSeats(180);
+            r.setPrice(5000.0);
+            rows.add(FlightImportRow.of(i + 1, r));
+        }
+
+        long start = System.nanoTime();
+        BulkImportResponse response = flightService.importFlights(rows.iterator());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double perSecond = FLIGHTS / seconds;
+        System.out.printf("imported %d flights in %.2f s (%.0f flights/s)%n", response.getImported(), seconds, perSecond);
+        assertEquals(FLIGHTS, response.getImported(), () -> "errors: " + response.getErrors());
+        assertTrue(perSecond >= MIN_FLIGHTS_PER_SECOND, "only " + Math.round(perSecond) + " flights/s");
+    }
+}
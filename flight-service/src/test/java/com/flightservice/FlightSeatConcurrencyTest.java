@@ -0,0 +1,156 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.flightservice.dto.request.ReleaseSeatsRequest;
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.service.FlightService;
+
+/**
+ * Fires thousands of parallel reservations at one flight against a real MongoDB
+ * and checks that the conditional decrement neither oversells nor loses updates.
+ */
+@SpringBootTest(properties = {"flight.events.enabled=false", "id-generator.node-id=0"})
+class FlightSeatConcurrencyTest {
+
+    private static final int TOTAL_SEATS = 1000;
+    private static final int RESERVATIONS = 3000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    private String flightId;
+
+    @BeforeEach
+    void setUp() {
+        Flight flight = new Flight();
+        flight.setSource("STRESS");
+        flight.setDestination("TEST");
+        flight.setDepartureDateTime(LocalDateTime.now().plusDays(1));
+        flight.setArrivalDateTime(LocalDateTime.now().plusDays(1).plusHours(2));
+        flight.setTotalSeats(TOTAL_SEATS);
+        flight.setAvailableSeats(TOTAL_SEATS);
+        flight.setPrice(100.0);
+        flightId = flightRepository.save(flight).getFlightId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRepository.deleteById(flightId);
+    }
+
+    @Test
+    void parallelReservations_neverOversell_andNeverLoseUpdates() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger lowestRemaining = new AtomicInteger(TOTAL_SEATS);
+        AtomicInteger references = new AtomicInteger();
+
+        runConcurrently(RESERVATIONS, () -> {
+            ReserveSeatsRequest req = new ReserveSeatsRequest();
+            // one reference per booking: reservations sharing a reference are deduplicated
+            req.setBookingReference(flightId + "-" + references.incrementAndGet());
+            req.setCount(1);
+            try {
+                int remaining = flightService.reserveSeats(flightId, req).getRemainingSeats();
+                lowestRemaining.accumulateAndGet(remaining, Math::min);
+                succeeded.incrementAndGet();
+            } catch (BusinessException ex) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        Flight after = flightRepository.findById(flightId).orElseThrow();
+        assertEquals(TOTAL_SEATS, succeeded.get());
+        assertEquals(RESERVATIONS - TOTAL_SEATS, rejected.get());
+        assertEquals(0, after.getAvailableSeats());
+        assertTrue(lowestRemaining.get() >= 0);
+    }
+
+    @Test
+    void parallelReleases_restoreEverySeat() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        runConcurrently(TOTAL_SEATS, () -> {
+            ReserveSeatsRequest req = new ReserveSeatsRequest();
+            req.setBookingReference(flightId + "-" + reserved.incrementAndGet());
+            req.setCount(1);
+            flightService.reserveSeats(flightId, req);
+        });
+        runConcurrently(TOTAL_SEATS, () -> {
+            ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+            req.setBookingReference(flightId + "-" + released.incrementAndGet());
+            req.setCount(1);
+            flightService.releaseSeats(flightId, req);
+        });
+
+        Flight after = flightRepository.findById(flightId).orElseThrow();
+        assertEquals(TOTAL_SEATS, after.getAvailableSeats());
+    }
+
+    @Test
+    void parallelRetriesOfOneReservation_reserveOnce() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            ReserveSeatsRequest req = new ReserveSeatsRequest();
+            req.setBookingReference(flightId + "-retry");
+            req.setCount(2);
+            try {
+                if (flightService.reserveSeats(flightId, req).isSuccess()) {
+                    succeeded.incrementAndGet();
+                }
+            } catch (BusinessException ex) {
+                // still in progress on another thread
+            }
+        });
+
+        Flight after = flightRepository.findById(flightId).orElseThrow();
+        assertTrue(succeeded.get() >= 1);
+        assertEquals(TOTAL_SEATS - 2, after.getAvailableSeats());
+    }
+
+    private void runConcurrently(int tasks, Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -3,30 +3,54 @@ package com.flightservice;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import com.bookingevents.id.SequenceIdGenerator;
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.FlightSearchCache;
+import com.flightservice.cache.RouteCatalog;
+import com.flightservice.exceptions.BadRequestException;
 import com.flightservice.exceptions.BusinessException;
+import com.flightservice.exceptions.ConflictException;
+import com.flightservice.kafka.FlightEventProducer;
 import com.flightservice.model.Airline;
 import com.flightservice.model.Flight;
+import com.flightservice.model.SeatMap;
+import com.flightservice.model.SeatReservation;
 import com.flightservice.repository.AirlineRepository;
 import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchFilter;
+import com.flightservice.repository.SearchCursor;
+import com.flightservice.repository.SeatReservationRepository;
 import com.flightservice.serviceImpl.FlightServiceImpl;
+import com.flightservice.dto.request.ConfirmSeatsRequest;
+import com.flightservice.dto.request.FlightImportRow;
 import com.flightservice.dto.request.FlightRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
 import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.SeatReservationState;
+import com.flightservice.dto.response.BulkImportResponse;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class FlightServiceImplTest {
 
@@ -36,13 +60,31 @@ class FlightServiceImplTest {
     @Mock
     private AirlineRepository airlineRepository;
 
-    @InjectMocks
+    @Mock
+    private RouteCatalog routeCatalog;
+
+    @Mock
+    private FlightEventProducer eventProducer;
+
+    @Mock
+    private SeatReservationRepository seatReservations;
+
+    private AirlineDirectory airlineDirectory;
+
+    private FlightSearchCache searchCache;
+
     private FlightServiceImpl flightService;
 
     private FlightRequest validRequest;
 
     @BeforeEach
     void setUp() {
+        airlineDirectory = new AirlineDirectory(airlineRepository, new SimpleMeterRegistry());
+        searchCache = new FlightSearchCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        flightService = new FlightServiceImpl(flightRepository, airlineDirectory, routeCatalog, searchCache,
+                new SequenceIdGenerator(1, Clock.systemUTC()), eventProducer, seatReservations, Duration.ofMinutes(1),
+                Duration.ofMillis(200), Duration.ofMinutes(15));
+
         validRequest = new FlightRequest();
         validRequest.setAirlineName("TestAir");
         validRequest.setSource("DEL");
@@ -75,8 +117,13 @@ class FlightServiceImplTest {
         assertNotNull(saved);
         assertEquals("DEL", saved.getSource());
         assertEquals("BLR", saved.getDestination());
+        assertEquals("TestAir", saved.getAirlineName());
+        assertEquals("DEL", saved.getSourceKey());
+        assertEquals("BLR", saved.getDestinationKey());
         verify(airlineRepository).save(any(Airline.class));
         verify(flightRepository).save(any(Flight.class));
+        verify(routeCatalog).register("DEL", "BLR");
+        verify(eventProducer).flightAdded(any(Flight.class));
     }
 
     @Test
@@ -94,11 +141,10 @@ class FlightServiceImplTest {
 
     @Test
     void reserveSeats_success_decrementsAvailable() {
-        Flight flight = new Flight();
-        flight.setFlightId("F1");
-        flight.setAvailableSeats(10);
-        when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
-        when(flightRepository.save(any(Flight.class))).thenAnswer(inv -> inv.getArgument(0));
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(7);
+        when(flightRepository.reserveSeats("F1", 3, List.of())).thenReturn(Optional.of(updated));
 
         ReserveSeatsRequest req = new ReserveSeatsRequest();
         req.setCount(3);
@@ -107,7 +153,9 @@ class FlightServiceImplTest {
         assertTrue(resp.isSuccess());
         assertEquals(3, resp.getSeatsReserved());
         assertEquals(7, resp.getRemainingSeats());
-        verify(flightRepository).save(any(Flight.class));
+        verify(flightRepository).reserveSeats("F1", 3, List.of());
+        verify(eventProducer).seatsChanged(updated);
+        verify(flightRepository, never()).save(any(Flight.class));
     }
 
     @Test
@@ -115,6 +163,7 @@ class FlightServiceImplTest {
         Flight flight = new Flight();
         flight.setFlightId("F1");
         flight.setAvailableSeats(1);
+        when(flightRepository.reserveSeats("F1", 2, List.of())).thenReturn(Optional.empty());
         when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
 
         ReserveSeatsRequest req = new ReserveSeatsRequest();
@@ -124,22 +173,607 @@ class FlightServiceImplTest {
         assertTrue(ex.getMessage().toLowerCase().contains("not enough seats"));
     }
 
+    @Test
+    void reserveSeats_throwsWhenFlightMissing() {
+        when(flightRepository.reserveSeats("NOPE", 1, List.of())).thenReturn(Optional.empty());
+        when(flightRepository.findById("NOPE")).thenReturn(Optional.empty());
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(1);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.reserveSeats("NOPE", req));
+        assertTrue(ex.getMessage().toLowerCase().contains("flight not found"));
+    }
+
+    @Test
+    void reserveSeats_withSeatNumbers_claimsSeatIndexes() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(8);
+        when(flightRepository.reserveSeats("F1", 2, List.of(0, 7))).thenReturn(Optional.of(updated));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(2);
+        req.setSeatNumbers(List.of("1a", " 2B"));
+
+        var resp = flightService.reserveSeats("F1", req);
+        assertTrue(resp.isSuccess());
+        assertEquals(List.of("1A", "2B"), resp.getReservedSeats());
+        assertEquals(8, resp.getRemainingSeats());
+    }
+
+    @Test
+    void reserveSeats_reportsTakenSeats() {
+        Flight flight = new Flight();
+        flight.setFlightId("F1");
+        flight.setTotalSeats(12);
+        flight.setAvailableSeats(11);
+        flight.setSeatMap(List.of(1L << SeatMap.indexOf("1B")));
+        when(flightRepository.reserveSeats("F1", 2, List.of(0, 1))).thenReturn(Optional.empty());
+        when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(2);
+        req.setSeatNumbers(List.of("1A", "1B"));
+
+        var resp = flightService.reserveSeats("F1", req);
+        assertFalse(resp.isSuccess());
+        assertEquals("Seat(s) already taken: 1B", resp.getMessage());
+    }
+
+    @Test
+    void reserveSeats_rejectsSeatNumbers_untilSeatMapIsSeeded() {
+        Flight flight = new Flight();
+        flight.setFlightId("F1");
+        flight.setTotalSeats(12);
+        flight.setAvailableSeats(10);
+        flight.setSeatMap(SeatMap.empty(12));
+        flight.setSeatMapPending(true);
+        when(flightRepository.reserveSeats("F1", 1, List.of(0))).thenReturn(Optional.empty());
+        when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(1);
+        req.setSeatNumbers(List.of("1A"));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.reserveSeats("F1", req));
+        assertTrue(ex.getMessage().contains("seat map is seeded"));
+    }
+
+    @Test
+    void markBookedSeats_skipsSeatsOutsideTheSeatMap() {
+        Flight flight = new Flight();
+        flight.setFlightId("F1");
+        flight.setTotalSeats(6);
+        when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
+        when(flightRepository.markBookedSeats("F1", List.of(1))).thenReturn(true);
+
+        flightService.markBookedSeats("F1", List.of("1b", "9A"));
+
+        verify(flightRepository).markBookedSeats("F1", List.of(1));
+    }
+
+    @Test
+    void reserveSeats_rejectsMalformedSeatNumber() {
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(1);
+        req.setSeatNumbers(List.of("Z9"));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.reserveSeats("F1", req));
+        assertTrue(ex.getMessage().toLowerCase().contains("invalid seat"));
+        verifyNoInteractions(flightRepository);
+    }
+
     @Test
     void releaseSeats_incrementsAvailable() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(9);
+        when(flightRepository.releaseSeats("F1", 4, List.of())).thenReturn(Optional.of(updated));
+
+        ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+        req.setCount(4);
+
+        flightService.releaseSeats("F1", req);
+
+        verify(flightRepository).releaseSeats("F1", 4, List.of());
+        verify(flightRepository, never()).save(any(Flight.class));
+    }
+
+    @Test
+    void reserveSeats_holdsSeats_forBookingReference() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(8);
+        ArgumentCaptor<LocalDateTime> claimedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(seatReservations.claim(eq("BR-1"), eq("F1"), eq(SeatReservationState.RESERVING),
+                eq(List.of(SeatReservationState.RELEASED, SeatReservationState.EXPIRED)), claimedAt.capture(), any()))
+                .thenReturn(Optional.empty());
+        when(flightRepository.reserveSeats("F1", 2, List.of(0, 1))).thenReturn(Optional.of(updated));
+        when(seatReservations.complete(eq("BR-1"), eq(SeatReservationState.RESERVING), any(),
+                eq(SeatReservationState.HELD), any(), eq(2), eq(8), eq(List.of("1A", "1B")), any())).thenReturn(true);
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setBookingReference("BR-1");
+        req.setCount(2);
+        req.setSeatNumbers(List.of("1A", "1B"));
+
+        LocalDateTime before = LocalDateTime.now();
+        var resp = flightService.reserveSeats("F1", req);
+        assertTrue(resp.isSuccess());
+        assertFalse(resp.getHoldExpiresAt().isBefore(before.plusMinutes(15)));
+        // the hold is recorded only under the claim this request took
+        verify(seatReservations).complete("BR-1", SeatReservationState.RESERVING, claimedAt.getValue(),
+                SeatReservationState.HELD, resp.getReservationReference(), 2, 8, List.of("1A", "1B"),
+                resp.getHoldExpiresAt());
+    }
+
+    @Test
+    void reserveSeats_returnsSeats_whenClaimWasTakenOver() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(8);
+        Flight restored = new Flight();
+        restored.setFlightId("F1");
+        restored.setAvailableSeats(10);
+        when(seatReservations.claim(eq("BR-1"), eq("F1"), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(flightRepository.reserveSeats("F1", 2, List.of(0, 1))).thenReturn(Optional.of(updated));
+        when(seatReservations.complete(any(), any(), any(), any(), any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(false);
+        when(flightRepository.releaseSeats("F1", 2, List.of(0, 1))).thenReturn(Optional.of(restored));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setBookingReference("BR-1");
+        req.setCount(2);
+        req.setSeatNumbers(List.of("1A", "1B"));
+
+        assertThrows(ConflictException.class, () -> flightService.reserveSeats("F1", req));
+        // the request that took the claim over reserves for BR-1 itself
+        verify(flightRepository).releaseSeats("F1", 2, List.of(0, 1));
+    }
+
+    @Test
+    void reserveSeats_withoutBookingReference_isNotHeld() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(8);
+        when(flightRepository.reserveSeats("F1", 2, List.of())).thenReturn(Optional.of(updated));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(2);
+
+        var resp = flightService.reserveSeats("F1", req);
+        assertTrue(resp.isSuccess());
+        assertNull(resp.getHoldExpiresAt());
+        verifyNoInteractions(seatReservations);
+    }
+
+    @Test
+    void reserveSeats_retryWithSameBookingReference_replaysWithoutReserving() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+        SeatReservation recorded = new SeatReservation("BR-1", "F1", SeatReservationState.HELD,
+                LocalDateTime.now(), expiresAt, null, "RES-7", 2, 8, List.of("1A", "1B"), null);
+        when(seatReservations.claim(eq("BR-1"), eq("F1"), any(), any(), any(), any())).thenReturn(Optional.of(recorded));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setBookingReference("BR-1");
+        req.setCount(2);
+        req.setSeatNumbers(List.of("1A", "1B"));
+
+        var resp = flightService.reserveSeats("F1", req);
+        assertTrue(resp.isSuccess());
+        assertEquals("RES-7", resp.getReservationReference());
+        assertEquals(8, resp.getRemainingSeats());
+        assertEquals(List.of("1A", "1B"), resp.getReservedSeats());
+        assertEquals(expiresAt, resp.getHoldExpiresAt());
+        verifyNoInteractions(flightRepository, eventProducer);
+    }
+
+    @Test
+    void reserveSeats_retryOvertakingFirstAttempt_waitsForItsOutcome() {
+        SeatReservation inFlight = new SeatReservation("BR-1", "F1", SeatReservationState.RESERVING,
+                LocalDateTime.now(), null, null, null, 0, 0, null, null);
+        SeatReservation held = new SeatReservation("BR-1", "F1", SeatReservationState.HELD,
+                LocalDateTime.now(), LocalDateTime.now().plusMinutes(15), null, "RES-7", 2, 8, List.of("1A", "1B"), null);
+        when(seatReservations.claim(eq("BR-1"), eq("F1"), any(), any(), any(), any())).thenReturn(Optional.of(inFlight));
+        when(seatReservations.findById("BR-1")).thenReturn(Optional.of(inFlight), Optional.of(held));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setBookingReference("BR-1");
+        req.setCount(2);
+        req.setSeatNumbers(List.of("1A", "1B"));
+
+        var resp = flightService.reserveSeats("F1", req);
+        assertTrue(resp.isSuccess());
+        assertEquals("RES-7", resp.getReservationReference());
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void reserveSeats_leavesReferenceReleased_whenRejected() {
         Flight flight = new Flight();
         flight.setFlightId("F1");
-        flight.setAvailableSeats(5);
+        flight.setAvailableSeats(1);
+        when(seatReservations.claim(eq("BR-2"), eq("F1"), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(flightRepository.reserveSeats("F1", 2, List.of())).thenReturn(Optional.empty());
         when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
-        when(flightRepository.save(any(Flight.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setBookingReference("BR-2");
+        req.setCount(2);
+
+        assertThrows(BusinessException.class, () -> flightService.reserveSeats("F1", req));
+        // nothing is held, so a later retry with the same reference may try again
+        verify(seatReservations).revert(eq("BR-2"), eq(SeatReservationState.RESERVING), any(),
+                eq(SeatReservationState.RELEASED));
+        verify(seatReservations, never()).complete(any(), any(), any(), any(), any(), anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void releaseSeats_retryWithSameBookingReference_releasesOnce() {
+        SeatReservation recorded = new SeatReservation("PNR-1", "F1", SeatReservationState.RELEASED,
+                LocalDateTime.now(), null, null, null, 4, 9, List.of(), null);
+        when(seatReservations.claim(eq("PNR-1"), eq("F1"), eq(SeatReservationState.RELEASING),
+                eq(List.of(SeatReservationState.HELD, SeatReservationState.CONFIRMED)), any(), any()))
+                .thenReturn(Optional.of(recorded));
 
         ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+        req.setBookingReference("PNR-1");
         req.setCount(4);
 
         flightService.releaseSeats("F1", req);
 
-        ArgumentCaptor<Flight> captor = ArgumentCaptor.forClass(Flight.class);
-        verify(flightRepository).save(captor.capture());
-        assertEquals(9, captor.getValue().getAvailableSeats());
+        verifyNoInteractions(flightRepository, eventProducer);
+    }
+
+    @Test
+    void releaseSeats_rejectsRetry_whileFirstAttemptStaysInProgress() {
+        SeatReservation pending = new SeatReservation("PNR-1", "F1", SeatReservationState.RELEASING,
+                LocalDateTime.now(), null, null, null, 0, 0, null, null);
+        when(seatReservations.claim(eq("PNR-1"), eq("F1"), any(), any(), any(), any())).thenReturn(Optional.of(pending));
+        when(seatReservations.findById("PNR-1")).thenReturn(Optional.of(pending));
+
+        ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+        req.setBookingReference("PNR-1");
+        req.setCount(4);
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> flightService.releaseSeats("F1", req));
+        assertTrue(ex.getMessage().contains("another request"));
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void releaseSeats_keepsHold_whenInventoryUpdateFails() {
+        when(seatReservations.claim(eq("PNR-1"), eq("F1"), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(flightRepository.releaseSeats("F1", 2, List.of())).thenReturn(Optional.empty());
+
+        ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+        req.setBookingReference("PNR-1");
+        req.setCount(2);
+
+        assertThrows(BusinessException.class, () -> flightService.releaseSeats("F1", req));
+        verify(seatReservations).revertRelease(eq("PNR-1"), any());
+    }
+
+    @Test
+    void releaseSeats_takesSeatsBack_whenClaimWasTakenOver() {
+        Flight released = new Flight();
+        released.setFlightId("F1");
+        released.setAvailableSeats(10);
+        Flight retaken = new Flight();
+        retaken.setFlightId("F1");
+        retaken.setAvailableSeats(8);
+        when(seatReservations.claim(eq("PNR-1"), eq("F1"), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(flightRepository.releaseSeats("F1", 2, List.of())).thenReturn(Optional.of(released));
+        when(seatReservations.complete(any(), any(), any(), any(), any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(false);
+        when(flightRepository.reserveSeats("F1", 2, List.of())).thenReturn(Optional.of(retaken));
+
+        ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+        req.setBookingReference("PNR-1");
+        req.setCount(2);
+
+        assertThrows(ConflictException.class, () -> flightService.releaseSeats("F1", req));
+        // the request that took the claim over releases PNR-1 itself
+        verify(flightRepository).reserveSeats("F1", 2, List.of());
+        verify(eventProducer).seatsChanged(retaken);
+    }
+
+    @Test
+    void confirmSeats_makesHoldPermanent() {
+        when(seatReservations.confirm(eq("BR-1"), eq("F1"), any())).thenReturn(true);
+
+        ConfirmSeatsRequest req = new ConfirmSeatsRequest();
+        req.setBookingReference("BR-1");
+
+        flightService.confirmSeats("F1", req);
+
+        verify(seatReservations, never()).findById(any());
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void confirmSeats_retryAfterConfirm_isNoOp() {
+        SeatReservation confirmed = new SeatReservation("BR-1", "F1", SeatReservationState.CONFIRMED,
+                LocalDateTime.now(), null, null, "RES-7", 2, 8, List.of(), null);
+        when(seatReservations.confirm(eq("BR-1"), eq("F1"), any())).thenReturn(false);
+        when(seatReservations.findById("BR-1")).thenReturn(Optional.of(confirmed));
+
+        ConfirmSeatsRequest req = new ConfirmSeatsRequest();
+        req.setBookingReference("BR-1");
+
+        assertDoesNotThrow(() -> flightService.confirmSeats("F1", req));
+    }
+
+    @Test
+    void confirmSeats_rejectsExpiredHold() {
+        SeatReservation expired = new SeatReservation("BR-1", "F1", SeatReservationState.EXPIRED,
+                LocalDateTime.now(), null, "SWEEP-1", "RES-7", 2, 8, List.of(), null);
+        when(seatReservations.confirm(eq("BR-1"), eq("F1"), any())).thenReturn(false);
+        when(seatReservations.findById("BR-1")).thenReturn(Optional.of(expired));
+
+        ConfirmSeatsRequest req = new ConfirmSeatsRequest();
+        req.setBookingReference("BR-1");
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> flightService.confirmSeats("F1", req));
+        assertTrue(ex.getMessage().contains("expired"));
+    }
+
+    @Test
+    void expireSeatHolds_returnsSeatsWithOneUpdatePerFlight() {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        List<SeatReservation> holds = List.of(
+                new SeatReservation("BR-1", "F1", SeatReservationState.RELEASING, past, past, "SWEEP", "RES-1",
+                        2, 8, List.of("1A", "1B"), null),
+                new SeatReservation("BR-2", "F1", SeatReservationState.RELEASING, past, past, "SWEEP", "RES-2",
+                        1, 7, List.of("2C"), null),
+                new SeatReservation("BR-3", "F2", SeatReservationState.RELEASING, past, past, "SWEEP", "RES-3",
+                        3, 5, List.of(), null));
+        when(seatReservations.claimExpiredHolds(any(), any(), any(), eq(100))).thenReturn(holds);
+        Flight f1 = new Flight();
+        f1.setFlightId("F1");
+        Flight f2 = new Flight();
+        f2.setFlightId("F2");
+        when(flightRepository.releaseSeats("F1", 3, List.of(0, 1, 8))).thenReturn(Optional.of(f1));
+        when(flightRepository.releaseSeats("F2", 3, List.of())).thenReturn(Optional.of(f2));
+
+        assertEquals(3, flightService.expireSeatHolds(100));
+
+        verify(seatReservations).markExpired(eq(List.of("BR-1", "BR-2")), any());
+        verify(seatReservations).markExpired(eq(List.of("BR-3")), any());
+        verify(eventProducer).seatsChanged(f1);
+        verify(eventProducer).seatsChanged(f2);
+    }
+
+    @Test
+    void expireSeatHolds_leavesHoldsClaimed_whenInventoryUpdateFails() {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        when(seatReservations.claimExpiredHolds(any(), any(), any(), eq(100))).thenReturn(List.of(
+                new SeatReservation("BR-1", "F1", SeatReservationState.RELEASING, past, past, "SWEEP", "RES-1",
+                        2, 8, List.of(), null)));
+        when(flightRepository.releaseSeats("F1", 2, List.of())).thenThrow(new RuntimeException("mongo down"));
+
+        assertEquals(1, flightService.expireSeatHolds(100));
+
+        verify(seatReservations, never()).markExpired(any(), any());
+    }
+
+    private List<Flight> routeResults(int size, boolean denormalized) {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Flight f = new Flight();
+            f.setFlightId("F" + i);
+            f.setAirlineId("AL" + (i % 3));
+            if (denormalized) {
+                f.setAirlineName("Air" + (i % 3));
+            }
+            f.setSource("DEL");
+            f.setDestination("BLR");
+            flights.add(f);
+        }
+        return flights;
+    }
+
+    private FlightRequest routeSearch() {
+        FlightRequest req = new FlightRequest();
+        // mixed case on purpose: the query runs against the upper-cased keys
+        req.setSource("del");
+        req.setDestination("Blr ");
+        req.setDate(LocalDate.now().plusDays(1));
+        return req;
+    }
+
+    @Test
+    void searchFlights_resolvesAirlineNamesWithOneQuery_regardlessOfResultSize() {
+        // before batching, 200 results meant 200 airline findById calls (201 queries per search)
+        when(flightRepository.findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(
+                eq("DEL"), eq("BLR"), any(), any())).thenReturn(routeResults(200, false));
+        when(airlineRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<Airline> airlines = new ArrayList<>();
+            for (Object id : (Iterable<?>) inv.getArgument(0)) {
+                Airline a = new Airline();
+                a.setAirlineId((String) id);
+                a.setAirlineName("Air" + ((String) id).substring(2));
+                airlines.add(a);
+            }
+            return airlines;
+        });
+
+        List<FlightResponse> responses = flightService.searchFlights(routeSearch());
+
+        assertEquals(200, responses.size());
+        assertEquals("Air1", responses.get(1).getAirlineName());
+        verify(airlineRepository, times(1)).findAllById(anyIterable());
+        verify(airlineRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void searchFlights_usesDenormalizedAirlineName_withoutAirlineQueries() {
+        when(flightRepository.findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(
+                eq("DEL"), eq("BLR"), any(), any())).thenReturn(routeResults(200, true));
+
+        List<FlightResponse> responses = flightService.searchFlights(routeSearch());
+
+        assertEquals(200, responses.size());
+        assertEquals("Air2", responses.get(2).getAirlineName());
+        verifyNoInteractions(airlineRepository);
+    }
+
+    @Test
+    void searchFlights_servesRepeatRouteSearchFromCache() {
+        when(flightRepository.findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(
+                eq("DEL"), eq("BLR"), any(), any())).thenReturn(routeResults(5, true));
+
+        flightService.searchFlights(routeSearch());
+        List<FlightResponse> second = flightService.searchFlights(routeSearch());
+
+        assertEquals(5, second.size());
+        verify(flightRepository, times(1))
+                .findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void reserveSeats_invalidatesCachedSearchContainingFlight() {
+        when(flightRepository.findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(
+                eq("DEL"), eq("BLR"), any(), any())).thenReturn(routeResults(5, true));
+        Flight updated = new Flight();
+        updated.setFlightId("F3");
+        updated.setAvailableSeats(9);
+        when(flightRepository.reserveSeats("F3", 1, List.of())).thenReturn(Optional.of(updated));
+
+        flightService.searchFlights(routeSearch());
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(1);
+        flightService.reserveSeats("F3", req);
+        flightService.searchFlights(routeSearch());
+
+        verify(flightRepository, times(2))
+                .findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(anyString(), anyString(), any(), any());
+        assertEquals(1, searchCache.size());
+    }
+
+    @Test
+    void addFlights_invalidatesCachedSearchForRouteAndDay() {
+        FlightRequest search = routeSearch();
+        search.setDate(validRequest.getDepartureDateTime().toLocalDate());
+        when(flightRepository.findBySourceKeyAndDestinationKeyAndDepartureDateTimeBetween(
+                eq("DEL"), eq("BLR"), any(), any())).thenReturn(routeResults(2, true));
+        flightService.searchFlights(search);
+        assertEquals(1, searchCache.size());
+
+        Airline airline = new Airline();
+        airline.setAirlineId("AL1");
+        airline.setAirlineName("TestAir");
+        when(airlineRepository.findByAirlineNameIgnoreCase("TestAir")).thenReturn(Optional.of(airline));
+        when(flightRepository.save(any(Flight.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        flightService.addFlights(validRequest);
+
+        assertEquals(0, searchCache.size());
+    }
+
+    @Test
+    void importFlights_insertsValidRowsInOneBulkWrite_andReportsTheRest() {
+        Airline airline = new Airline();
+        airline.setAirlineId("AL1");
+        airline.setAirlineName("TestAir");
+        when(airlineRepository.findByAirlineNameIgnoreCase("TestAir")).thenReturn(Optional.of(airline));
+
+        LocalDateTime base = LocalDateTime.now().plusDays(3).withNano(0);
+        Flight existing = new Flight();
+        existing.setAirlineId("AL1");
+        existing.setSource("DEL");
+        existing.setDestination("BLR");
+        existing.setDepartureDateTime(base.plusHours(2));
+        when(flightRepository.findScheduled(anyCollection(), anyCollection())).thenReturn(List.of(existing));
+        when(flightRepository.insertUnordered(anyList())).thenReturn(Map.of());
+
+        List<FlightImportRow> rows = List.of(
+                FlightImportRow.of(1, scheduleRow(base)),
+                FlightImportRow.of(2, scheduleRow(base)),                 // same tuple as row 1
+                FlightImportRow.of(3, scheduleRow(base.plusHours(2))),    // already scheduled
+                FlightImportRow.failed(4, "price must not be null"),
+                FlightImportRow.of(5, scheduleRow(base.plusHours(4))));
+
+        BulkImportResponse response = flightService.importFlights(rows.iterator());
+
+        assertEquals(5, response.getReceived());
+        assertEquals(2, response.getImported());
+        assertEquals(List.of(2, 3, 4), response.getErrors().stream().map(BulkImportResponse.RowError::getRow).toList());
+        verify(airlineRepository, times(1)).findByAirlineNameIgnoreCase(anyString());
+        verify(flightRepository, times(1)).insertUnordered(argThat(flights -> flights.size() == 2));
+        verify(flightRepository, never()).save(any(Flight.class));
+    }
+
+    private FlightRequest scheduleRow(LocalDateTime departure) {
+        FlightRequest req = new FlightRequest();
+        req.setAirlineName("TestAir");
+        req.setSource("DEL");
+        req.setDestination("BLR");
+        req.setDepartureDateTime(departure);
+        req.setArrivalDateTime(departure.plusHours(2));
+        req.setTotalSeats(60);
+        req.setPrice(4000.0);
+        return req;
+    }
+
+    @Test
+    void airlineDirectory_servesRepeatLookupsFromMemory() {
+        Airline airline = new Airline();
+        airline.setAirlineId("AL1");
+        airline.setAirlineName("TestAir");
+        when(airlineRepository.findByAirlineNameIgnoreCase("testair")).thenReturn(Optional.of(airline));
+
+        assertEquals("AL1", airlineDirectory.findByName("testair").orElseThrow().getAirlineId());
+        assertEquals("AL1", airlineDirectory.findByName("TESTAIR").orElseThrow().getAirlineId());
+        assertEquals("TestAir", airlineDirectory.nameOf("AL1"));
+
+        verify(airlineRepository, times(1)).findByAirlineNameIgnoreCase(anyString());
+        verify(airlineRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void getSources_servedFromRouteCatalog_withoutQueries() {
+        when(routeCatalog.sources()).thenReturn(List.of("BLR", "DEL"));
+
+        assertEquals(List.of("BLR", "DEL"), flightService.getSources().get("Sources"));
+        verifyNoInteractions(flightRepository);
+    }
+
+    @Test
+    void searchFlightsPage_returnsCursorWhenMoreRowsExist() {
+        List<Flight> rows = routeResults(3, true);
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setDepartureDateTime(LocalDateTime.of(2030, 1, 1, 10, i));
+            rows.get(i).setPrice(100.0 + i);
+        }
+        when(flightRepository.searchPage(any(FlightSearchFilter.class), isNull(), eq(3))).thenReturn(rows);
+
+        FlightSearchPage page = flightService.searchFlightsPage(routeSearch(), null, 2);
+
+        assertEquals(2, page.getFlights().size());
+        SearchCursor next = SearchCursor.decode(page.getNextCursor());
+        assertEquals("F1", next.flightId());
+        assertEquals(101.0, next.price());
+        assertEquals(LocalDateTime.of(2030, 1, 1, 10, 1), next.departureDateTime());
+    }
+
+    @Test
+    void searchFlightsPage_rejectsTamperedCursor() {
+        assertThrows(BadRequestException.class,
+                () -> flightService.searchFlightsPage(routeSearch(), "not-a-cursor", 10));
+    }
+
+    @Test
+    void getFlightsByIds_loadsAllFlightsWithOneQuery() {
+        when(flightRepository.findAllById(anyIterable())).thenReturn(routeResults(3, true));
+
+        Map<String, FlightResponse> flights = flightService.getFlightsByIds(List.of("F0", "F1", "F2", "F1"));
+
+        assertEquals(3, flights.size());
+        assertEquals("Air2", flights.get("F2").getAirlineName());
+        verify(flightRepository, times(1)).findAllById(anyIterable());
+        verify(flightRepository, never()).findById(anyString());
     }
 
     @Test
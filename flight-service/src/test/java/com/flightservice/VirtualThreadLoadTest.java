@@ -0,0 +1,98 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Holds far more requests open at once than the Tomcat worker pool (capped at 8 here) could
+ * serve: every request blocks until all of them have arrived, so the test only passes when
+ * each request runs on its own virtual thread.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "flight.events.enabled=false",
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.threads.max=8",
+        "id-generator.node-id=0"
+})
+class VirtualThreadLoadTest {
+
+    private static final int CONCURRENT_REQUESTS = 1000;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Test
+    void blockedRequests_exceedPlatformPool() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/load-test/barrier"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                responses.add(callers.submit(() -> client.send(request, HttpResponse.BodyHandlers.ofString())));
+            }
+            for (Future<HttpResponse<String>> r : responses) {
+                HttpResponse<String> response = r.get(60, TimeUnit.SECONDS);
+                assertEquals(200, response.statusCode());
+                assertTrue(response.body().startsWith("VirtualThread"), response.body());
+            }
+        }
+        assertEquals(CONCURRENT_REQUESTS, BarrierController.peak.get());
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        BarrierController barrierController() {
+            return new BarrierController();
+        }
+    }
+
+    @RestController
+    static class BarrierController {
+
+        static final AtomicInteger peak = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final CountDownLatch allArrived = new CountDownLatch(CONCURRENT_REQUESTS);
+
+        @GetMapping("/load-test/barrier")
+        String barrier() throws InterruptedException {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            allArrived.countDown();
+            try {
+                // stands in for a slow Feign or Mongo call
+                if (!allArrived.await(30, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("only " + inFlight.get() + " requests ran concurrently");
+                }
+                return Thread.currentThread().toString();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
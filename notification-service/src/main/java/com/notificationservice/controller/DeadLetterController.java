@@ -0,0 +1,40 @@
+package com.notificationservice.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.notificationservice.kafka.BookingKafkaListener;
+import com.notificationservice.kafka.DeadLetterReplayer;
+
+@RestController
+@RequestMapping("/notifications/dead-letters")
+public class DeadLetterController {
+
+    private static final int MAX_REPLAY = 500;
+
+    private final DeadLetterReplayer replayer;
+
+    public DeadLetterController(DeadLetterReplayer replayer) {
+        this.replayer = replayer;
+    }
+
+    // sends up to limit dead-lettered records of the topic back through it
+    @PostMapping("/{topic}/replay")
+    public ResponseEntity<Map<String, Object>> replay(@PathVariable("topic") String topic,
+                                                      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (!BookingKafkaListener.TOPICS.contains(topic)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown topic: " + topic));
+        }
+        if (limit < 1 || limit > MAX_REPLAY) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_REPLAY));
+        }
+        int replayed = replayer.replay(topic, limit);
+        return ResponseEntity.ok(Map.of("topic", topic, "replayed", replayed));
+    }
+}
@@ -0,0 +1,8 @@
+package com.notificationservice.exceptions;
+
+// an email that cannot even be built, e.g. for a malformed address; sending it again would fail the same way
+public class InvalidEmailException extends RuntimeException {
+	public InvalidEmailException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
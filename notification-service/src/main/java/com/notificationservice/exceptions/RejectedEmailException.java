@@ -0,0 +1,10 @@
+package com.notificationservice.exceptions;
+
+import org.springframework.mail.MailSendException;
+
+// an email the mail server refused with a 5xx reply, e.g. for an unknown mailbox; sending it again gets the same answer
+public class RejectedEmailException extends MailSendException {
+	public RejectedEmailException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
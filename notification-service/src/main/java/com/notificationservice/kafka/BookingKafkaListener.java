@@ -2,71 +2,155 @@ package com.notificationservice.kafka;
 
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
-import com.notificationservice.events.BookingCreatedEvent;
-import com.notificationservice.events.BookingCancelledEvent;
+import com.bookingevents.BookingCancelledEvent;
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.codec.BookingEventCodec;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+/**
+ * Consumes booking events in batches and hands each batch's emails to the {@link EmailDispatcher};
+ * unsent records go to the {@link RetryTopics}, undecodable ones to the dead-letter topic.
+ */
 @Service
 public class BookingKafkaListener {
 
     private static final Logger log = LoggerFactory.getLogger(BookingKafkaListener.class);
 
-    private final ObjectMapper objectMapper;
+    public static final String BOOKING_CREATED = "booking-created";
+    public static final String BOOKING_CANCELLED = "booking-cancelled";
+    public static final List<String> TOPICS = List.of(BOOKING_CREATED, BOOKING_CANCELLED);
+
     private final EmailService emailService;
+    private final EmailDispatcher emailDispatcher;
+    private final RetryTopics retryTopics;
 
-    public BookingKafkaListener(EmailService emailService) {
-        this.objectMapper = new ObjectMapper()
-                .registerModule(new JavaTimeModule())  
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    public BookingKafkaListener(EmailService emailService, EmailDispatcher emailDispatcher, RetryTopics retryTopics) {
         this.emailService = emailService;
+        this.emailDispatcher = emailDispatcher;
+        this.retryTopics = retryTopics;
     }
 
 
-    @KafkaListener(topics = "booking-created", groupId = "notification-service-group")
-    public void handleBookingCreated(String message) {
+    @KafkaListener(topics = BOOKING_CREATED, groupId = "notification-service-group")
+    public void handleBookingCreated(List<ConsumerRecord<String, byte[]>> records) {
 
-        log.info("✅ Received from topic booking-created => {}", message);
+        log.info("✅ Received {} records from topic booking-created", records.size());
 
-        try {
-            BookingCreatedEvent event = objectMapper.readValue(message, BookingCreatedEvent.class);
-
-            emailService.sendBookingConfirmationEmail(
-                    event.getBookerEmailId(),
-                    event.getPnr(),
-                    event.getAirlineName(),
-                    event.getSeatsBooked(),
-                    event.getTotalAmount(),
-                    event.getBookingDateTime().toString()
-            );
-
-        } catch (Exception e) {
-            log.error("❌ Failed to parse booking-created event: {}", e.getMessage(), e);
+        process(BOOKING_CREATED, records, this::bookingCreatedEmail);
+    }
+
+
+    @KafkaListener(topics = BOOKING_CANCELLED, groupId = "notification-service-group")
+    public void handleBookingCancelled(List<ConsumerRecord<String, byte[]>> records) {
+        log.info("✅ Received {} records from topic booking-cancelled", records.size());
+
+        process(BOOKING_CANCELLED, records, this::bookingCancelledEmail);
+    }
+
+    private EmailDispatcher.Email bookingCreatedEmail(int index, byte[] payload) {
+        BookingCreatedEvent event = BookingEventCodec.decode(payload, BookingCreatedEvent.class);
+        String recipient = required(event.getBookerEmailId(), "bookerEmailId");
+        String bookedAt = required(event.getBookingDateTime(), "bookingDateTime").toString();
+        return new EmailDispatcher.Email(index, recipient, () ->
+                emailService.sendBookingConfirmationEmail(
+                        recipient,
+                        event.getPnr(),
+                        event.getAirlineName(),
+                        event.getSeatsBooked(),
+                        event.getTotalAmount(),
+                        bookedAt,
+                        locale(event.getLocale())
+                ));
+    }
+
+    private EmailDispatcher.Email bookingCancelledEmail(int index, byte[] payload) {
+        BookingCancelledEvent event = BookingEventCodec.decode(payload, BookingCancelledEvent.class);
+        String recipient = required(event.getBookerEmailId(), "bookerEmailId");
+        String cancelledAt = required(event.getCancelledAt(), "cancelledAt").toString();
+        return new EmailDispatcher.Email(index, recipient, () ->
+                emailService.sendBookingCancellationEmail(
+                        recipient,
+                        event.getPnr(),
+                        event.getAirlineName(),
+                        cancelledAt,
+                        locale(event.getLocale())
+                ));
+    }
+
+    /**
+     * Handles a batch from one retry topic of {@code topic}. Its records share a delay, so they
+     * arrive in the order they became due; those not due yet are redelivered once the first of
+     * them is, pausing only the container of that retry topic meanwhile.
+     */
+    public void retry(String topic, List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        EmailFactory emails = BOOKING_CREATED.equals(topic) ? this::bookingCreatedEmail : this::bookingCancelledEmail;
+        int due = 0;
+        while (due < records.size() && retryTopics.untilDue(records.get(due)).isZero()) {
+            due++;
+        }
+        if (due > 0) {
+            log.info("🔁 Retrying {} {} records", due, topic);
+            process(topic, records.subList(0, due), emails);
+        }
+        if (due < records.size()) {
+            ack.nack(due, retryTopics.untilDue(records.get(due)));
+        } else {
+            ack.acknowledge();
+        }
+    }
+
+    private void process(String topic, List<ConsumerRecord<String, byte[]>> records, EmailFactory emails) {
+        List<EmailDispatcher.Email> batch = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, byte[]> record = records.get(i);
+            try {
+                batch.add(emails.create(i, record.value()));
+            } catch (IllegalArgumentException e) {
+                // a record that does not decode, or lacks a required field, never will
+                log.error("❌ Failed to decode {} event at offset {}: {}", record.topic(), record.offset(), e.getMessage(), e);
+                forward(i, () -> retryTopics.deadLetter(topic, record, e));
+            }
+        }
+        for (EmailDispatcher.Failure failure : emailDispatcher.dispatch(batch)) {
+            forward(failure.index(), () -> retryTopics.forward(topic, records.get(failure.index()), failure.cause()));
         }
     }
 
+    // if a record cannot be forwarded, the batch is committed up to it and redelivered from it
+    private static void forward(int index, Runnable send) {
+        try {
+            send.run();
+        } catch (KafkaException ex) {
+            throw new BatchListenerFailedException("Forwarding failed record: " + ex.getMessage(), ex, index);
+        }
+    }
 
-    @KafkaListener(topics = "booking-cancelled", groupId = "notification-service-group")
-    public void handleBookingCancelled(String message, ConsumerRecord<String, String> record) throws JsonProcessingException {
-        log.info("✅ Received from topic {} => {}", record.topic(), message);
+    // an event without these cannot be mailed, however often it is retried
+    private static <T> T required(T value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        return value;
+    }
 
-        BookingCancelledEvent event = objectMapper.readValue(message, BookingCancelledEvent.class);
+    private static Locale locale(String languageTag) {
+        return languageTag != null && !languageTag.isBlank() ? Locale.forLanguageTag(languageTag) : null;
+    }
 
-        emailService.sendBookingCancellationEmail(
-                event.getBookerEmailId(),
-                event.getPnr(),
-                event.getAirlineName(),
-                event.getCancelledAt().toString()
-        );
+    @FunctionalInterface
+    private interface EmailFactory {
+        EmailDispatcher.Email create(int index, byte[] payload);
     }
 }
-
@@ -0,0 +1,89 @@
+package com.notificationservice.kafka;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-drives dead-lettered records through their original topic, e.g. once a mail server outage
+ * is over. A separate consumer group tracks how far each dead-letter topic has been replayed, so
+ * every dead-lettered record is replayed once.
+ */
+@Service
+public class DeadLetterReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    private static final String REPLAY_GROUP = "notification-service-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final RetryTopics retryTopics;
+
+    public DeadLetterReplayer(ConsumerFactory<String, byte[]> consumerFactory, RetryTopics retryTopics) {
+        this.consumerFactory = consumerFactory;
+        this.retryTopics = retryTopics;
+    }
+
+    /**
+     * Sends up to {@code limit} of the topic's dead-lettered records back to it, oldest first
+     * within each partition.
+     *
+     * @return how many records were replayed
+     */
+    public synchronized int replay(String topic, int limit) {
+        String deadLetterTopic = retryTopics.deadLetterTopic(topic);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, limit);
+
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(REPLAY_GROUP, "dlt-replay", null, overrides)) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(deadLetterTopic);
+            if (partitions == null || partitions.isEmpty()) {
+                return 0;
+            }
+            consumer.assign(partitions.stream().map(p -> new TopicPartition(deadLetterTopic, p.partition())).toList());
+
+            Map<TopicPartition, OffsetAndMetadata> replayed = new HashMap<>();
+            int count = 0;
+            try {
+                while (count < limit) {
+                    ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                    if (records.isEmpty()) {
+                        break;
+                    }
+                    for (ConsumerRecord<String, byte[]> record : records) {
+                        if (count == limit) {
+                            break;
+                        }
+                        retryTopics.replay(topic, record);
+                        replayed.put(new TopicPartition(record.topic(), record.partition()),
+                                new OffsetAndMetadata(record.offset() + 1));
+                        count++;
+                    }
+                }
+            } finally {
+                // what was sent back is not replayed again, even if a later send failed
+                if (!replayed.isEmpty()) {
+                    consumer.commitSync(replayed);
+                }
+            }
+            log.info("♻ Replayed {} records from {} to {}", count, deadLetterTopic, topic);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.notificationservice.kafka;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the emails of one consumed batch in parallel, one recipient's emails in record order; once
+ * one fails, that recipient's later emails are reported failed with it rather than sent ahead of it.
+ */
+@Component
+public class EmailDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private final ExecutorService executor;
+
+    public EmailDispatcher(@Value("${notification.dispatch.threads:16}") int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory named = task -> {
+            Thread thread = new Thread(task, "email-dispatch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(threads, named);
+    }
+
+    /**
+     * Sends every email of the batch and returns, once all have been attempted, the ones that
+     * were not sent, in record order.
+     */
+    public List<Failure> dispatch(List<Email> emails) {
+        Map<String, List<Email>> byRecipient = new LinkedHashMap<>();
+        for (Email email : emails) {
+            String recipient = email.recipient() != null ? email.recipient().toLowerCase(Locale.ROOT) : "";
+            byRecipient.computeIfAbsent(recipient, r -> new ArrayList<>()).add(email);
+        }
+
+        List<Future<List<Failure>>> pending = new ArrayList<>(byRecipient.size());
+        for (List<Email> recipientEmails : byRecipient.values()) {
+            pending.add(executor.submit(() -> sendInOrder(recipientEmails)));
+        }
+
+        List<Failure> failures = new ArrayList<>();
+        for (Future<List<Failure>> result : pending) {
+            failures.addAll(await(result));
+        }
+        failures.sort(Comparator.comparingInt(Failure::index));
+        return failures;
+    }
+
+    private static List<Failure> sendInOrder(List<Email> emails) {
+        for (int i = 0; i < emails.size(); i++) {
+            Email email = emails.get(i);
+            try {
+                email.send().run();
+            } catch (RuntimeException ex) {
+                log.warn("❌ Email for record {} to {} failed: {}", email.index(), email.recipient(), ex.getMessage());
+                List<Failure> failures = new ArrayList<>();
+                failures.add(new Failure(email.index(), ex));
+                for (Email skipped : emails.subList(i + 1, emails.size())) {
+                    failures.add(new Failure(skipped.index(),
+                            new IllegalStateException("Not sent: an earlier email to " + email.recipient() + " failed")));
+                }
+                return failures;
+            }
+        }
+        return List.of();
+    }
+
+    private static List<Failure> await(Future<List<Failure>> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending emails", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Email dispatch task failed", ex.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * One email to send; {@code index} is the position of its record in the consumed batch.
+     */
+    public record Email(int index, String recipient, Runnable send) {
+    }
+
+    /**
+     * An email that was not sent, by the position of its record in the consumed batch.
+     */
+    public record Failure(int index, RuntimeException cause) {
+    }
+}
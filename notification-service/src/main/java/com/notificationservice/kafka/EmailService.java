@@ -1,5 +1,8 @@
 package com.notificationservice.kafka;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
@@ -8,73 +11,64 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import com.notificationservice.exceptions.InvalidEmailException;
+import com.notificationservice.mail.SmtpConnectionPool;
+import com.notificationservice.template.EmailKind;
+import com.notificationservice.template.EmailTemplates;
+import com.notificationservice.template.EmailTemplates.RenderedEmail;
+
 @Service
 public class EmailService {
 
     private static final Logger log = LoggerFactory.getLogger(EmailService.class);
 
     private final JavaMailSender mailSender;
+    private final SmtpConnectionPool smtpConnectionPool;
+    private final EmailTemplates emailTemplates;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, SmtpConnectionPool smtpConnectionPool, EmailTemplates emailTemplates) {
         this.mailSender = mailSender;
+        this.smtpConnectionPool = smtpConnectionPool;
+        this.emailTemplates = emailTemplates;
     }
 
+    // a null locale means the default one
     public void sendBookingConfirmationEmail(String to, String pnr, String airlineName,
-                                             int seatsBooked, Double totalAmount, String dateTime) {
+                                             int seatsBooked, Double totalAmount, String dateTime, Locale locale) {
 
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-            helper.setTo(to);
-            helper.setSubject("Flight Booking Confirmation - " + pnr);
-
-            String htmlMsg = """
-                    <h2>Flight Booking Confirmed</h2>
-                    <p>Your booking is confirmed!</p>
-                    <p><b>PNR:</b> %s</p>
-                    <p><b>Airline:</b> %s</p>
-                    <p><b>Seats:</b> %d</p>
-                    <p><b>Total Amount:</b> %s</p>
-                    <p><b>Date & Time:</b> %s</p>
-                    """.formatted(pnr, airlineName, seatsBooked, totalAmount, dateTime);
-
-            helper.setText(htmlMsg, true);
-
-            mailSender.send(message);
+            send(to, emailTemplates.render(EmailKind.BOOKING_CONFIRMED, locale,
+                    pnr, airlineName, seatsBooked, totalAmount, dateTime));
 
             log.info("📧 Email sent successfully to: {}", to);
 
-        } catch (MessagingException e) {
-            log.error("❌ Failed to send booking confirmation email: {}", e.getMessage());
+        } catch (MessagingException | IllegalArgumentException e) {
+            throw new InvalidEmailException("Cannot build booking confirmation email to " + to + ": " + e.getMessage(), e);
         }
     }
 
-    public void sendBookingCancellationEmail(String to, String pnr, String airlineName, String cancelledAt) {
+    public void sendBookingCancellationEmail(String to, String pnr, String airlineName, String cancelledAt,
+                                             Locale locale) {
 
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+            send(to, emailTemplates.render(EmailKind.BOOKING_CANCELLED, locale, pnr, airlineName, cancelledAt));
 
-            helper.setTo(to);
-            helper.setSubject("Flight Booking Cancelled - " + pnr);
-
-            String htmlMsg = """
-                    <h2>Flight Booking Cancelled</h2>
-                    <p>Your booking has been cancelled.</p>
-                    <p><b>PNR:</b> %s</p>
-                    <p><b>Airline:</b> %s</p>
-                    <p><b>Cancelled At:</b> %s</p>
-                    """.formatted(pnr, airlineName, cancelledAt);
+            log.info("📧 Cancellation email sent to: {}", to);
 
-            helper.setText(htmlMsg, true);
+        } catch (MessagingException | IllegalArgumentException e) {
+            throw new InvalidEmailException("Cannot build cancellation email to " + to + ": " + e.getMessage(), e);
+        }
+    }
 
-            mailSender.send(message);
+    private void send(String to, RenderedEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        // nothing is attached, so a single text/html part instead of a multipart
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, StandardCharsets.UTF_8.name());
 
-            log.info("📧 Cancellation email sent to: {}", to);
+        helper.setTo(to);
+        helper.setSubject(email.subject());
+        helper.setText(email.html(), true);
 
-        } catch (MessagingException e) {
-            log.error("❌ Failed to send cancellation email: {}", e.getMessage());
-        }
+        smtpConnectionPool.send(message);
     }
 }
@@ -0,0 +1,44 @@
+package com.notificationservice.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+// creates the retry and dead-letter topics of each consumed topic at startup if missing
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${notification.retry.partitions:1}")
+    private int partitions;
+
+    @Value("${notification.retry.replicas:1}")
+    private short replicas;
+
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        return new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics notificationRetryTopics(RetryTopics retryTopics) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : BookingKafkaListener.TOPICS) {
+            for (String retryTopic : retryTopics.retryTopicNames(topic)) {
+                topics.add(TopicBuilder.name(retryTopic).partitions(partitions).replicas(replicas).build());
+            }
+            topics.add(TopicBuilder.name(retryTopics.deadLetterTopic(topic)).partitions(partitions).replicas(replicas).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+}
@@ -0,0 +1,65 @@
+package com.notificationservice.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * One listener container per retry topic. Records wait in a retry topic until they are due, and
+ * a waiting container stops polling all of its topics, so each delay gets its own container and
+ * records due in seconds never wait behind records due in minutes.
+ */
+@Component
+public class RetryListenerContainers implements SmartLifecycle {
+
+    private final ConcurrentKafkaListenerContainerFactory<String, byte[]> factory;
+    private final BookingKafkaListener listener;
+    private final RetryTopics retryTopics;
+    private final List<ConcurrentMessageListenerContainer<String, byte[]>> containers = new ArrayList<>();
+
+    public RetryListenerContainers(
+            @Qualifier("retryListenerContainerFactory") ConcurrentKafkaListenerContainerFactory<String, byte[]> factory,
+            BookingKafkaListener listener, RetryTopics retryTopics) {
+        this.factory = factory;
+        this.listener = listener;
+        this.retryTopics = retryTopics;
+    }
+
+    @Override
+    public synchronized void start() {
+        for (String topic : BookingKafkaListener.TOPICS) {
+            for (String retryTopic : retryTopics.retryTopicNames(topic)) {
+                ConcurrentMessageListenerContainer<String, byte[]> container = factory.createContainer(retryTopic);
+                container.setBeanName(retryTopic);
+                container.setupMessageListener((BatchAcknowledgingMessageListener<String, byte[]>)
+                        (records, ack) -> listener.retry(topic, records, ack));
+                container.start();
+                containers.add(container);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return !containers.isEmpty();
+    }
+
+    // stopped together with the annotated listeners, before the producers they forward to
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+}
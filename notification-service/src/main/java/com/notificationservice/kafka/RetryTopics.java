@@ -0,0 +1,172 @@
+package com.notificationservice.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.notificationservice.exceptions.InvalidEmailException;
+import com.notificationservice.exceptions.RejectedEmailException;
+
+/**
+ * Routes records whose email failed away from the topic they came from, so they never hold up
+ * the records behind them. A failed record goes to {@code <topic>-retry-0}, is consumed again
+ * once its delay has passed, and on each further failure moves to the next retry topic with the
+ * delay multiplied; after the last one, or straight away when retrying cannot help, it lands in
+ * {@code <topic>-dlt}, from where it can be replayed. The attempt count, due time and last
+ * error travel in record headers.
+ */
+@Component
+public class RetryTopics {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryTopics.class);
+
+    static final String ATTEMPT_HEADER = "notification-attempt";
+    static final String DUE_AT_HEADER = "notification-due-at";
+    static final String ERROR_HEADER = "notification-error";
+    static final String ORIGINAL_OFFSET_HEADER = "notification-original-offset";
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int attempts;
+    private final Duration initialDelay;
+    private final double multiplier;
+
+    public RetryTopics(KafkaTemplate<String, byte[]> kafkaTemplate,
+                       @Value("${notification.retry.attempts:3}") int attempts,
+                       @Value("${notification.retry.initial-delay:PT10S}") Duration initialDelay,
+                       @Value("${notification.retry.multiplier:6}") double multiplier) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.attempts = attempts;
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+    }
+
+    public String[] retryTopicNames(String topic) {
+        String[] names = new String[attempts];
+        for (int i = 0; i < attempts; i++) {
+            names[i] = topic + "-retry-" + i;
+        }
+        return names;
+    }
+
+    public String deadLetterTopic(String topic) {
+        return topic + "-dlt";
+    }
+
+    /**
+     * Sends a record whose email failed on to its next retry topic, or to the dead-letter topic
+     * once it is out of attempts or the failure is permanent, and waits until it is stored.
+     *
+     * @throws KafkaException if the record could not be stored
+     */
+    public void forward(String topic, ConsumerRecord<String, byte[]> record, Exception cause) {
+        int failed = attempt(record) + 1;
+        if (cause instanceof InvalidEmailException || cause instanceof RejectedEmailException || failed > attempts) {
+            deadLetter(topic, record, cause);
+            return;
+        }
+        Duration delay = Duration.ofMillis(Math.round(initialDelay.toMillis() * Math.pow(multiplier, failed - 1)));
+        ProducerRecord<String, byte[]> retry = copy(topic + "-retry-" + (failed - 1), record, cause);
+        retry.headers().add(ATTEMPT_HEADER, bytes(Integer.toString(failed)));
+        retry.headers().add(DUE_AT_HEADER, bytes(Long.toString(Instant.now().plus(delay).toEpochMilli())));
+        send(retry);
+        log.warn("↪ {} record {} failed (attempt {}), retrying in {}: {}", topic, record.key(), failed, delay,
+                cause.getMessage());
+    }
+
+    /**
+     * Sends a record straight to the dead-letter topic and waits until it is stored.
+     *
+     * @throws KafkaException if the record could not be stored
+     */
+    public void deadLetter(String topic, ConsumerRecord<String, byte[]> record, Exception cause) {
+        ProducerRecord<String, byte[]> dead = copy(deadLetterTopic(topic), record, cause);
+        dead.headers().add(ATTEMPT_HEADER, bytes(Integer.toString(attempt(record) + 1)));
+        send(dead);
+        log.error("☠ {} record {} dead-lettered: {}", topic, record.key(), cause.getMessage());
+    }
+
+    /**
+     * Sends a dead-lettered record back to its topic as if it had never failed.
+     *
+     * @throws KafkaException if the record could not be stored
+     */
+    public void replay(String topic, ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, byte[]> replayed = new ProducerRecord<>(topic, record.key(), record.value());
+        copyForeignHeaders(record.headers(), replayed.headers());
+        send(replayed);
+    }
+
+    // how long a retried record still has to wait; zero once due
+    public Duration untilDue(ConsumerRecord<String, byte[]> record) {
+        Header due = record.headers().lastHeader(DUE_AT_HEADER);
+        if (due == null) {
+            return Duration.ZERO;
+        }
+        Duration wait = Duration.between(Instant.now(), Instant.ofEpochMilli(Long.parseLong(string(due.value()))));
+        return wait.isNegative() ? Duration.ZERO : wait;
+    }
+
+    private static int attempt(ConsumerRecord<String, byte[]> record) {
+        Header attempt = record.headers().lastHeader(ATTEMPT_HEADER);
+        return attempt != null ? Integer.parseInt(string(attempt.value())) : 0;
+    }
+
+    private static ProducerRecord<String, byte[]> copy(String target, ConsumerRecord<String, byte[]> record,
+                                                       Exception cause) {
+        ProducerRecord<String, byte[]> copy = new ProducerRecord<>(target, record.key(), record.value());
+        copyForeignHeaders(record.headers(), copy.headers());
+        Header originalOffset = record.headers().lastHeader(ORIGINAL_OFFSET_HEADER);
+        copy.headers().add(ORIGINAL_OFFSET_HEADER, originalOffset != null ? originalOffset.value()
+                : bytes(record.topic() + "-" + record.partition() + "@" + record.offset()));
+        String error = String.valueOf(cause.getMessage());
+        copy.headers().add(ERROR_HEADER, bytes(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error));
+        return copy;
+    }
+
+    // headers the producer set; ours are rewritten on every hop
+    private static void copyForeignHeaders(Headers from, Headers to) {
+        for (Header header : from) {
+            if (!header.key().startsWith("notification-")) {
+                to.add(header);
+            }
+        }
+    }
+
+    private void send(ProducerRecord<String, byte[]> record) {
+        try {
+            kafkaTemplate.send(record).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while sending to " + record.topic(), ex);
+        } catch (ExecutionException ex) {
+            throw new KafkaException("Sending to " + record.topic() + " failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new KafkaException("Sending to " + record.topic() + " timed out", ex);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,198 @@
+package com.notificationservice.mail;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import com.notificationservice.exceptions.RejectedEmailException;
+
+/**
+ * Sends mail over a pool of open SMTP connections rather than one per message; a message that
+ * fails on a reused connection is sent again once on a new one.
+ */
+@Component
+public class SmtpConnectionPool implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpConnectionPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutNanos;
+    private final Semaphore permits;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+
+    public SmtpConnectionPool(JavaMailSenderImpl mailSender,
+                              @Value("${notification.smtp.pool.max-connections:8}") int maxConnections,
+                              @Value("${notification.smtp.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                              @Value("${notification.smtp.pool.idle-timeout:PT30S}") Duration idleTimeout) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Sends the message, waiting for a free connection if all are in use.
+     */
+    public void send(MimeMessage message) {
+        prepare(message);
+        acquirePermit();
+        try {
+            Connection connection = pooled();
+            if (connection != null) {
+                try {
+                    deliver(connection, message);
+                    return;
+                } catch (MessagingException ex) {
+                    log.debug("Sending over a pooled SMTP connection failed, reconnecting: {}", ex.getMessage());
+                    connection.close();
+                }
+            }
+            connection = connect();
+            try {
+                deliver(connection, message);
+            } catch (MessagingException ex) {
+                connection.close();
+                if (refused(ex)) {
+                    throw new RejectedEmailException("Mail refused: " + ex.getMessage(), ex);
+                }
+                throw new MailSendException("Failed to send mail: " + ex.getMessage(), ex);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // a 5xx reply; recipients refused at RCPT TO with one are reported as invalid addresses
+    private static boolean refused(MessagingException ex) {
+        if (ex instanceof SMTPSendFailedException failed) {
+            return failed.getReturnCode() >= 500;
+        }
+        return ex instanceof SendFailedException failed
+                && failed.getInvalidAddresses() != null && failed.getInvalidAddresses().length > 0;
+    }
+
+    // what Transport.send does before sending, and JavaMailSenderImpl on top of it
+    private static void prepare(MimeMessage message) {
+        try {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            String messageId = message.getMessageID();
+            message.saveChanges();
+            if (messageId != null) {
+                message.setHeader("Message-ID", messageId);
+            }
+        } catch (MessagingException ex) {
+            throw new MailPreparationException(ex);
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", ex);
+        }
+    }
+
+    private void deliver(Connection connection, MimeMessage message) throws MessagingException {
+        connection.transport.sendMessage(message, message.getAllRecipients());
+        connection.sent++;
+        connection.lastUsed = System.nanoTime();
+        if (connection.sent >= maxMessagesPerConnection) {
+            connection.close();
+        } else {
+            synchronized (idle) {
+                idle.push(connection);
+            }
+        }
+    }
+
+    // the most recently used idle connection that is still worth reusing, or null
+    private Connection pooled() {
+        while (true) {
+            Connection connection;
+            synchronized (idle) {
+                connection = idle.poll();
+            }
+            if (connection == null) {
+                return null;
+            }
+            // not Transport.isConnected(), which costs a NOOP; the send notices a dropped connection
+            if (System.nanoTime() - connection.lastUsed < idleTimeoutNanos) {
+                return connection;
+            }
+            connection.close();
+        }
+    }
+
+    private Connection connect() {
+        try {
+            return new Connection(mailSender.getSession().getTransport(mailSender.getProtocol()));
+        } catch (MessagingException ex) {
+            throw new MailSendException("Mail server connection failed", ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (idle) {
+            idle.forEach(Connection::close);
+            idle.clear();
+        }
+    }
+
+    private final class Connection {
+
+        private final Transport transport;
+        private int sent;
+        private long lastUsed;
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+            String username = mailSender.getUsername();
+            String password = mailSender.getPassword();
+            try {
+                if ("".equals(username)) {
+                    username = null;
+                    if ("".equals(password)) {
+                        password = null;
+                    }
+                }
+                transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+            } catch (AuthenticationFailedException ex) {
+                throw new MailAuthenticationException(ex);
+            } catch (MessagingException ex) {
+                throw new MailSendException("Mail server connection failed", ex);
+            }
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException ex) {
+                // dropped already
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.notificationservice.template;
+
+import java.util.List;
+
+/**
+ * The emails sent, each a template {@code templates/email/<fileName>[_<locale>].html} filled
+ * with the parameters listed here, in order.
+ */
+public enum EmailKind {
+
+    BOOKING_CONFIRMED("booking-confirmed", "pnr", "airlineName", "seatsBooked", "totalAmount", "dateTime"),
+    BOOKING_CANCELLED("booking-cancelled", "pnr", "airlineName", "cancelledAt");
+
+    private final String fileName;
+    private final List<String> parameters;
+
+    EmailKind(String fileName, String... parameters) {
+        this.fileName = fileName;
+        this.parameters = List.of(parameters);
+    }
+
+    public String fileName() {
+        return fileName;
+    }
+
+    public List<String> parameters() {
+        return parameters;
+    }
+}
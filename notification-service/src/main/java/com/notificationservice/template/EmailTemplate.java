@@ -0,0 +1,114 @@
+package com.notificationservice.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An email template (subject line, blank line, HTML body) parsed once into literals and
+ * HTML-escaped parameters.
+ */
+public final class EmailTemplate {
+
+    private final Segments subject;
+    private final Segments body;
+
+    private EmailTemplate(Segments subject, Segments body) {
+        this.subject = subject;
+        this.body = body;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the source is malformed or uses a placeholder that is
+     *         not one of {@code parameters}
+     */
+    public static EmailTemplate compile(String name, String source, List<String> parameters) {
+        String text = source.replace("\r\n", "\n");
+        int subjectEnd = text.indexOf('\n');
+        if (subjectEnd < 0 || !text.startsWith("\n", subjectEnd + 1)) {
+            throw new IllegalArgumentException("Template " + name + " must start with a subject line and a blank line");
+        }
+        return new EmailTemplate(
+                Segments.parse(name, text.substring(0, subjectEnd), parameters, false),
+                Segments.parse(name, text.substring(subjectEnd + 2), parameters, true));
+    }
+
+    void renderSubject(StringBuilder out, Object[] values) {
+        subject.renderTo(out, values);
+    }
+
+    void renderBody(StringBuilder out, Object[] values) {
+        body.renderTo(out, values);
+    }
+
+    private static final class Segments {
+
+        // literals[i] precedes the value of parameters[parameterIndexes[i]]; one literal more than values
+        private final String[] literals;
+        private final int[] parameterIndexes;
+        private final boolean html;
+
+        private Segments(String[] literals, int[] parameterIndexes, boolean html) {
+            this.literals = literals;
+            this.parameterIndexes = parameterIndexes;
+            this.html = html;
+        }
+
+        static Segments parse(String name, String text, List<String> parameters, boolean html) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            int from = 0;
+            int open;
+            while ((open = text.indexOf("{{", from)) >= 0) {
+                int close = text.indexOf("}}", open + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed {{ in template " + name);
+                }
+                String parameter = text.substring(open + 2, close).trim();
+                int index = parameters.indexOf(parameter);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Unknown placeholder {{" + parameter + "}} in template " + name
+                            + ", expected one of " + parameters);
+                }
+                literals.add(text.substring(from, open));
+                indexes.add(index);
+                from = close + 2;
+            }
+            literals.add(text.substring(from));
+            return new Segments(literals.toArray(String[]::new), indexes.stream().mapToInt(Integer::intValue).toArray(),
+                    html);
+        }
+
+        void renderTo(StringBuilder out, Object[] values) {
+            for (int i = 0; i < parameterIndexes.length; i++) {
+                out.append(literals[i]);
+                String value = String.valueOf(values[parameterIndexes[i]]);
+                if (html) {
+                    appendEscaped(out, value);
+                } else {
+                    out.append(value);
+                }
+            }
+            out.append(literals[parameterIndexes.length]);
+        }
+
+        // copies unescaped runs straight into the buffer
+        private static void appendEscaped(StringBuilder out, String value) {
+            int run = 0;
+            for (int i = 0; i < value.length(); i++) {
+                String entity = switch (value.charAt(i)) {
+                    case '&' -> "&amp;";
+                    case '<' -> "&lt;";
+                    case '>' -> "&gt;";
+                    case '"' -> "&quot;";
+                    case '\'' -> "&#39;";
+                    default -> null;
+                };
+                if (entity != null) {
+                    out.append(value, run, i).append(entity);
+                    run = i + 1;
+                }
+            }
+            out.append(value, run, value.length());
+        }
+    }
+}
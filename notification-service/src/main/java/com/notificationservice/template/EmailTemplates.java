@@ -0,0 +1,114 @@
+package com.notificationservice.template;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Every email template, compiled at startup; an email uses the closest variant of the requested
+ * locale, then of the default one, then the unsuffixed template.
+ */
+@Component
+public class EmailTemplates {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailTemplates.class);
+
+    private static final String LOCATION = "classpath*:templates/email/*.html";
+    // a buffer grown past this by an unusually large email is not kept for the next one
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final Locale defaultLocale;
+    private final Map<EmailKind, Map<Locale, EmailTemplate>> templates = new EnumMap<>(EmailKind.class);
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(2048));
+
+    public EmailTemplates(ResourceLoader resourceLoader,
+                          @Value("${notification.templates.default-locale:en}") String defaultLocale) throws IOException {
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale);
+        Map<String, EmailKind> kinds = new HashMap<>();
+        for (EmailKind kind : EmailKind.values()) {
+            kinds.put(kind.fileName(), kind);
+            templates.put(kind, new HashMap<>());
+        }
+
+        ResourcePatternResolver resolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        for (Resource resource : resolver.getResources(LOCATION)) {
+            String file = resource.getFilename();
+            String name = file.substring(0, file.length() - ".html".length());
+            int localeStart = name.indexOf('_');
+            String baseName = localeStart < 0 ? name : name.substring(0, localeStart);
+            EmailKind kind = kinds.get(baseName);
+            if (kind == null) {
+                log.warn("Ignoring email template {}: no email uses it", file);
+                continue;
+            }
+            Locale locale = localeStart < 0 ? Locale.ROOT
+                    : Locale.forLanguageTag(name.substring(localeStart + 1).replace('_', '-'));
+            String source = resource.getContentAsString(StandardCharsets.UTF_8);
+            templates.get(kind).put(locale, EmailTemplate.compile(file, source, kind.parameters()));
+        }
+
+        for (EmailKind kind : EmailKind.values()) {
+            if (resolve(kind, null) == null) {
+                throw new IllegalStateException("No template for " + kind + " in the default locale " + defaultLocale
+                        + " under " + LOCATION);
+            }
+        }
+    }
+
+    /**
+     * Renders an email; {@code values} are the kind's parameters in order, and a null
+     * {@code locale} means the default one.
+     */
+    public RenderedEmail render(EmailKind kind, Locale locale, Object... values) {
+        if (values.length != kind.parameters().size()) {
+            throw new IllegalArgumentException(kind + " takes " + kind.parameters() + ", got " + values.length + " values");
+        }
+        EmailTemplate template = resolve(kind, locale);
+
+        StringBuilder buffer = buffers.get();
+        try {
+            buffer.setLength(0);
+            template.renderSubject(buffer, values);
+            String subject = buffer.toString();
+            buffer.setLength(0);
+            template.renderBody(buffer, values);
+            return new RenderedEmail(subject, buffer.toString());
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                buffers.remove();
+            }
+        }
+    }
+
+    private EmailTemplate resolve(EmailKind kind, Locale locale) {
+        Map<Locale, EmailTemplate> variants = templates.get(kind);
+        EmailTemplate template = locale != null ? find(variants, locale) : null;
+        if (template == null) {
+            template = find(variants, defaultLocale);
+        }
+        return template != null ? template : variants.get(Locale.ROOT);
+    }
+
+    private static EmailTemplate find(Map<Locale, EmailTemplate> variants, Locale locale) {
+        EmailTemplate template = variants.get(locale);
+        if (template == null && !locale.getCountry().isEmpty()) {
+            template = variants.get(new Locale(locale.getLanguage()));
+        }
+        return template;
+    }
+
+    public record RenderedEmail(String subject, String html) {
+    }
+}
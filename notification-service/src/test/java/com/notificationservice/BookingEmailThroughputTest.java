@@ -0,0 +1,107 @@
+package com.notificationservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.BookingEvent;
+import com.bookingevents.codec.BookingEventSerializer;
+
+/**
+ * A burst of booking-created events through an embedded broker and a slow SMTP stand-in, mailed
+ * in parallel and in booking order per recipient.
+ */
+@SpringBootTest(properties = {
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "spring.mail.host=127.0.0.1",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "notification.dispatch.threads=16"
+})
+@EmbeddedKafka(partitions = 1, topics = {"booking-created", "booking-cancelled"},
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+class BookingEmailThroughputTest {
+
+    private static final int BOOKINGS = 2000;
+    private static final int RECIPIENTS = 100;
+    private static final Duration SMTP_LATENCY = Duration.ofMillis(20);
+
+    private static final SmtpStandIn smtp = SmtpStandIn.start(SMTP_LATENCY);
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @DynamicPropertySource
+    static void mailServer(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.port", smtp::port);
+    }
+
+    @AfterAll
+    static void stopMailServer() {
+        smtp.close();
+    }
+
+    @Test
+    void burstOfBookings_isMailedInParallel_inOrderPerRecipient() throws Exception {
+        long start = System.nanoTime();
+        try (KafkaProducer<String, BookingEvent> producer = producer()) {
+            for (int i = 0; i < BOOKINGS; i++) {
+                BookingCreatedEvent event = new BookingCreatedEvent("PNR-" + i, "user" + (i % RECIPIENTS) + "@test.com",
+                        "FL1", "TestAir", 1, 5000.0, LocalDateTime.of(2026, 1, 1, 10, 0), null);
+                producer.send(new ProducerRecord<>("booking-created", event.getPnr(), event));
+            }
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (smtp.received().size() < BOOKINGS && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        List<SmtpStandIn.Message> received = smtp.received();
+
+        assertEquals(BOOKINGS, received.size());
+        assertTrue(smtp.peakSessions() > 1, "emails were sent one at a time");
+        Duration serial = SMTP_LATENCY.multipliedBy(BOOKINGS);
+        assertTrue(elapsed.compareTo(serial.dividedBy(2)) < 0,
+                "took " + elapsed + ", sending one email at a time takes at least " + serial);
+
+        Map<String, List<Integer>> pnrsByRecipient = new LinkedHashMap<>();
+        for (SmtpStandIn.Message message : received) {
+            int pnr = Integer.parseInt(message.subject().substring(message.subject().lastIndexOf('-') + 1));
+            pnrsByRecipient.computeIfAbsent(message.recipient(), r -> new ArrayList<>()).add(pnr);
+        }
+        assertEquals(RECIPIENTS, pnrsByRecipient.size());
+        pnrsByRecipient.forEach((recipient, pnrs) ->
+                assertEquals(pnrs.stream().sorted().toList(), pnrs, "out of order for " + recipient));
+    }
+
+    private KafkaProducer<String, BookingEvent> producer() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BookingEventSerializer.class);
+        return new KafkaProducer<>(props);
+    }
+}
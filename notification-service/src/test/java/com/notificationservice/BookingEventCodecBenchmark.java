@@ -0,0 +1,88 @@
+package com.notificationservice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.codec.BookingEventCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Cost per booking-created event of writing it on the booking side and reading it back on the
+ * notification side: the binary {@link BookingEventCodec} against the former JSON round trip,
+ * written as bytes by the producer, consumed as a String and parsed with an ObjectMapper.
+ * The payload sizes are printed before the run. Not part of the test run; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.notificationservice.BookingEventCodecBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingEventCodecBenchmark {
+
+    private static final BookingCreatedEvent EVENT = new BookingCreatedEvent("PNR-123456", "user@test.com", "FL1",
+            "TestAir", 2, 5000.0, LocalDateTime.of(2026, 1, 1, 10, 0, 0, 123_456_000), "fr-FR");
+
+    private ObjectMapper objectMapper;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = objectMapper();
+        json = objectMapper.writeValueAsBytes(EVENT);
+        binary = BookingEventCodec.encode(EVENT);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return BookingEventCodec.encode(EVENT);
+    }
+
+    @Benchmark
+    public BookingCreatedEvent binaryDecode() {
+        return BookingEventCodec.decode(binary, BookingCreatedEvent.class);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(EVENT);
+    }
+
+    @Benchmark
+    public BookingCreatedEvent jsonDecode() throws JsonProcessingException {
+        return objectMapper.readValue(new String(json, StandardCharsets.UTF_8), BookingCreatedEvent.class);
+    }
+
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    public static void main(String[] args) throws RunnerException, JsonProcessingException {
+        System.out.printf("booking-created payload: %d bytes binary, %d bytes JSON%n",
+                BookingEventCodec.encode(EVENT).length, objectMapper().writeValueAsBytes(EVENT).length);
+        new Runner(new OptionsBuilder().include(BookingEventCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.notificationservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.bookingevents.BookingCancelledEvent;
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.codec.BookingEventCodec;
+import com.notificationservice.kafka.BookingKafkaListener;
+import com.notificationservice.kafka.EmailDispatcher;
+import com.notificationservice.kafka.EmailService;
+import com.notificationservice.kafka.RetryTopics;
+
+class BookingKafkaListenerTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final RetryTopics retryTopics = mock(RetryTopics.class);
+    private EmailDispatcher emailDispatcher;
+    private BookingKafkaListener listener;
+
+    @BeforeEach
+    void setUp() {
+        emailDispatcher = new EmailDispatcher(2);
+        listener = new BookingKafkaListener(emailService, emailDispatcher, retryTopics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailDispatcher.destroy();
+    }
+
+    @Test
+    void eventWithoutTimestamp_isDeadLettered_andTheRestMailed() {
+        BookingCreatedEvent undated = new BookingCreatedEvent("PNR-1", "a@test.com", "FL1", "TestAir", 1, 5000.0,
+                null, null);
+        BookingCreatedEvent dated = new BookingCreatedEvent("PNR-2", "b@test.com", "FL1", "TestAir", 1, 5000.0,
+                LocalDateTime.of(2026, 1, 1, 10, 0), null);
+        ConsumerRecord<String, byte[]> broken = record(0, "PNR-1", BookingEventCodec.encode(undated));
+
+        listener.handleBookingCreated(List.of(broken, record(1, "PNR-2", BookingEventCodec.encode(dated))));
+
+        ArgumentCaptor<Exception> cause = ArgumentCaptor.forClass(Exception.class);
+        verify(retryTopics).deadLetter(eq("booking-created"), same(broken), cause.capture());
+        assertTrue(cause.getValue().getMessage().contains("bookingDateTime"));
+        verify(emailService).sendBookingConfirmationEmail("b@test.com", "PNR-2", "TestAir", 1, 5000.0,
+                "2026-01-01T10:00", null);
+        verify(retryTopics, never()).forward(any(), any(), any());
+    }
+
+    @Test
+    void cancellationWithoutRecipient_isDeadLettered() {
+        BookingCancelledEvent anonymous = new BookingCancelledEvent("PNR-1", null, "FL1", "TestAir",
+                LocalDateTime.of(2026, 1, 1, 10, 0), null);
+        ConsumerRecord<String, byte[]> broken = record(0, "PNR-1", BookingEventCodec.encode(anonymous));
+
+        listener.handleBookingCancelled(List.of(broken));
+
+        verify(retryTopics).deadLetter(eq("booking-cancelled"), same(broken), any());
+        verifyNoInteractions(emailService);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String key, byte[] value) {
+        return new ConsumerRecord<>("booking-created", 0, offset, key, value);
+    }
+}
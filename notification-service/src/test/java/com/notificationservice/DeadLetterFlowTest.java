@@ -0,0 +1,152 @@
+package com.notificationservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookingevents.BookingCreatedEvent;
+import com.bookingevents.BookingEvent;
+import com.bookingevents.codec.BookingEventCodec;
+import com.bookingevents.codec.BookingEventSerializer;
+import com.notificationservice.kafka.DeadLetterReplayer;
+
+/**
+ * A booking whose recipient keeps bouncing must not hold up the bookings around it: they are
+ * mailed while it is retried, it ends up in the dead-letter topic once out of attempts, and
+ * replaying it after the mailbox recovers mails it exactly once.
+ */
+@SpringBootTest(properties = {
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "spring.mail.host=127.0.0.1",
+        "spring.mail.username=",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "notification.retry.attempts=2",
+        "notification.retry.initial-delay=PT0.2S",
+        "notification.retry.multiplier=2"
+})
+@EmbeddedKafka(partitions = 1, topics = {"booking-created", "booking-cancelled"},
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+class DeadLetterFlowTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final SmtpStandIn smtp = SmtpStandIn.start(Duration.ZERO);
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private DeadLetterReplayer replayer;
+
+    @DynamicPropertySource
+    static void mailServer(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.port", smtp::port);
+    }
+
+    @AfterAll
+    static void stopMailServer() {
+        smtp.close();
+    }
+
+    @Test
+    void bouncingRecipient_isRetried_deadLettered_andReplayed() throws Exception {
+        smtp.deferRecipient("bounce@test.com");
+        BookingCreatedEvent bouncing = booking(2, "bounce@test.com");
+        try (KafkaProducer<String, BookingEvent> producer = producer()) {
+            producer.send(new ProducerRecord<>("booking-created", "PNR-1", booking(1, "first@test.com")));
+            producer.send(new ProducerRecord<>("booking-created", "PNR-2", bouncing));
+            producer.send(new ProducerRecord<>("booking-created", "PNR-3", booking(3, "third@test.com")));
+        }
+
+        awaitTrue(() -> recipients().containsAll(List.of("first@test.com", "third@test.com")),
+                "bookings behind the bouncing one were not mailed");
+
+        ConsumerRecord<String, byte[]> dead = deadLetter();
+        assertEquals("PNR-2", dead.key());
+        assertEquals(bouncing, BookingEventCodec.decode(dead.value()));
+        assertEquals("3", header(dead, "notification-attempt"));
+        assertEquals("booking-created-0@1", header(dead, "notification-original-offset"));
+        assertFalse(recipients().contains("bounce@test.com"));
+
+        smtp.acceptAll();
+        assertEquals(1, replayer.replay("booking-created", 10));
+        awaitTrue(() -> recipients().contains("bounce@test.com"), "replayed booking was not mailed");
+
+        assertEquals(0, replayer.replay("booking-created", 10));
+        assertEquals(3, smtp.received().size());
+    }
+
+    private ConsumerRecord<String, byte[]> deadLetter() {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "dead-letter-flow-test");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(props)) {
+            consumer.subscribe(List.of("booking-created-dlt"));
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+            while (records.isEmpty() && System.nanoTime() < deadline) {
+                consumer.poll(Duration.ofMillis(200)).forEach(records::add);
+            }
+            assertEquals(1, records.size(), "bouncing booking was not dead-lettered");
+            return records.get(0);
+        }
+    }
+
+    private static List<String> recipients() {
+        return smtp.received().stream().map(SmtpStandIn.Message::recipient).toList();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean(), message);
+    }
+
+    private static String header(ConsumerRecord<String, byte[]> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+
+    private static BookingCreatedEvent booking(int pnr, String recipient) {
+        return new BookingCreatedEvent("PNR-" + pnr, recipient, "FL1", "TestAir", 1, 5000.0,
+                LocalDateTime.of(2026, 1, 1, 10, 0), null);
+    }
+
+    private KafkaProducer<String, BookingEvent> producer() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BookingEventSerializer.class);
+        return new KafkaProducer<>(props);
+    }
+}
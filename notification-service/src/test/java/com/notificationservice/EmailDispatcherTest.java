@@ -0,0 +1,90 @@
+package com.notificationservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.notificationservice.kafka.EmailDispatcher;
+import com.notificationservice.kafka.EmailDispatcher.Email;
+import com.notificationservice.kafka.EmailDispatcher.Failure;
+
+class EmailDispatcherTest {
+
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EmailDispatcher(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.destroy();
+    }
+
+    @Test
+    void dispatch_sendsRecipientsInParallel_andEachRecipientInOrder() {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch bSent = new CountDownLatch(1);
+
+        dispatcher.dispatch(List.of(
+                // a's first email waits for b's, which only a parallel dispatch lets through
+                new Email(0, "a@test.com", () -> {
+                    await(bSent);
+                    sent.add("a0");
+                }),
+                new Email(1, "b@test.com", () -> {
+                    sent.add("b1");
+                    bSent.countDown();
+                }),
+                new Email(2, "A@test.com", () -> sent.add("a2"))));
+
+        assertEquals(List.of("b1", "a0", "a2"), sent);
+    }
+
+    @Test
+    void dispatch_reportsFailedEmails_andSkipsThatRecipientsLaterEmails() {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+        List<Failure> failures = dispatcher.dispatch(List.of(
+                new Email(0, "a@test.com", () -> sent.add("a0")),
+                new Email(1, "b@test.com", () -> {
+                    throw new IllegalStateException("smtp down");
+                }),
+                new Email(2, "a@test.com", () -> sent.add("a2")),
+                new Email(3, "b@test.com", () -> sent.add("b3")),
+                new Email(4, "c@test.com", () -> {
+                    throw new IllegalStateException("mailbox full");
+                })));
+
+        assertEquals(List.of(1, 3, 4), failures.stream().map(Failure::index).toList());
+        assertEquals("smtp down", failures.get(0).cause().getMessage());
+        // b3 would otherwise arrive before the retried b1
+        assertTrue(failures.get(1).cause().getMessage().startsWith("Not sent"));
+        assertEquals("mailbox full", failures.get(2).cause().getMessage());
+        assertFalse(sent.contains("b3"));
+        assertTrue(sent.containsAll(List.of("a0", "a2")));
+    }
+
+    @Test
+    void dispatch_ofEmptyBatch_reportsNoFailures() {
+        assertEquals(List.of(), dispatcher.dispatch(List.of()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS), "emails were not sent in parallel");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.notificationservice;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import com.notificationservice.template.EmailKind;
+import com.notificationservice.template.EmailTemplates;
+import com.notificationservice.template.EmailTemplates.RenderedEmail;
+
+/**
+ * Cost per booking confirmation of rendering the email and building its MIME message, up to
+ * the bytes written to the SMTP connection: the precompiled template with a single-part
+ * message against the former {@code String.formatted} body in a multipart message.
+ * Not part of the test run; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.notificationservice.EmailRenderBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailRenderBenchmark {
+
+    private Session session;
+    private EmailTemplates templates;
+
+    @Setup
+    public void setUp() throws IOException {
+        session = Session.getInstance(new Properties());
+        templates = new EmailTemplates(new DefaultResourceLoader(), "en");
+    }
+
+    @Benchmark
+    public MimeMessage templatedSinglePart() throws MessagingException, IOException {
+        RenderedEmail email = templates.render(EmailKind.BOOKING_CONFIRMED, null,
+                "PNR-123456", "TestAir", 2, 5000.0, "2026-01-01T10:00");
+        MimeMessage message = new MimeMessage(session);
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, StandardCharsets.UTF_8.name());
+        helper.setTo("user@test.com");
+        helper.setSubject(email.subject());
+        helper.setText(email.html(), true);
+        return written(message);
+    }
+
+    @Benchmark
+    public MimeMessage formattedMultipart() throws MessagingException, IOException {
+        MimeMessage message = new MimeMessage(session);
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setTo("user@test.com");
+        helper.setSubject("Flight Booking Confirmation - " + "PNR-123456");
+        String htmlMsg = """
+                <h2>Flight Booking Confirmed</h2>
+                <p>Your booking is confirmed!</p>
+                <p><b>PNR:</b> %s</p>
+                <p><b>Airline:</b> %s</p>
+                <p><b>Seats:</b> %d</p>
+                <p><b>Total Amount:</b> %s</p>
+                <p><b>Date & Time:</b> %s</p>
+                """.formatted("PNR-123456", "TestAir", 2, 5000.0, "2026-01-01T10:00");
+        helper.setText(htmlMsg, true);
+        return written(message);
+    }
+
+    // what sending does to the message before and while it goes out
+    private static MimeMessage written(MimeMessage message) throws MessagingException, IOException {
+        message.saveChanges();
+        message.writeTo(OutputStream.nullOutputStream());
+        return message;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailRenderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
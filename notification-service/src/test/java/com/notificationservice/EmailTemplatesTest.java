@@ -0,0 +1,79 @@
+package com.notificationservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import com.notificationservice.template.EmailKind;
+import com.notificationservice.template.EmailTemplate;
+import com.notificationservice.template.EmailTemplates;
+import com.notificationservice.template.EmailTemplates.RenderedEmail;
+
+class EmailTemplatesTest {
+
+    private EmailTemplates templates;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // picks up the French variant under src/test/resources next to the shipped templates
+        templates = new EmailTemplates(new DefaultResourceLoader(), "en");
+    }
+
+    @Test
+    void render_fillsSubjectAndBody() {
+        RenderedEmail email = templates.render(EmailKind.BOOKING_CONFIRMED, null,
+                "PNR-1", "TestAir", 2, 5000.0, "2026-01-01T10:00");
+
+        assertEquals("Flight Booking Confirmation - PNR-1", email.subject());
+        assertTrue(email.html().startsWith("<h2>Flight Booking Confirmed</h2>"));
+        assertTrue(email.html().contains("<p><b>PNR:</b> PNR-1</p>"));
+        assertTrue(email.html().contains("<p><b>Seats:</b> 2</p>"));
+        assertTrue(email.html().contains("<p><b>Total Amount:</b> 5000.0</p>"));
+        assertTrue(email.html().contains("<p><b>Date & Time:</b> 2026-01-01T10:00</p>"));
+    }
+
+    @Test
+    void render_escapesValuesInTheBody() {
+        RenderedEmail email = templates.render(EmailKind.BOOKING_CANCELLED, null,
+                "PNR-1", "<b>A&B</b> \"Air\"", "2026-01-01T10:00");
+
+        assertTrue(email.html().contains("<p><b>Airline:</b> &lt;b&gt;A&amp;B&lt;/b&gt; &quot;Air&quot;</p>"));
+        assertEquals("Flight Booking Cancelled - PNR-1", email.subject());
+    }
+
+    @Test
+    void render_usesLanguageVariant_andFallsBackToDefault() {
+        RenderedEmail french = templates.render(EmailKind.BOOKING_CONFIRMED, Locale.FRANCE,
+                "PNR-1", "TestAir", 2, 5000.0, "2026-01-01T10:00");
+        RenderedEmail german = templates.render(EmailKind.BOOKING_CONFIRMED, Locale.GERMANY,
+                "PNR-1", "TestAir", 2, 5000.0, "2026-01-01T10:00");
+
+        assertEquals("Confirmation de réservation - PNR-1", french.subject());
+        assertTrue(french.html().contains("<p><b>Sièges :</b> 2</p>"));
+        assertEquals("Flight Booking Confirmation - PNR-1", german.subject());
+    }
+
+    @Test
+    void render_rejectsWrongNumberOfValues() {
+        assertThrows(IllegalArgumentException.class,
+                () -> templates.render(EmailKind.BOOKING_CANCELLED, null, "PNR-1", "TestAir"));
+    }
+
+    @Test
+    void compile_rejectsUnknownPlaceholder() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> EmailTemplate.compile("test.html", "Subject {{pnr}}\n\n<p>{{seat}}</p>", List.of("pnr")));
+        assertTrue(ex.getMessage().contains("{{seat}}"));
+    }
+
+    @Test
+    void compile_requiresSubjectLine() {
+        assertThrows(IllegalArgumentException.class,
+                () -> EmailTemplate.compile("test.html", "<p>{{pnr}}</p>", List.of("pnr")));
+    }
+}
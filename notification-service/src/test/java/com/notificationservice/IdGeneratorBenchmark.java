@@ -0,0 +1,59 @@
+package com.notificationservice;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.bookingevents.id.SequenceIdGenerator;
+
+/**
+ * Cost per reference of the booking and flight services' {@link SequenceIdGenerator} against the
+ * generators it replaced: the first 8 characters of a random UUID, used for PNRs and reservation
+ * references, and the 3-digit random flight number suffix. Run on 8 threads, since the shared
+ * generator is contended by concurrent requests. Not part of the test run; start it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.notificationservice.IdGeneratorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private final SequenceIdGenerator generator = new SequenceIdGenerator(1, Clock.systemUTC());
+
+    @Benchmark
+    public String sequenceId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String uuidPrefix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Benchmark
+    public String randomFlightNumber() {
+        return "AI" + (int) (Math.random() * 900 + 100);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IdGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,158 @@
+package com.notificationservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.notificationservice.exceptions.InvalidEmailException;
+import com.notificationservice.exceptions.RejectedEmailException;
+import com.notificationservice.kafka.RetryTopics;
+
+class RetryTopicsTest {
+
+    private static final byte[] PAYLOAD = {(byte) 0xBE, 1, 1};
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+
+    private RetryTopics retryTopics;
+
+    @BeforeEach
+    void setUp() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        retryTopics = new RetryTopics(kafkaTemplate, 2, Duration.ofSeconds(10), 6);
+    }
+
+    @Test
+    void retryTopicNames_oneTopicPerAttempt() {
+        assertArrayEquals(new String[] {"booking-created-retry-0", "booking-created-retry-1"},
+                retryTopics.retryTopicNames("booking-created"));
+        assertEquals("booking-created-dlt", retryTopics.deadLetterTopic("booking-created"));
+    }
+
+    @Test
+    void forward_firstFailure_goesToFirstRetryTopic_dueAfterInitialDelay() {
+        long before = Instant.now().toEpochMilli();
+
+        retryTopics.forward("booking-created", record("booking-created", 7), new IllegalStateException("smtp down"));
+
+        ProducerRecord<String, byte[]> sent = sent();
+        assertEquals("booking-created-retry-0", sent.topic());
+        assertEquals("PNR1", sent.key());
+        assertEquals("1", header(sent, "notification-attempt"));
+        assertEquals("smtp down", header(sent, "notification-error"));
+        assertEquals("booking-created-0@7", header(sent, "notification-original-offset"));
+        long dueAt = Long.parseLong(header(sent, "notification-due-at"));
+        assertTrue(dueAt >= before + 10_000 && dueAt <= Instant.now().toEpochMilli() + 10_000);
+    }
+
+    @Test
+    void forward_secondFailure_goesToNextRetryTopic_withMultipliedDelay() {
+        ConsumerRecord<String, byte[]> retried = record("booking-created-retry-0", 3);
+        retried.headers().add("notification-attempt", bytes("1"));
+        retried.headers().add("notification-original-offset", bytes("booking-created-0@7"));
+        long before = Instant.now().toEpochMilli();
+
+        retryTopics.forward("booking-created", retried, new IllegalStateException("smtp down"));
+
+        ProducerRecord<String, byte[]> sent = sent();
+        assertEquals("booking-created-retry-1", sent.topic());
+        assertEquals("2", header(sent, "notification-attempt"));
+        assertEquals("booking-created-0@7", header(sent, "notification-original-offset"));
+        assertTrue(Long.parseLong(header(sent, "notification-due-at")) >= before + 60_000);
+    }
+
+    @Test
+    void forward_outOfAttempts_goesToDeadLetterTopic() {
+        ConsumerRecord<String, byte[]> retried = record("booking-created-retry-1", 0);
+        retried.headers().add("notification-attempt", bytes("2"));
+
+        retryTopics.forward("booking-created", retried, new IllegalStateException("smtp down"));
+
+        ProducerRecord<String, byte[]> sent = sent();
+        assertEquals("booking-created-dlt", sent.topic());
+        assertEquals("3", header(sent, "notification-attempt"));
+        assertNull(sent.headers().lastHeader("notification-due-at"));
+    }
+
+    @Test
+    void forward_permanentFailure_goesStraightToDeadLetterTopic() {
+        retryTopics.forward("booking-created", record("booking-created", 7),
+                new InvalidEmailException("Invalid recipient", null));
+
+        assertEquals("booking-created-dlt", sent().topic());
+    }
+
+    @Test
+    void forward_refusedByMailServer_goesStraightToDeadLetterTopic() {
+        retryTopics.forward("booking-created", record("booking-created", 7),
+                new RejectedEmailException("Mail refused: 550 Mailbox unavailable", null));
+
+        ProducerRecord<String, byte[]> sent = sent();
+        assertEquals("booking-created-dlt", sent.topic());
+        assertEquals("1", header(sent, "notification-attempt"));
+    }
+
+    @Test
+    void replay_sendsBackToTopic_withoutRetryHeaders() {
+        ConsumerRecord<String, byte[]> dead = record("booking-created-dlt", 0);
+        dead.headers().add("notification-attempt", bytes("3"));
+        dead.headers().add("notification-error", bytes("smtp down"));
+        dead.headers().add("traceparent", bytes("00-abc-def-01"));
+
+        retryTopics.replay("booking-created", dead);
+
+        ProducerRecord<String, byte[]> sent = sent();
+        assertEquals("booking-created", sent.topic());
+        assertArrayEquals(PAYLOAD, sent.value());
+        assertNull(sent.headers().lastHeader("notification-attempt"));
+        assertNull(sent.headers().lastHeader("notification-error"));
+        assertEquals("00-abc-def-01", header(sent, "traceparent"));
+    }
+
+    @Test
+    void untilDue_isZeroWithoutDueTime_andOnceDue() {
+        ConsumerRecord<String, byte[]> record = record("booking-created-retry-0", 0);
+        assertEquals(Duration.ZERO, retryTopics.untilDue(record));
+
+        record.headers().add("notification-due-at", bytes(Long.toString(Instant.now().plusSeconds(30).toEpochMilli())));
+        assertTrue(retryTopics.untilDue(record).compareTo(Duration.ofSeconds(25)) > 0);
+
+        record.headers().add("notification-due-at", bytes(Long.toString(Instant.now().minusSeconds(1).toEpochMilli())));
+        assertEquals(Duration.ZERO, retryTopics.untilDue(record));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, byte[]> sent() {
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, long offset) {
+        return new ConsumerRecord<>(topic, 0, offset, "PNR1", PAYLOAD);
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        assertNotNull(header, key);
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,153 @@
+package com.notificationservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import com.notificationservice.exceptions.RejectedEmailException;
+import com.notificationservice.mail.SmtpConnectionPool;
+
+class SmtpConnectionPoolTest {
+
+    private SmtpStandIn smtp;
+    private SmtpConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.destroy();
+        }
+        smtp.close();
+    }
+
+    @Test
+    void send_reusesConnections_andIsAnOrderOfMagnitudeFaster() throws Exception {
+        // the stand-in's slow greeting plays the part of TCP + STARTTLS + AUTH
+        smtp = SmtpStandIn.start(Duration.ofMillis(20), Duration.ZERO);
+        JavaMailSenderImpl mailSender = mailSender();
+        pool = new SmtpConnectionPool(mailSender, 4, 1000, Duration.ofSeconds(30));
+        int messages = 100;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            mailSender.send(message(mailSender, "user@test.com", "PNR-" + i));
+        }
+        Duration connectionPerMessage = Duration.ofNanos(System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            pool.send(message(mailSender, "user@test.com", "PNR-" + i));
+        }
+        Duration pooled = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(2 * messages, smtp.received().size());
+        assertEquals(messages + 1, smtp.totalSessions());
+        assertTrue(pooled.multipliedBy(10).compareTo(connectionPerMessage) <= 0,
+                "pooled " + pooled + " vs connection per message " + connectionPerMessage);
+    }
+
+    @Test
+    void send_reconnects_whenServerDroppedTheConnection() throws Exception {
+        smtp = SmtpStandIn.start(Duration.ZERO);
+        JavaMailSenderImpl mailSender = mailSender();
+        pool = new SmtpConnectionPool(mailSender, 4, 1000, Duration.ofSeconds(30));
+
+        pool.send(message(mailSender, "user@test.com", "PNR-1"));
+        smtp.dropSessions();
+        pool.send(message(mailSender, "user@test.com", "PNR-2"));
+
+        assertEquals(List.of("PNR-1", "PNR-2"), smtp.received().stream().map(SmtpStandIn.Message::subject).toList());
+        assertEquals(2, smtp.totalSessions());
+    }
+
+    @Test
+    void send_neverOpensMoreThanMaxConnections() throws Exception {
+        smtp = SmtpStandIn.start(Duration.ofMillis(5));
+        JavaMailSenderImpl mailSender = mailSender();
+        pool = new SmtpConnectionPool(mailSender, 2, 1000, Duration.ofSeconds(30));
+
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                String pnr = "PNR-" + i;
+                sent.add(senders.submit(() -> {
+                    pool.send(message(mailSender, "user@test.com", pnr));
+                    return null;
+                }));
+            }
+            for (Future<?> result : sent) {
+                result.get();
+            }
+        } finally {
+            senders.shutdown();
+        }
+
+        assertEquals(80, smtp.received().size());
+        assertTrue(smtp.peakSessions() <= 2, "opened " + smtp.peakSessions() + " connections at once");
+    }
+
+    @Test
+    void send_replacesConnection_afterMaxMessages() throws Exception {
+        smtp = SmtpStandIn.start(Duration.ZERO);
+        JavaMailSenderImpl mailSender = mailSender();
+        pool = new SmtpConnectionPool(mailSender, 4, 3, Duration.ofSeconds(30));
+
+        for (int i = 0; i < 7; i++) {
+            pool.send(message(mailSender, "user@test.com", "PNR-" + i));
+        }
+
+        assertEquals(7, smtp.received().size());
+        assertEquals(3, smtp.totalSessions());
+    }
+
+    @Test
+    void send_tellsRefusedRecipients_fromFailuresWorthRetrying() throws Exception {
+        smtp = SmtpStandIn.start(Duration.ZERO);
+        smtp.rejectRecipient("gone@test.com");
+        smtp.deferRecipient("busy@test.com");
+        JavaMailSenderImpl mailSender = mailSender();
+        pool = new SmtpConnectionPool(mailSender, 4, 1000, Duration.ofSeconds(30));
+
+        assertThrows(RejectedEmailException.class, () -> pool.send(message(mailSender, "gone@test.com", "PNR-1")));
+        MailSendException deferred = assertThrows(MailSendException.class,
+                () -> pool.send(message(mailSender, "busy@test.com", "PNR-2")));
+        assertFalse(deferred instanceof RejectedEmailException);
+        assertTrue(smtp.received().isEmpty());
+    }
+
+    private JavaMailSenderImpl mailSender() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.port());
+        Properties props = new Properties();
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(props);
+        return mailSender;
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl mailSender, String to, String subject) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom("noreply@test.com");
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText("<p>" + subject + "</p>", true);
+        return message;
+    }
+}
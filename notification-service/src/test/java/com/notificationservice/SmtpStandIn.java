@@ -0,0 +1,181 @@
+package com.notificationservice;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local SMTP server that greets each connection and accepts every message after fixed delays,
+ * standing in for a real mail server whose handshakes and conversations are slow. Recipients can
+ * be made to bounce, as on a mailbox that is temporarily unavailable. It records
+ * each message's recipient and subject in arrival order, the sessions it was asked to open and
+ * the most it had open at once.
+ */
+final class SmtpStandIn implements AutoCloseable {
+
+    record Message(String recipient, String subject) {
+    }
+
+    private final ServerSocket server;
+    private final Duration handshakeLatency;
+    private final Duration latency;
+    private final ExecutorService sessions = Executors.newCachedThreadPool();
+    private final List<Message> received = new ArrayList<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger total = new AtomicInteger();
+    private final Set<Socket> live = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> rejected = new ConcurrentHashMap<>();
+
+    private SmtpStandIn(ServerSocket server, Duration handshakeLatency, Duration latency) {
+        this.server = server;
+        this.handshakeLatency = handshakeLatency;
+        this.latency = latency;
+    }
+
+    static SmtpStandIn start(Duration latency) {
+        return start(Duration.ZERO, latency);
+    }
+
+    static SmtpStandIn start(Duration handshakeLatency, Duration latency) {
+        try {
+            SmtpStandIn smtp = new SmtpStandIn(new ServerSocket(0, 200, InetAddress.getLoopbackAddress()),
+                    handshakeLatency, latency);
+            smtp.sessions.submit(smtp::accept);
+            return smtp;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    List<Message> received() {
+        synchronized (received) {
+            return List.copyOf(received);
+        }
+    }
+
+    int peakSessions() {
+        return peak.get();
+    }
+
+    int totalSessions() {
+        return total.get();
+    }
+
+    // hangs up on every open session, as a server dropping idle connections does
+    void dropSessions() throws IOException {
+        for (Socket socket : live) {
+            socket.close();
+        }
+    }
+
+    // answers RCPT TO for the recipient with 550 until acceptAll
+    void rejectRecipient(String recipient) {
+        rejected.put(recipient.toLowerCase(Locale.ROOT), "550 Mailbox unavailable");
+    }
+
+    // answers RCPT TO for the recipient with 450, a failure worth retrying, until acceptAll
+    void deferRecipient(String recipient) {
+        rejected.put(recipient.toLowerCase(Locale.ROOT), "450 Mailbox busy");
+    }
+
+    void acceptAll() {
+        rejected.clear();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                sessions.submit(() -> session(socket));
+            } catch (IOException ex) {
+                return; // closed
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        total.incrementAndGet();
+        peak.accumulateAndGet(open.incrementAndGet(), Math::max);
+        live.add(socket);
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            Thread.sleep(handshakeLatency.toMillis());
+            reply(out, "220 stand-in ESMTP");
+            String recipient = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase(Locale.ROOT);
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 stand-in");
+                } else if (command.startsWith("RCPT TO:")) {
+                    recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    reply(out, rejected.getOrDefault(recipient.toLowerCase(Locale.ROOT), "250 OK"));
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    String subject = null;
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        if (subject == null && line.startsWith("Subject: ")) {
+                            subject = line.substring("Subject: ".length());
+                        }
+                    }
+                    Thread.sleep(latency.toMillis());
+                    synchronized (received) {
+                        received.add(new Message(recipient, subject));
+                    }
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    // MAIL FROM, RSET, NOOP
+                    reply(out, "250 OK");
+                }
+            }
+        } catch (IOException ex) {
+            // client went away
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            live.remove(socket);
+            open.decrementAndGet();
+        }
+    }
+
+    private static void reply(Writer out, String line) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException ex) {
+            // already closed
+        }
+        sessions.shutdownNow();
+    }
+}
@@ -13,6 +13,11 @@ pipeline {
             }
         }
 
+        // shared by Booking, Flight and Notification Service, so installed before they build
+        stage('Booking Events') {
+            steps { dir('booking-events'){ bat 'mvn install -DskipTests' } }
+        }
+
         stage('Build All Services') {
             parallel {
 